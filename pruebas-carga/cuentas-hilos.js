@@ -0,0 +1,101 @@
+// Prueba de carga con k6 para comparar el modo de hilos de plataforma con el de hilos virtuales.
+//
+// 1. Arrancar el servicio en cada modo (Java 21):
+//      ./mvnw -Pjdk21 spring-boot:run                                                  -> plataforma
+//      ./mvnw -Pjdk21 spring-boot:run -Dspring-boot.run.profiles=virtual               -> virtual
+// 2. Ejecutar la misma carga contra cada uno, indicando el modo para el archivo de resultados:
+//      k6 run -e BASE_URL=http://localhost:8081 -e MODO=plataforma -e CLIENTE_ID=1 pruebas-carga/cuentas-hilos.js
+//      k6 run -e BASE_URL=http://localhost:8081 -e MODO=virtual    -e CLIENTE_ID=1 pruebas-carga/cuentas-hilos.js
+// 3. Comparar "peticiones/s" y "p99 (ms)" en resultados-plataforma.json y resultados-virtual.json.
+//
+// Resultados: todavía no medidos. El script no se ha ejecutado contra ninguno de los dos modos, así que no hay
+// cifras de plataforma frente a virtual que citar. Al medir, anotar aquí la máquina (núcleos, memoria), el
+// tamaño del pool de Hikari, TASA y DURACION, y las cifras de ambos archivos. Una máquina de un solo núcleo,
+// o una en la que MySQL y CUSTOMER-MS compiten por la CPU con el servicio, no sirve para comparar.
+//
+// CLIENTE_ID debe existir en CUSTOMER-MS (se usa para crear las cuentas de la prueba).
+// La carga usa una tasa de llegada constante: si el servicio no da abasto, k6 registra las iteraciones
+// descartadas en lugar de reducir la carga, así que el p99 refleja la cola real.
+
+import http from 'k6/http';
+import { check } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8081';
+const MODO = __ENV.MODO || 'sin-nombre';
+const CLIENTE_ID = Number(__ENV.CLIENTE_ID || 1);
+const CUENTAS = Number(__ENV.CUENTAS || 50);
+const TASA = Number(__ENV.TASA || 500);
+const DURACION = __ENV.DURACION || '2m';
+
+export const options = {
+    scenarios: {
+        operaciones: {
+            executor: 'constant-arrival-rate',
+            rate: TASA,
+            timeUnit: '1s',
+            duration: DURACION,
+            preAllocatedVUs: 200,
+            maxVUs: 2000,
+        },
+    },
+    summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max'],
+    thresholds: {
+        http_req_failed: ['rate<0.01'],
+    },
+};
+
+export function setup() {
+    const numeros = [];
+    for (let i = 0; i < CUENTAS; i++) {
+        const respuesta = http.post(`${BASE_URL}/cuentas`, JSON.stringify({
+            saldo: 1000000.00,
+            tipoCuenta: 'AHORROS',
+            clienteId: CLIENTE_ID,
+        }), { headers: { 'Content-Type': 'application/json' } });
+        check(respuesta, { 'cuenta creada': (r) => r.status === 201 });
+        numeros.push(respuesta.json('datos.numeroCuenta'));
+    }
+    return { numeros };
+}
+
+// Mezcla de operaciones: consultas por cliente, depósitos, retiros y transferencias entre cuentas aleatorias.
+export default function (datos) {
+    const numeros = datos.numeros;
+    const cuenta = numeros[Math.floor(Math.random() * numeros.length)];
+    const otra = numeros[Math.floor(Math.random() * numeros.length)];
+    const operacion = Math.random();
+
+    let respuesta;
+    if (operacion < 0.4) {
+        respuesta = http.get(`${BASE_URL}/cuentas/cliente/${CLIENTE_ID}`, { tags: { operacion: 'consulta' } });
+    } else if (operacion < 0.7) {
+        respuesta = http.put(`${BASE_URL}/cuentas/depositar?numeroCuenta=${cuenta}&monto=1.00`, null,
+            { tags: { operacion: 'deposito' } });
+    } else if (operacion < 0.9) {
+        respuesta = http.put(`${BASE_URL}/cuentas/retirar?numeroCuenta=${cuenta}&monto=1.00`, null,
+            { tags: { operacion: 'retiro' } });
+    } else if (cuenta !== otra) {
+        respuesta = http.put(`${BASE_URL}/cuentas/realizar-transferencia?cuentaOrigen=${cuenta}&cuentaDestino=${otra}&monto=1.00`,
+            null, { tags: { operacion: 'transferencia' } });
+    } else {
+        return;
+    }
+    check(respuesta, { 'respuesta 2xx': (r) => r.status >= 200 && r.status < 300 });
+}
+
+export function handleSummary(resumen) {
+    const duracion = resumen.metrics.http_req_duration.values;
+    const resultado = {
+        modo: MODO,
+        'peticiones/s': resumen.metrics.http_reqs.values.rate,
+        'p50 (ms)': duracion['p(50)'],
+        'p99 (ms)': duracion['p(99)'],
+        'max (ms)': duracion.max,
+        'errores (%)': resumen.metrics.http_req_failed.values.rate * 100,
+        'iteraciones descartadas': resumen.metrics.dropped_iterations ? resumen.metrics.dropped_iterations.values.count : 0,
+    };
+    return {
+        stdout: JSON.stringify(resultado, null, 2) + '\n',
+        [`resultados-${MODO}.json`]: JSON.stringify(resultado, null, 2),
+    };
+}
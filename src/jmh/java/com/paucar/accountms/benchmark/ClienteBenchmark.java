@@ -0,0 +1,75 @@
+package com.paucar.accountms.benchmark;
+
+import com.paucar.accountms.cliente.ServicioClientesSimulado;
+import com.paucar.accountms.exception.ClienteNoEncontradoException;
+import com.paucar.accountms.service.cliente.ClienteValidacionServiceImpl;
+import com.paucar.accountms.util.PoliticaFallbackCliente;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.LongStream;
+
+// Validación de los clientes de un lote de cuentas contra el CUSTOMER-MS simulado (1 ms de latencia por
+// petición): una llamada por cliente, como antes, frente a la consulta por bloques. Cada invocación usa
+// ids nuevos para que la caché no oculte las llamadas remotas.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ClienteBenchmark {
+
+    @Param({"10", "500"})
+    private int clientes;
+
+    private ServicioClientesSimulado customerMs;
+    private ClienteValidacionServiceImpl validacion;
+    private final AtomicLong siguienteId = new AtomicLong(1);
+
+    @Setup(Level.Trial)
+    public void arrancar() throws Exception {
+        // Uno de cada diez clientes no existe
+        customerMs = new ServicioClientesSimulado(id -> id % 10 != 0, Duration.ofMillis(1), true);
+        validacion = new ClienteValidacionServiceImpl(customerMs.clienteFeign(), new SimpleMeterRegistry(),
+                CircuitBreakerRegistry.ofDefaults(), BulkheadRegistry.ofDefaults(), PoliticaFallbackCliente.RECHAZAR,
+                false, 10_000, Duration.ofMinutes(10), Duration.ofSeconds(30), Duration.ofMinutes(5), 100, 4,
+                Duration.ofMinutes(5));
+    }
+
+    @TearDown(Level.Trial)
+    public void detener() {
+        validacion.detener();
+        customerMs.close();
+    }
+
+    @Benchmark
+    public int porId() {
+        int inexistentes = 0;
+        for (Long id : idsNuevos()) {
+            try {
+                validacion.validarCliente(id);
+            } catch (ClienteNoEncontradoException e) {
+                inexistentes++;
+            }
+        }
+        return inexistentes;
+    }
+
+    @Benchmark
+    public Set<Long> porLote() {
+        return validacion.buscarClientesInexistentes(idsNuevos());
+    }
+
+    private List<Long> idsNuevos() {
+        long inicio = siguienteId.getAndAdd(clientes);
+        return LongStream.range(inicio, inicio + clientes).boxed().toList();
+    }
+}
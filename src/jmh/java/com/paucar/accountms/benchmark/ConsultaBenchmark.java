@@ -0,0 +1,124 @@
+package com.paucar.accountms.benchmark;
+
+import com.paucar.accountms.AccountMsApplication;
+import com.paucar.accountms.dto.CuentaDTO;
+import com.paucar.accountms.mapper.CuentaMapper;
+import com.paucar.accountms.model.Cuenta;
+import com.paucar.accountms.repository.CuentaRepository;
+import com.paucar.accountms.util.EstadoCuenta;
+import com.paucar.accountms.util.TipoCuenta;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+// Consultas de GET /cuentas/{id} y del listado por cliente (sin la caché de listas) contra H2 en memoria:
+// entidades administradas + mapper, como antes, frente a proyecciones en transacciones de solo lectura.
+// La diferencia de memoria se ve con el perfilador de GC: -Djmh.args="Consulta -prof gc" (gc.alloc.rate.norm).
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConsultaBenchmark {
+
+    private static final int CLIENTES = 100;
+    private static final int CUENTAS_POR_CLIENTE = 5;
+
+    private ConfigurableApplicationContext contexto;
+    private CuentaRepository cuentaRepository;
+    private CuentaMapper cuentaMapper;
+    private EntityManager entityManager;
+    private TransactionTemplate transaccion;
+    private TransactionTemplate transaccionSoloLectura;
+    private List<Long> ids;
+
+    @Setup(Level.Trial)
+    public void arrancar() {
+        // Argumentos de línea de comandos: tienen prioridad sobre application.yml (datasource de MySQL)
+        contexto = new SpringApplicationBuilder(AccountMsApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(
+                        "--spring.datasource.url=jdbc:h2:mem:jmh-consulta;MODE=MySQL;DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.show-sql=false",
+                        "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                        "--eureka.client.enabled=false",
+                        "--logging.level.root=WARN");
+        cuentaRepository = contexto.getBean(CuentaRepository.class);
+        cuentaMapper = contexto.getBean(CuentaMapper.class);
+        entityManager = SharedEntityManagerCreator.createSharedEntityManager(contexto.getBean(EntityManagerFactory.class));
+
+        PlatformTransactionManager transactionManager = contexto.getBean(PlatformTransactionManager.class);
+        transaccion = new TransactionTemplate(transactionManager);
+        transaccionSoloLectura = new TransactionTemplate(transactionManager);
+        transaccionSoloLectura.setReadOnly(true);
+
+        ids = cuentaRepository.saveAll(IntStream.range(0, CLIENTES * CUENTAS_POR_CLIENTE)
+                        .mapToObj(i -> Cuenta.builder()
+                                .numeroCuenta(String.valueOf(1_000_000_000L + i))
+                                .saldoCentavos(150_075L)
+                                .tipoCuenta(i % 2 == 0 ? TipoCuenta.AHORROS : TipoCuenta.CORRIENTE)
+                                .clienteId(1L + i % CLIENTES)
+                                .estado(EstadoCuenta.ACTIVO)
+                                .build())
+                        .toList())
+                .stream()
+                .map(Cuenta::getId)
+                .toList();
+    }
+
+    @TearDown(Level.Trial)
+    public void detener() {
+        contexto.close();
+    }
+
+    // Antes: entidad administrada (con su copia para la detección de cambios) copiada al DTO por el mapper.
+    @Benchmark
+    public CuentaDTO porIdEntidad() {
+        Long id = ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+        return transaccion.execute(estado -> cuentaRepository.findById(id)
+                .map(cuentaMapper::convertEntidadADto)
+                .orElseThrow());
+    }
+
+    @Benchmark
+    public CuentaDTO porIdProyeccion() {
+        Long id = ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+        return transaccionSoloLectura.execute(estado -> cuentaRepository.buscarProyeccionPorId(id)
+                .map(cuentaMapper::convertirProyeccionADto)
+                .orElseThrow());
+    }
+
+    @Benchmark
+    public List<CuentaDTO> porClienteEntidad() {
+        long clienteId = 1L + ThreadLocalRandom.current().nextInt(CLIENTES);
+        return transaccion.execute(estado -> entityManager
+                .createQuery("SELECT c FROM Cuenta c WHERE c.clienteId = :clienteId", Cuenta.class)
+                .setParameter("clienteId", clienteId)
+                .getResultList().stream()
+                .map(cuentaMapper::convertEntidadADto)
+                .toList());
+    }
+
+    @Benchmark
+    public List<CuentaDTO> porClienteProyeccion() {
+        long clienteId = 1L + ThreadLocalRandom.current().nextInt(CLIENTES);
+        return transaccionSoloLectura.execute(estado -> cuentaRepository.buscarProyeccionesPorClienteId(clienteId).stream()
+                .map(cuentaMapper::convertirProyeccionADto)
+                .toList());
+    }
+}
@@ -0,0 +1,73 @@
+package com.paucar.accountms.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Aritmética del saldo en cada depósito y retiro: Double en la entidad (como antes de pasar a centavos, con
+// la comprobación de saldo de los retiros) frente a long en centavos. Cada invocación aplica la misma serie
+// de movimientos sobre un saldo guardado en un campo, como el de la entidad, para que el JIT no elimine el
+// boxing de Double.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DineroBenchmark {
+
+    private static final int MOVIMIENTOS = 1000;
+    private static final long SALDO_INICIAL_CENTAVOS = 1_000_00L;
+
+    private Double[] montosDouble;
+    private long[] montosCentavos;
+    // Uno de cada tres movimientos es un retiro
+    private boolean[] retiros;
+
+    private Double saldoDouble;
+    private long saldoCentavos;
+
+    @Setup
+    public void preparar() {
+        Random aleatorio = new Random(42);
+        montosDouble = new Double[MOVIMIENTOS];
+        montosCentavos = new long[MOVIMIENTOS];
+        retiros = new boolean[MOVIMIENTOS];
+        for (int i = 0; i < MOVIMIENTOS; i++) {
+            long centavos = 1 + aleatorio.nextInt(10_000_00);
+            montosCentavos[i] = centavos;
+            // Como llegaba el monto en el JSON: un decimal con dos cifras
+            montosDouble[i] = Double.valueOf(centavos / 100.0);
+            retiros[i] = i % 3 == 2;
+        }
+    }
+
+    @Benchmark
+    public Double aplicarMovimientosDouble() {
+        saldoDouble = SALDO_INICIAL_CENTAVOS / 100.0;
+        for (int i = 0; i < MOVIMIENTOS; i++) {
+            Double monto = montosDouble[i];
+            if (!retiros[i]) {
+                saldoDouble = saldoDouble + monto;
+            } else if (saldoDouble >= monto) {
+                saldoDouble = saldoDouble - monto;
+            }
+        }
+        return saldoDouble;
+    }
+
+    @Benchmark
+    public long aplicarMovimientosCentavos() {
+        saldoCentavos = SALDO_INICIAL_CENTAVOS;
+        for (int i = 0; i < MOVIMIENTOS; i++) {
+            long monto = montosCentavos[i];
+            if (!retiros[i]) {
+                saldoCentavos = saldoCentavos + monto;
+            } else if (saldoCentavos >= monto) {
+                saldoCentavos = saldoCentavos - monto;
+            }
+        }
+        return saldoCentavos;
+    }
+}
@@ -0,0 +1,58 @@
+package com.paucar.accountms.benchmark;
+
+import com.paucar.accountms.dto.CuentaDTO;
+import com.paucar.accountms.mapper.CuentaMapper;
+import com.paucar.accountms.mapper.CuentaMapperImpl;
+import com.paucar.accountms.model.Cuenta;
+import com.paucar.accountms.util.EstadoCuenta;
+import com.paucar.accountms.util.TipoCuenta;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+// Conversiones entidad <-> DTO de MapStruct, incluida la conversión de centavos a BigDecimal.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapperBenchmark {
+
+    private CuentaMapper mapper;
+    private Cuenta cuenta;
+    private CuentaDTO cuentaDTO;
+
+    @Setup
+    public void preparar() {
+        mapper = new CuentaMapperImpl();
+        cuenta = Cuenta.builder()
+                .id(1L)
+                .numeroCuenta("1234567890")
+                .saldoCentavos(150_075L)
+                .tipoCuenta(TipoCuenta.AHORROS)
+                .clienteId(1L)
+                .estado(EstadoCuenta.ACTIVO)
+                .version(3L)
+                .build();
+        cuentaDTO = CuentaDTO.builder()
+                .id(1L)
+                .numeroCuenta("1234567890")
+                .saldo(new BigDecimal("1500.75"))
+                .tipoCuenta(TipoCuenta.AHORROS)
+                .clienteId(1L)
+                .estado(EstadoCuenta.ACTIVO)
+                .build();
+    }
+
+    @Benchmark
+    public CuentaDTO entidadADto() {
+        return mapper.convertEntidadADto(cuenta);
+    }
+
+    @Benchmark
+    public Cuenta dtoAEntidad() {
+        return mapper.convertirDtoAEntidad(cuentaDTO);
+    }
+}
@@ -0,0 +1,55 @@
+package com.paucar.accountms.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.paucar.accountms.dto.CuentaDTO;
+import com.paucar.accountms.util.ApiResponse;
+import com.paucar.accountms.util.EstadoCuenta;
+import com.paucar.accountms.util.TipoCuenta;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+// Serialización JSON de las respuestas: una cuenta y una página de cuentas.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializacionBenchmark {
+
+    @Param({"1", "100"})
+    public int cuentas;
+
+    private ObjectMapper objectMapper;
+    private ApiResponse<List<CuentaDTO>> respuesta;
+
+    @Setup
+    public void preparar() {
+        objectMapper = new ObjectMapper();
+        List<CuentaDTO> datos = IntStream.range(0, cuentas)
+                .mapToObj(i -> CuentaDTO.builder()
+                        .id((long) i)
+                        .numeroCuenta(String.valueOf(1_000_000_000L + i))
+                        .saldo(BigDecimal.valueOf(150_075L + i, 2))
+                        .tipoCuenta(i % 2 == 0 ? TipoCuenta.AHORROS : TipoCuenta.CORRIENTE)
+                        .clienteId(1L)
+                        .estado(EstadoCuenta.ACTIVO)
+                        .build())
+                .toList();
+        respuesta = ApiResponse.<List<CuentaDTO>>builder()
+                .estado(200)
+                .mensaje("Lista de cuentas recuperada exitosamente")
+                .datos(datos)
+                .build();
+    }
+
+    @Benchmark
+    public byte[] serializarApiResponse() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(respuesta);
+    }
+}
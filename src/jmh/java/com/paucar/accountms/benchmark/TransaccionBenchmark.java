@@ -0,0 +1,142 @@
+package com.paucar.accountms.benchmark;
+
+import com.paucar.accountms.AccountMsApplication;
+import com.paucar.accountms.model.Cuenta;
+import com.paucar.accountms.repository.CuentaRepository;
+import com.paucar.accountms.service.transaccion.CuentaTransaccionService;
+import com.paucar.accountms.util.EstadoCuenta;
+import com.paucar.accountms.util.TipoCuenta;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+// Depósitos y transferencias de extremo a extremo (servicio, JPA y base de datos) contra H2 en memoria.
+// Mide el coste propio del servicio sin la latencia de red de MySQL; para comparar versiones del código,
+// no como estimación de la latencia en producción. Los benchmarks *CuentaCaliente depositan desde varios
+// hilos en una misma cuenta, donde se nota la diferencia entre el UPDATE condicional y leer-sumar-guardar.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransaccionBenchmark {
+
+    private static final int CUENTAS = 100;
+    private static final int HILOS_CUENTA_CALIENTE = 4;
+    private static final String CUENTA_CALIENTE = "1999999999";
+
+    private ConfigurableApplicationContext contexto;
+    private CuentaTransaccionService transaccionService;
+    private CuentaRepository cuentaRepository;
+    private TransactionTemplate transaccion;
+    private List<String> numerosCuenta;
+
+    @Setup(Level.Trial)
+    public void arrancar() {
+        // Argumentos de línea de comandos: tienen prioridad sobre application.yml (datasource de MySQL)
+        contexto = new SpringApplicationBuilder(AccountMsApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(
+                        "--spring.datasource.url=jdbc:h2:mem:jmh;MODE=MySQL;DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.show-sql=false",
+                        "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                        "--eureka.client.enabled=false",
+                        "--logging.level.root=WARN",
+                        // Los conflictos de versión de leer-sumar-guardar son esperados; Hibernate los registra como ERROR
+                        "--logging.level.org.hibernate.orm.jdbc.batch=OFF");
+        transaccionService = contexto.getBean(CuentaTransaccionService.class);
+        transaccion = new TransactionTemplate(contexto.getBean(PlatformTransactionManager.class));
+
+        // Cuentas con saldo suficiente para todas las iteraciones de la medición
+        cuentaRepository = contexto.getBean(CuentaRepository.class);
+        numerosCuenta = cuentaRepository.saveAll(IntStream.range(0, CUENTAS)
+                        .mapToObj(i -> cuenta(String.valueOf(1_000_000_000L + i), 1L + i % 10))
+                        .toList())
+                .stream()
+                .map(Cuenta::getNumeroCuenta)
+                .toList();
+        cuentaRepository.save(cuenta(CUENTA_CALIENTE, 1L));
+    }
+
+    @TearDown(Level.Trial)
+    public void detener() {
+        contexto.close();
+    }
+
+    @Benchmark
+    public Object depositar() {
+        return transaccionService.depositar(cuentaAleatoria(), 100L);
+    }
+
+    @Benchmark
+    public Boolean transferir() {
+        ThreadLocalRandom aleatorio = ThreadLocalRandom.current();
+        int origen = aleatorio.nextInt(CUENTAS);
+        int destino = (origen + 1 + aleatorio.nextInt(CUENTAS - 1)) % CUENTAS;
+        return transaccionService.transferir(numerosCuenta.get(origen), numerosCuenta.get(destino), 100L);
+    }
+
+    // Los dos benchmarks de cuenta caliente aplican solo el cambio de saldo, en su propia transacción, para que
+    // la diferencia sea el mecanismo de actualización y no el resto del servicio (registro de movimientos, eventos).
+
+    // UPDATE condicional: los depósitos simultáneos esperan el bloqueo de la fila y ninguno se repite.
+    @Benchmark
+    @Threads(HILOS_CUENTA_CALIENTE)
+    public Integer depositarCuentaCaliente() {
+        return transaccion.execute(estado -> cuentaRepository.incrementarSaldo(CUENTA_CALIENTE, 100L));
+    }
+
+    // Como se aplicaban los depósitos antes del UPDATE condicional: leer la entidad, sumar en memoria y guardarla.
+    // Con la versión optimista, de dos depósitos simultáneos uno falla al confirmar y repite la operación completa
+    // (lo que hace ReintentoConcurrencia, aquí sin espera entre intentos).
+    @Benchmark
+    @Threads(HILOS_CUENTA_CALIENTE)
+    public Cuenta depositarCuentaCalienteLeyendoYGuardando(Conflictos conflictos) {
+        while (true) {
+            try {
+                return transaccion.execute(estado -> {
+                    Cuenta cuenta = cuentaRepository.findByNumeroCuenta(CUENTA_CALIENTE).orElseThrow();
+                    cuenta.setSaldoCentavos(cuenta.getSaldoCentavos() + 100L);
+                    return cuentaRepository.save(cuenta);
+                });
+            } catch (ConcurrencyFailureException e) {
+                // Otro hilo confirmó antes: se vuelve a leer la cuenta
+                conflictos.conflictos++;
+            }
+        }
+    }
+
+    // Intentos repetidos por conflicto de versión, publicados por JMH junto al resultado ("conflictos", por segundo).
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Conflictos {
+        public long conflictos;
+    }
+
+    private static Cuenta cuenta(String numeroCuenta, long clienteId) {
+        return Cuenta.builder()
+                .numeroCuenta(numeroCuenta)
+                .saldoCentavos(1_000_000_000_00L)
+                .tipoCuenta(TipoCuenta.AHORROS)
+                .clienteId(clienteId)
+                .estado(EstadoCuenta.ACTIVO)
+                .build();
+    }
+
+    private String cuentaAleatoria() {
+        return numerosCuenta.get(ThreadLocalRandom.current().nextInt(CUENTAS));
+    }
+}
@@ -0,0 +1,60 @@
+package com.paucar.accountms.benchmark;
+
+import com.paucar.accountms.model.Cuenta;
+import com.paucar.accountms.service.validacion.CuentaValidacionServiceImpl;
+import com.paucar.accountms.util.EstadoCuenta;
+import com.paucar.accountms.util.TipoCuenta;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// Reglas de validación en memoria que se evalúan en cada transferencia.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidacionBenchmark {
+
+    private CuentaValidacionServiceImpl validacion;
+    private Cuenta ahorros;
+    private Cuenta corriente;
+
+    @Setup
+    public void preparar() {
+        // Las validaciones en memoria no consultan el repositorio
+        validacion = new CuentaValidacionServiceImpl(null);
+        ahorros = cuenta("1234567890", 100_000L, TipoCuenta.AHORROS);
+        corriente = cuenta("0987654321", 10_000L, TipoCuenta.CORRIENTE);
+    }
+
+    @Benchmark
+    public Cuenta validarSaldoAhorros() {
+        validacion.validarSaldo(ahorros, 50_000L);
+        return ahorros;
+    }
+
+    @Benchmark
+    public Cuenta validarSaldoCorrienteConSobregiro() {
+        validacion.validarSaldo(corriente, 40_000L);
+        return corriente;
+    }
+
+    @Benchmark
+    public Cuenta validarCuenta() {
+        return validacion.validarCuenta(ahorros, "1234567890", 50_000L, "origen");
+    }
+
+    private static Cuenta cuenta(String numeroCuenta, long saldoCentavos, TipoCuenta tipoCuenta) {
+        return Cuenta.builder()
+                .id(1L)
+                .numeroCuenta(numeroCuenta)
+                .saldoCentavos(saldoCentavos)
+                .tipoCuenta(tipoCuenta)
+                .clienteId(1L)
+                .estado(EstadoCuenta.ACTIVO)
+                .version(0L)
+                .build();
+    }
+}
@@ -6,10 +6,18 @@ import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
 
-@FeignClient(name = "CUSTOMER-MS", url = "https://customer-ms-production.up.railway.app")
+import java.util.List;
+
+@FeignClient(name = "CUSTOMER-MS", url = "${clientes.servicio.url:https://customer-ms-production.up.railway.app}")
 public interface ClienteFeign {
 
     @GetMapping("/cliente/{id}")
     ResponseEntity<ApiResponse<Cliente>> obtenerCliente(@PathVariable("id") Long id);
-}
\ No newline at end of file
+
+    // Devuelve solo los clientes que existen; los ids que no aparecen en la respuesta no existen.
+    // Se envía como /cliente/lote?ids=1&ids=2&...
+    @GetMapping("/cliente/lote")
+    ResponseEntity<ApiResponse<List<Cliente>>> obtenerClientes(@RequestParam("ids") List<Long> ids);
+}
@@ -0,0 +1,16 @@
+package com.paucar.accountms.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+// La caché se evalúa antes que la transacción (que usa LOWEST_PRECEDENCE): un acierto devuelve el valor
+// sin abrir una transacción ni tomar una conexión del pool.
+@Configuration
+@EnableCaching(order = Ordered.LOWEST_PRECEDENCE - 1)
+public class CacheConfig {
+
+    // Listas de cuentas por cliente (clave: clienteId). Se invalidan al confirmar cualquier cambio en sus cuentas.
+    public static final String CUENTAS_POR_CLIENTE = "cuentasPorCliente";
+
+}
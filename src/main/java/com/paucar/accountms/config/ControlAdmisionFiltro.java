@@ -0,0 +1,163 @@
+package com.paucar.accountms.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.paucar.accountms.util.ApiResponse;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Control de admisión para /cuentas: rechaza al instante (503 con Retry-After) las peticiones que superan
+ * su presupuesto, en lugar de dejarlas esperando una conexión del pool hasta agotar el timeout.
+ * <p>
+ * Lecturas (GET) y escrituras tienen presupuestos separados: un máximo de peticiones en curso y un máximo
+ * de hilos esperando conexión en el pool de Hikari a partir del cual se dejan de admitir. Las escrituras
+ * tienen el umbral más bajo, así que ante una base de datos lenta se descartan antes que las lecturas,
+ * que en parte se sirven desde caché.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@ConditionalOnProperty(name = "cuentas.admision.habilitada", havingValue = "true", matchIfMissing = true)
+public class ControlAdmisionFiltro extends OncePerRequestFilter {
+
+    static final String METRICA_RECHAZOS = "cuentas.admision.rechazos";
+    private static final String RUTA = "/cuentas";
+
+    private final DataSource dataSource;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final Presupuesto lecturas;
+    private final Presupuesto escrituras;
+    private final String reintentarEn;
+
+    public ControlAdmisionFiltro(DataSource dataSource,
+                                 ObjectMapper objectMapper,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${cuentas.admision.lecturas.max-en-curso:256}") int maxLecturas,
+                                 @Value("${cuentas.admision.lecturas.max-espera-pool:16}") int esperaPoolLecturas,
+                                 @Value("${cuentas.admision.escrituras.max-en-curso:64}") int maxEscrituras,
+                                 @Value("${cuentas.admision.escrituras.max-espera-pool:4}") int esperaPoolEscrituras,
+                                 @Value("${cuentas.admision.retry-after:1s}") Duration retryAfter) {
+        this.dataSource = dataSource;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.lecturas = new Presupuesto("lectura", new Semaphore(maxLecturas), esperaPoolLecturas);
+        this.escrituras = new Presupuesto("escritura", new Semaphore(maxEscrituras), esperaPoolEscrituras);
+        this.reintentarEn = String.valueOf(Math.max(1, retryAfter.toSeconds()));
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String ruta = request.getRequestURI().substring(request.getContextPath().length());
+        return !(ruta.equals(RUTA) || ruta.startsWith(RUTA + "/"));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Presupuesto presupuesto = HttpMethod.GET.matches(request.getMethod()) ? lecturas : escrituras;
+
+        // Primero el pool: si ya hay hilos haciendo cola por una conexión, admitir más solo alarga la cola
+        if (esperandoConexion() > presupuesto.maxEsperaPool()) {
+            rechazar(response, presupuesto, "pool");
+            return;
+        }
+        if (!presupuesto.enCurso().tryAcquire()) {
+            rechazar(response, presupuesto, "en_curso");
+            return;
+        }
+        boolean asincrona = false;
+        try {
+            chain.doFilter(request, response);
+            // Una respuesta asíncrona (p. ej. POST /cuentas) sigue en curso aunque el hilo ya haya vuelto:
+            // el permiso se libera cuando termina
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new LiberarAlTerminar(presupuesto.enCurso()));
+                asincrona = true;
+            }
+        } finally {
+            if (!asincrona) {
+                presupuesto.enCurso().release();
+            }
+        }
+    }
+
+    private int esperandoConexion() {
+        HikariPoolMXBean pool = pool();
+        return pool == null ? 0 : pool.getThreadsAwaitingConnection();
+    }
+
+    // El pool de Hikari se crea con la primera conexión; hasta entonces no hay nada que medir.
+    private HikariPoolMXBean pool() {
+        try {
+            if (dataSource instanceof HikariDataSource hikari) {
+                return hikari.getHikariPoolMXBean();
+            }
+            if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                return dataSource.unwrap(HikariDataSource.class).getHikariPoolMXBean();
+            }
+        } catch (SQLException e) {
+            logger.debug("No se pudo acceder al pool de conexiones", e);
+        }
+        return null;
+    }
+
+    private void rechazar(HttpServletResponse response, Presupuesto presupuesto, String motivo) throws IOException {
+        meterRegistry.counter(METRICA_RECHAZOS, "tipo", presupuesto.tipo(), "motivo", motivo).increment();
+        ApiResponse<Void> respuesta = ApiResponse.<Void>builder()
+                .estado(HttpStatus.SERVICE_UNAVAILABLE.value())
+                .mensaje("El servicio está ocupado. Intente nuevamente en unos instantes.")
+                .build();
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, reintentarEn);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        objectMapper.writeValue(response.getOutputStream(), respuesta);
+    }
+
+    private record Presupuesto(String tipo, Semaphore enCurso, int maxEsperaPool) {
+    }
+
+    // El contenedor siempre llama a onComplete, también tras un timeout o un error.
+    private record LiberarAlTerminar(Semaphore enCurso) implements AsyncListener {
+
+        @Override
+        public void onComplete(AsyncEvent evento) {
+            enCurso.release();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent evento) {
+        }
+
+        @Override
+        public void onError(AsyncEvent evento) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent evento) {
+        }
+    }
+}
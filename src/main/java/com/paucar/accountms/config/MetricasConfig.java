@@ -0,0 +1,25 @@
+package com.paucar.accountms.config;
+
+import feign.micrometer.DefaultFeignObservationConvention;
+import feign.micrometer.MicrometerObservationCapability;
+import io.micrometer.observation.ObservationRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MetricasConfig {
+
+    public static final String METRICA_FEIGN = "feign.client.requests";
+
+    // Las llamadas Feign se publican con nombre propio: sus etiquetas (clientName, http.url...) no coinciden
+    // con las de http.client.requests de RestTemplate, y Prometheus descarta un mismo nombre con otras etiquetas.
+    @Bean
+    public MicrometerObservationCapability micrometerObservationCapability(ObservationRegistry observationRegistry) {
+        return new MicrometerObservationCapability(observationRegistry, new DefaultFeignObservationConvention() {
+            @Override
+            public String getName() {
+                return METRICA_FEIGN;
+            }
+        });
+    }
+}
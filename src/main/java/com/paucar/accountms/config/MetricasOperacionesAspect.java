@@ -0,0 +1,102 @@
+package com.paucar.accountms.config;
+
+import com.paucar.accountms.exception.ClienteNoEncontradoException;
+import com.paucar.accountms.exception.CuentaInactivaException;
+import com.paucar.accountms.exception.CuentaNoEncontradaException;
+import com.paucar.accountms.exception.CuentaYaExisteException;
+import com.paucar.accountms.exception.LoteTransferenciasRechazadoException;
+import com.paucar.accountms.exception.RecursoNoEncontradoException;
+import com.paucar.accountms.exception.SaldoInsuficienteException;
+import com.paucar.accountms.exception.ServicioClientesNoDisponibleException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Mide cada operación de los servicios de transacciones y de gestión de cuentas en el timer
+ * "cuentas.operaciones", etiquetado por operación y resultado. Los percentiles y el histograma
+ * se configuran en management.metrics.distribution (application.yml).
+ * <p>
+ * El modo serial solo delega en {@code CuentaTransaccionServiceImpl}, así que se excluye para
+ * no contar dos veces la misma operación. Del modo agrupado solo se mide el depósito, que incluye
+ * la espera del lote; el resto de sus operaciones también delega.
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class MetricasOperacionesAspect {
+
+    static final String METRICA = "cuentas.operaciones";
+
+    private final MeterRegistry meterRegistry;
+
+    @Around("(execution(* com.paucar.accountms.service.transaccion.CuentaTransaccionService.*(..))"
+            + " || execution(* com.paucar.accountms.service.gestion.CuentaGestionService.*(..)))"
+            + " && !within(com.paucar.accountms.service.transaccion.CuentaTransaccionServiceSerial)"
+            + " && !(within(com.paucar.accountms.service.transaccion.CuentaTransaccionServiceAgrupado)"
+            + " && !execution(* depositar(..)))")
+    public Object medir(ProceedingJoinPoint punto) throws Throwable {
+        Timer.Sample muestra = Timer.start(meterRegistry);
+        Object valor;
+        try {
+            valor = punto.proceed();
+        } catch (Throwable ex) {
+            registrar(muestra, punto, resultado(ex));
+            throw ex;
+        }
+        // Las operaciones asíncronas se miden hasta que termina el futuro, no hasta que se devuelve
+        if (valor instanceof CompletionStage<?> etapa) {
+            etapa.whenComplete((ignorado, ex) -> registrar(muestra, punto, ex == null ? "ok" : resultado(causa(ex))));
+        } else {
+            registrar(muestra, punto, "ok");
+        }
+        return valor;
+    }
+
+    private void registrar(Timer.Sample muestra, ProceedingJoinPoint punto, String resultado) {
+        muestra.stop(Timer.builder(METRICA)
+                .description("Duración de las operaciones sobre cuentas")
+                .tag("operacion", punto.getSignature().getName())
+                .tag("resultado", resultado)
+                .register(meterRegistry));
+    }
+
+    private static Throwable causa(Throwable ex) {
+        return ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+    }
+
+    // Valores acotados para no disparar la cardinalidad de la métrica.
+    static String resultado(Throwable ex) {
+        if (ex instanceof SaldoInsuficienteException) {
+            return "saldo_insuficiente";
+        }
+        if (ex instanceof CuentaInactivaException) {
+            return "cuenta_inactiva";
+        }
+        if (ex instanceof CuentaNoEncontradaException
+                || ex instanceof ClienteNoEncontradoException
+                || ex instanceof RecursoNoEncontradoException) {
+            return "no_encontrado";
+        }
+        if (ex instanceof IllegalArgumentException
+                || ex instanceof CuentaYaExisteException
+                || ex instanceof LoteTransferenciasRechazadoException) {
+            return "rechazado";
+        }
+        if (ex instanceof ConcurrencyFailureException) {
+            return "conflicto";
+        }
+        if (ex instanceof ServicioClientesNoDisponibleException) {
+            return "no_disponible";
+        }
+        return "error";
+    }
+}
@@ -0,0 +1,11 @@
+package com.paucar.accountms.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// Tareas periódicas (cortes de saldo, limpieza de claves de idempotencia) y diferidas (segunda invalidación
+// de la caché de cuentas por cliente).
+@Configuration
+@EnableScheduling
+public class ProgramacionConfig {
+}
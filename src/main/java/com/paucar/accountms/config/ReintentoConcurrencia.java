@@ -0,0 +1,30 @@
+package com.paucar.accountms.config;
+
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.retry.annotation.Backoff;
+import org.springframework.retry.annotation.Retryable;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Reintenta el método cuando pierde un conflicto de concurrencia (versión optimista desactualizada
+ * o bloqueo/deadlock en la base de datos), con espera exponencial aleatoria entre intentos.
+ * Se aplica por fuera de la transacción, por lo que cada intento trabaja con datos recién leídos.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Retryable(
+        retryFor = ConcurrencyFailureException.class,
+        maxAttemptsExpression = "${cuentas.reintentos.max-intentos:4}",
+        backoff = @Backoff(
+                delayExpression = "${cuentas.reintentos.espera-inicial-ms:10}",
+                maxDelayExpression = "${cuentas.reintentos.espera-maxima-ms:200}",
+                multiplier = 2,
+                random = true))
+public @interface ReintentoConcurrencia {
+}
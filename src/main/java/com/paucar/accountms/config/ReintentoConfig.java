@@ -0,0 +1,53 @@
+package com.paucar.accountms.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.RetryListener;
+import org.springframework.retry.annotation.EnableRetry;
+import org.springframework.retry.interceptor.MethodInvocationRetryCallback;
+import org.springframework.retry.listener.MethodInvocationRetryListenerSupport;
+
+@Configuration
+@EnableRetry
+public class ReintentoConfig {
+
+    // Métricas de conflictos y reintentos por operación. Se aplica a todos los métodos con @ReintentoConcurrencia.
+    @Bean
+    public RetryListener metricasReintentoListener(MeterRegistry meterRegistry) {
+        return new MethodInvocationRetryListenerSupport() {
+
+            @Override
+            protected <T, E extends Throwable> void doOnError(RetryContext context,
+                                                              MethodInvocationRetryCallback<T, E> callback,
+                                                              Throwable throwable) {
+                if (!(throwable instanceof ConcurrencyFailureException)) {
+                    return;
+                }
+                String tipo = throwable instanceof OptimisticLockingFailureException ? "optimista" : "bloqueo";
+                meterRegistry.counter("cuentas.concurrencia.conflictos",
+                        "operacion", operacion(callback), "tipo", tipo).increment();
+            }
+
+            @Override
+            protected <T, E extends Throwable> void doClose(RetryContext context,
+                                                            MethodInvocationRetryCallback<T, E> callback,
+                                                            Throwable throwable) {
+                // getRetryCount() cuenta los intentos fallidos; si el último también falló, no hubo reintento tras él.
+                int reintentos = throwable == null ? context.getRetryCount() : context.getRetryCount() - 1;
+                if (reintentos > 0) {
+                    meterRegistry.counter("cuentas.concurrencia.reintentos",
+                            "operacion", operacion(callback), "resultado", throwable == null ? "exito" : "fallo")
+                            .increment(reintentos);
+                }
+            }
+
+            private String operacion(MethodInvocationRetryCallback<?, ?> callback) {
+                return callback.getInvocation().getMethod().getName();
+            }
+        };
+    }
+}
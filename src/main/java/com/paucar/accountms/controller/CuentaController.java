@@ -1,19 +1,35 @@
 package com.paucar.accountms.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import com.paucar.accountms.dto.CuentaDTO;
+import com.paucar.accountms.dto.LoteCuentasDTO;
+import com.paucar.accountms.dto.ResultadoCreacionCuentaDTO;
+import com.paucar.accountms.dto.LoteTransferenciasDTO;
+import com.paucar.accountms.dto.ResultadoTransferenciaDTO;
 import com.paucar.accountms.util.ApiResponse;
+import com.paucar.accountms.util.Dinero;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import com.paucar.accountms.service.consulta.CuentaConsultaService;
 import com.paucar.accountms.service.gestion.CuentaGestionService;
+import com.paucar.accountms.service.idempotencia.IdempotenciaService;
 import com.paucar.accountms.service.transaccion.CuentaTransaccionService;
 
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 
 @RestController
@@ -25,17 +41,58 @@ public class CuentaController {
     private final CuentaConsultaService cuentaConsultaService;
     private final CuentaGestionService cuentaGestionService;
     private final CuentaTransaccionService cuentaTransaccionService;
+    private final IdempotenciaService idempotenciaService;
+    private final ObjectMapper objectMapper;
 
+    static final String CABECERA_SIGUIENTE_CURSOR = "X-Siguiente-Cursor";
 
+
+    // Página de cuentas ordenadas por id; si hay más resultados, la cabecera X-Siguiente-Cursor
+    // trae el valor a enviar en despuesDe para pedir la siguiente.
     @GetMapping
-    public ResponseEntity<ApiResponse<List<CuentaDTO>>> obtenerTodasLasCuentas() {
-        List<CuentaDTO> cuentas = cuentaConsultaService.obtenerTodasLasCuentas();
+    public ResponseEntity<ApiResponse<List<CuentaDTO>>> obtenerTodasLasCuentas(
+            @RequestParam(required = false) Long despuesDe,
+            @RequestParam(defaultValue = "" + CuentaConsultaService.LIMITE_PAGINA_POR_DEFECTO) int limite) {
+        List<CuentaDTO> cuentas = cuentaConsultaService.obtenerCuentas(despuesDe, limite);
         ApiResponse<List<CuentaDTO>> respuesta = ApiResponse.<List<CuentaDTO>>builder()
                 .estado(HttpStatus.OK.value())
                 .mensaje("Lista de cuentas recuperada exitosamente")
                 .datos(cuentas)
                 .build();
-        return new ResponseEntity<>(respuesta, HttpStatus.OK);
+        ResponseEntity.BodyBuilder builder = ResponseEntity.status(HttpStatus.OK);
+        if (cuentas.size() == limite) {
+            builder.header(CABECERA_SIGUIENTE_CURSOR, String.valueOf(cuentas.get(cuentas.size() - 1).getId()));
+        }
+        return builder.body(respuesta);
+    }
+
+    // Devuelve todas las cuentas escribiendo el JSON a medida que se leen de la base de datos,
+    // con la misma estructura de ApiResponse pero sin cargar la lista completa en memoria.
+    @GetMapping(value = "/exportar", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportarCuentas() {
+        // Sin vaciar el buffer tras cada cuenta: el contenedor envía la respuesta por bloques
+        ObjectWriter escritor = objectMapper.writerFor(CuentaDTO.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        StreamingResponseBody cuerpo = salida -> {
+            try (JsonGenerator generador = objectMapper.getFactory().createGenerator(salida)) {
+                generador.writeStartObject();
+                generador.writeNumberField("estado", HttpStatus.OK.value());
+                generador.writeStringField("mensaje", "Lista de cuentas recuperada exitosamente");
+                generador.writeArrayFieldStart("datos");
+                cuentaConsultaService.recorrerCuentas(cuenta -> escribirCuenta(escritor, generador, cuenta));
+                generador.writeEndArray();
+                generador.writeEndObject();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(cuerpo);
+    }
+
+    private void escribirCuenta(ObjectWriter escritor, JsonGenerator generador, CuentaDTO cuenta) {
+        try {
+            escritor.writeValue(generador, cuenta);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 
     @GetMapping("/{id}")
@@ -57,15 +114,39 @@ public class CuentaController {
         });
     }
 
+    // Respuesta asíncrona: el hilo de la petición queda libre mientras se valida al cliente y se guarda la cuenta.
+    // Los errores del futuro llegan a los @ExceptionHandler habituales.
     @PostMapping
-    public ResponseEntity<ApiResponse<CuentaDTO>> crearCuenta(@Valid @RequestBody CuentaDTO cuentaDTO) {
-        CuentaDTO nuevaCuenta = cuentaGestionService.crearCuenta(cuentaDTO);
-        ApiResponse<CuentaDTO> respuesta = ApiResponse.<CuentaDTO>builder()
-                .estado(HttpStatus.CREATED.value())
-                .mensaje("Cuenta creada exitosamente")
-                .datos(nuevaCuenta)
+    public CompletableFuture<ResponseEntity<ApiResponse<CuentaDTO>>> crearCuenta(@Valid @RequestBody CuentaDTO cuentaDTO) {
+        return cuentaGestionService.crearCuenta(cuentaDTO).thenApply(nuevaCuenta -> {
+            ApiResponse<CuentaDTO> respuesta = ApiResponse.<CuentaDTO>builder()
+                    .estado(HttpStatus.CREATED.value())
+                    .mensaje("Cuenta creada exitosamente")
+                    .datos(nuevaCuenta)
+                    .build();
+            return new ResponseEntity<>(respuesta, HttpStatus.CREATED);
+        });
+    }
+
+    // Alta masiva: las cuentas válidas se crean en una sola transacción y cada una tiene su resultado.
+    @PostMapping("/lote")
+    public ResponseEntity<ApiResponse<List<ResultadoCreacionCuentaDTO>>> crearCuentasLote(
+            @Valid @RequestBody LoteCuentasDTO lote) {
+
+        List<ResultadoCreacionCuentaDTO> resultados = cuentaGestionService.crearCuentas(lote.getCuentas());
+
+        long fallidas = resultados.stream().filter(resultado -> !resultado.isExitosa()).count();
+        String mensaje = fallidas == 0
+                ? "Lote de cuentas creado con éxito"
+                : "Lote procesado: " + (resultados.size() - fallidas) + " cuentas creadas y " + fallidas + " con error";
+        HttpStatus status = fallidas < resultados.size() ? HttpStatus.CREATED : HttpStatus.OK;
+
+        ApiResponse<List<ResultadoCreacionCuentaDTO>> respuesta = ApiResponse.<List<ResultadoCreacionCuentaDTO>>builder()
+                .estado(status.value())
+                .mensaje(mensaje)
+                .datos(resultados)
                 .build();
-        return new ResponseEntity<>(respuesta, HttpStatus.CREATED);
+        return new ResponseEntity<>(respuesta, status);
     }
 
     @PutMapping("/{id}")
@@ -101,35 +182,56 @@ public class CuentaController {
         return new ResponseEntity<>(respuesta, HttpStatus.NO_CONTENT);
     }
 
+    // Con la cabecera Idempotency-Key, los reintentos de una misma operación devuelven la respuesta
+    // original sin volver a aplicarla.
     @PutMapping("/depositar")
     public ResponseEntity<ApiResponse<CuentaDTO>> depositar(@RequestParam String numeroCuenta,
-                                                            @RequestParam Double monto) {
-        CuentaDTO cuentaActualizada = cuentaTransaccionService.depositar(numeroCuenta, monto);
-        ApiResponse<CuentaDTO> respuesta = ApiResponse.<CuentaDTO>builder()
-                .estado(HttpStatus.OK.value())
-                .mensaje("Depósito realizado con éxito")
-                .datos(cuentaActualizada)
-                .build();
-        return new ResponseEntity<>(respuesta, HttpStatus.OK);
+                                                            @RequestParam BigDecimal monto,
+                                                            @RequestHeader(name = IdempotenciaService.CABECERA, required = false)
+                                                            String claveIdempotencia) {
+        long centavos = Dinero.aCentavos(monto);
+        return idempotenciaService.ejecutar(claveIdempotencia, "depositar:" + numeroCuenta + ":" + centavos, CuentaDTO.class, () -> {
+            CuentaDTO cuentaActualizada = cuentaTransaccionService.depositar(numeroCuenta, centavos);
+            ApiResponse<CuentaDTO> respuesta = ApiResponse.<CuentaDTO>builder()
+                    .estado(HttpStatus.OK.value())
+                    .mensaje("Depósito realizado con éxito")
+                    .datos(cuentaActualizada)
+                    .build();
+            return new ResponseEntity<>(respuesta, HttpStatus.OK);
+        });
     }
 
     @PutMapping("/retirar")
     public ResponseEntity<ApiResponse<CuentaDTO>> retirar(@RequestParam String numeroCuenta,
-                                                          @RequestParam Double monto) {
-        CuentaDTO cuentaActualizada = cuentaTransaccionService.retirar(numeroCuenta, monto);
-        ApiResponse<CuentaDTO> respuesta = ApiResponse.<CuentaDTO>builder()
-                .estado(HttpStatus.OK.value())
-                .mensaje("Retiro realizado con éxito")
-                .datos(cuentaActualizada)
-                .build();
-        return new ResponseEntity<>(respuesta, HttpStatus.OK);
+                                                          @RequestParam BigDecimal monto,
+                                                          @RequestHeader(name = IdempotenciaService.CABECERA, required = false)
+                                                          String claveIdempotencia) {
+        long centavos = Dinero.aCentavos(monto);
+        return idempotenciaService.ejecutar(claveIdempotencia, "retirar:" + numeroCuenta + ":" + centavos, CuentaDTO.class, () -> {
+            CuentaDTO cuentaActualizada = cuentaTransaccionService.retirar(numeroCuenta, centavos);
+            ApiResponse<CuentaDTO> respuesta = ApiResponse.<CuentaDTO>builder()
+                    .estado(HttpStatus.OK.value())
+                    .mensaje("Retiro realizado con éxito")
+                    .datos(cuentaActualizada)
+                    .build();
+            return new ResponseEntity<>(respuesta, HttpStatus.OK);
+        });
     }
 
 
     @PutMapping("/realizar-transferencia")
     public ResponseEntity<ApiResponse<Boolean>> transferencia(@RequestParam String cuentaOrigen,
                                                               @RequestParam String cuentaDestino,
-                                                              @RequestParam Double monto) {
+                                                              @RequestParam BigDecimal monto,
+                                                              @RequestHeader(name = IdempotenciaService.CABECERA, required = false)
+                                                              String claveIdempotencia) {
+        long centavos = Dinero.aCentavos(monto);
+        String huella = "transferir:" + cuentaOrigen + ":" + cuentaDestino + ":" + centavos;
+        return idempotenciaService.ejecutar(claveIdempotencia, huella, Boolean.class,
+                () -> transferir(cuentaOrigen, cuentaDestino, centavos));
+    }
+
+    private ResponseEntity<ApiResponse<Boolean>> transferir(String cuentaOrigen, String cuentaDestino, long monto) {
 
         boolean estadoTransferencia = cuentaTransaccionService.transferir(cuentaOrigen, cuentaDestino, monto);
 
@@ -155,4 +257,24 @@ public class CuentaController {
         return new ResponseEntity<>(respuesta, status); // Usamos `status` en lugar de `HttpStatus.OK`
     }
 
+    @PutMapping("/realizar-transferencias")
+    public ResponseEntity<ApiResponse<List<ResultadoTransferenciaDTO>>> transferenciaLote(
+            @Valid @RequestBody LoteTransferenciasDTO lote) {
+
+        List<ResultadoTransferenciaDTO> resultados =
+                cuentaTransaccionService.transferirLote(lote.getTransferencias(), lote.getModo());
+
+        long fallidas = resultados.stream().filter(resultado -> !resultado.isExitosa()).count();
+        String mensaje = fallidas == 0
+                ? "Lote de transferencias realizado con éxito"
+                : "Lote procesado: " + (resultados.size() - fallidas) + " transferencias aplicadas y " + fallidas + " con error";
+
+        ApiResponse<List<ResultadoTransferenciaDTO>> respuesta = ApiResponse.<List<ResultadoTransferenciaDTO>>builder()
+                .estado(HttpStatus.OK.value())
+                .mensaje(mensaje)
+                .datos(resultados)
+                .build();
+        return new ResponseEntity<>(respuesta, HttpStatus.OK);
+    }
+
 }
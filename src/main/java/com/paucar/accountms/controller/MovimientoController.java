@@ -0,0 +1,61 @@
+package com.paucar.accountms.controller;
+
+import com.paucar.accountms.dto.MovimientoDTO;
+import com.paucar.accountms.service.movimiento.MovimientoService;
+import com.paucar.accountms.util.ApiResponse;
+import com.paucar.accountms.util.Dinero;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.List;
+
+@RestController
+@RequestMapping("/cuentas")
+@CrossOrigin(originPatterns = "*", allowCredentials = "true")
+@RequiredArgsConstructor
+public class MovimientoController {
+
+    private final MovimientoService movimientoService;
+
+    // Historial de la cuenta del más reciente al más antiguo; si hay más resultados, la cabecera
+    // X-Siguiente-Cursor trae el valor a enviar en antesDe para pedir la siguiente página.
+    @GetMapping("/movimientos")
+    public ResponseEntity<ApiResponse<List<MovimientoDTO>>> obtenerMovimientos(
+            @RequestParam String numeroCuenta,
+            @RequestParam(required = false) Long antesDe,
+            @RequestParam(defaultValue = "" + MovimientoService.LIMITE_PAGINA_POR_DEFECTO) int limite) {
+        List<MovimientoDTO> movimientos = movimientoService.obtenerMovimientos(numeroCuenta, antesDe, limite);
+        ApiResponse<List<MovimientoDTO>> respuesta = ApiResponse.<List<MovimientoDTO>>builder()
+                .estado(HttpStatus.OK.value())
+                .mensaje("Movimientos de la cuenta recuperados exitosamente")
+                .datos(movimientos)
+                .build();
+        ResponseEntity.BodyBuilder builder = ResponseEntity.status(HttpStatus.OK);
+        if (movimientos.size() == limite) {
+            builder.header(CuentaController.CABECERA_SIGUIENTE_CURSOR,
+                    String.valueOf(movimientos.get(movimientos.size() - 1).getId()));
+        }
+        return builder.body(respuesta);
+    }
+
+    // Saldo reconstruido desde el registro de movimientos a la fecha indicada (por defecto, ahora).
+    @GetMapping("/saldo-historico")
+    public ResponseEntity<ApiResponse<BigDecimal>> obtenerSaldoHistorico(
+            @RequestParam String numeroCuenta,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime fecha) {
+        Instant instante = fecha == null ? Instant.now() : fecha.toInstant();
+        long saldo = movimientoService.obtenerSaldoAl(numeroCuenta, instante);
+        ApiResponse<BigDecimal> respuesta = ApiResponse.<BigDecimal>builder()
+                .estado(HttpStatus.OK.value())
+                .mensaje("Saldo histórico calculado exitosamente")
+                .datos(Dinero.aDecimal(saldo))
+                .build();
+        return new ResponseEntity<>(respuesta, HttpStatus.OK);
+    }
+}
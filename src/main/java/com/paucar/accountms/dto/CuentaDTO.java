@@ -3,8 +3,11 @@ package com.paucar.accountms.dto;
 
 import com.paucar.accountms.util.EstadoCuenta;
 import com.paucar.accountms.util.TipoCuenta;
+import jakarta.validation.constraints.DecimalMin;
 import lombok.*;
 
+import java.math.BigDecimal;
+
 @Builder
 @Getter
 @Setter
@@ -15,7 +18,9 @@ public class CuentaDTO {
 
     private Long id;
     private String numeroCuenta;
-    private Double saldo;
+    // Solo aplica a los datos enviados por el cliente: una cuenta corriente puede quedar en sobregiro.
+    @DecimalMin(value = "0.0", inclusive = true, message = "El saldo inicial debe ser mayor o igual a 0.")
+    private BigDecimal saldo;
     private TipoCuenta tipoCuenta;
     private Long clienteId;
     private EstadoCuenta estado;
@@ -0,0 +1,20 @@
+package com.paucar.accountms.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.*;
+
+import java.util.List;
+
+@Builder
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LoteCuentasDTO {
+
+    @NotEmpty(message = "El lote debe contener al menos una cuenta.")
+    @Size(max = 10000, message = "El lote no puede superar las 10000 cuentas.")
+    private List<@Valid CuentaDTO> cuentas;
+
+}
@@ -0,0 +1,24 @@
+package com.paucar.accountms.dto;
+
+import com.paucar.accountms.util.ModoLote;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.*;
+
+import java.util.List;
+
+@Builder
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LoteTransferenciasDTO {
+
+    @Builder.Default
+    private ModoLote modo = ModoLote.TODO_O_NADA;
+
+    @NotEmpty(message = "El lote debe contener al menos una transferencia.")
+    @Size(max = 10000, message = "El lote no puede superar las 10000 transferencias.")
+    private List<@Valid TransferenciaDTO> transferencias;
+
+}
@@ -0,0 +1,25 @@
+package com.paucar.accountms.dto;
+
+import com.paucar.accountms.util.TipoMovimiento;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MovimientoDTO {
+
+    private Long id;
+    private TipoMovimiento tipo;
+    // Positivo si abona la cuenta, negativo si la debita.
+    private BigDecimal monto;
+    private BigDecimal saldo;
+    private String referencia;
+    private Instant fecha;
+}
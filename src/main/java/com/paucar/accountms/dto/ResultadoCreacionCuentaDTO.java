@@ -0,0 +1,18 @@
+package com.paucar.accountms.dto;
+
+import lombok.*;
+
+@Builder(toBuilder = true)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResultadoCreacionCuentaDTO {
+
+    private int indice;
+    private Long id;
+    private String numeroCuenta;
+    private Long clienteId;
+    private boolean exitosa;
+    private String mensaje;
+
+}
@@ -0,0 +1,20 @@
+package com.paucar.accountms.dto;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+
+@Builder(toBuilder = true)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResultadoTransferenciaDTO {
+
+    private int indice;
+    private String cuentaOrigen;
+    private String cuentaDestino;
+    private BigDecimal monto;
+    private boolean exitosa;
+    private String mensaje;
+
+}
@@ -0,0 +1,24 @@
+package com.paucar.accountms.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.*;
+
+import java.math.BigDecimal;
+
+@Builder
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransferenciaDTO {
+
+    @NotBlank(message = "La cuenta de origen es obligatoria.")
+    private String cuentaOrigen;
+
+    @NotBlank(message = "La cuenta de destino es obligatoria.")
+    private String cuentaDestino;
+
+    @NotNull(message = "El monto es obligatorio.")
+    private BigDecimal monto;
+
+}
@@ -0,0 +1,7 @@
+package com.paucar.accountms.exception;
+
+public class CuentaInactivaException extends RuntimeException {
+    public CuentaInactivaException(String message) {
+        super(message);
+    }
+}
@@ -1,9 +1,11 @@
 package com.paucar.accountms.exception;
 
+import com.paucar.accountms.dto.ResultadoTransferenciaDTO;
 import com.paucar.accountms.util.ApiResponse;
 import feign.FeignException;
 import jakarta.validation.ConstraintViolation;
 import jakarta.validation.ConstraintViolationException;
+import org.springframework.dao.ConcurrencyFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -13,7 +15,9 @@ import org.springframework.web.method.annotation.MethodArgumentTypeMismatchExcep
 import org.springframework.web.servlet.NoHandlerFoundException;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.stream.Collectors;
 
 @RestControllerAdvice
@@ -29,6 +33,11 @@ public class ExcepcionesGlobales {
         return construirRespuestaError(ex.getMessage(), HttpStatus.NOT_FOUND);
     }
 
+    @ExceptionHandler(CuentaInactivaException.class)
+    public ResponseEntity<ApiResponse<Void>> manejarExcepcionCuentaInactiva(CuentaInactivaException ex) {
+        return construirRespuestaError(ex.getMessage(), HttpStatus.BAD_REQUEST);
+    }
+
     @ExceptionHandler(ClienteNoEncontradoException.class)
     public ResponseEntity<ApiResponse<Void>> manejarExcepcionClienteNoEncontrado(ClienteNoEncontradoException ex) {
         return construirRespuestaError(ex.getMessage(), HttpStatus.NOT_FOUND);
@@ -44,6 +53,42 @@ public class ExcepcionesGlobales {
         return construirRespuestaError(ex.getMessage(), HttpStatus.BAD_REQUEST);
     }
 
+    @ExceptionHandler(LoteTransferenciasRechazadoException.class)
+    public ResponseEntity<ApiResponse<List<ResultadoTransferenciaDTO>>> manejarExcepcionLoteRechazado(LoteTransferenciasRechazadoException ex) {
+        ApiResponse<List<ResultadoTransferenciaDTO>> respuesta = ApiResponse.<List<ResultadoTransferenciaDTO>>builder()
+                .estado(HttpStatus.BAD_REQUEST.value())
+                .mensaje(ex.getMessage())
+                .datos(ex.getResultados())
+                .build();
+
+        return new ResponseEntity<>(respuesta, HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(ConcurrencyFailureException.class)
+    public ResponseEntity<ApiResponse<Void>> manejarExcepcionConflictoConcurrencia(ConcurrencyFailureException ex) {
+        return construirRespuestaError("La cuenta fue modificada por otra operación. Intente nuevamente.", HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(SolicitudEnCursoException.class)
+    public ResponseEntity<ApiResponse<Void>> manejarExcepcionSolicitudEnCurso(SolicitudEnCursoException ex) {
+        return construirRespuestaError(ex.getMessage(), HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(ClaveIdempotenciaReutilizadaException.class)
+    public ResponseEntity<ApiResponse<Void>> manejarExcepcionClaveIdempotenciaReutilizada(ClaveIdempotenciaReutilizadaException ex) {
+        return construirRespuestaError(ex.getMessage(), HttpStatus.UNPROCESSABLE_ENTITY);
+    }
+
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<ApiResponse<Void>> manejarExcepcionEjecucionRechazada(RejectedExecutionException ex) {
+        return construirRespuestaError("El servicio está ocupado. Intente nuevamente en unos instantes.", HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    @ExceptionHandler(ServicioClientesNoDisponibleException.class)
+    public ResponseEntity<ApiResponse<Void>> manejarExcepcionServicioClientesNoDisponible(ServicioClientesNoDisponibleException ex) {
+        return construirRespuestaError(ex.getMessage(), HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
     @ExceptionHandler(MethodArgumentTypeMismatchException.class)
     public ResponseEntity<ApiResponse<Void>> manejarExcepcionTipoArgumento(MethodArgumentTypeMismatchException ex) {
         String mensajeError = String.format("El valor '%s' no es válido para el parámetro '%s'. Se esperaba un valor de tipo '%s'.",
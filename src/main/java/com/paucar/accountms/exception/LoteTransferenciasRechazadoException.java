@@ -0,0 +1,18 @@
+package com.paucar.accountms.exception;
+
+import com.paucar.accountms.dto.ResultadoTransferenciaDTO;
+import lombok.Getter;
+
+import java.util.List;
+
+// Se lanza en modo TODO_O_NADA para revertir el lote completo conservando el resultado de cada transferencia.
+@Getter
+public class LoteTransferenciasRechazadoException extends RuntimeException {
+
+    private final transient List<ResultadoTransferenciaDTO> resultados;
+
+    public LoteTransferenciasRechazadoException(String message, List<ResultadoTransferenciaDTO> resultados) {
+        super(message);
+        this.resultados = resultados;
+    }
+}
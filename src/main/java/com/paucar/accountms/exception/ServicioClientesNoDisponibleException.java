@@ -0,0 +1,7 @@
+package com.paucar.accountms.exception;
+
+public class ServicioClientesNoDisponibleException extends RuntimeException {
+    public ServicioClientesNoDisponibleException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
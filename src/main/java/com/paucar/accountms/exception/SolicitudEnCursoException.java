@@ -0,0 +1,7 @@
+package com.paucar.accountms.exception;
+
+public class SolicitudEnCursoException extends RuntimeException {
+    public SolicitudEnCursoException(String message) {
+        super(message);
+    }
+}
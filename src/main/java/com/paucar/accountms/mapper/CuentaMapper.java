@@ -2,12 +2,30 @@ package com.paucar.accountms.mapper;
 
 import com.paucar.accountms.dto.CuentaDTO;
 import com.paucar.accountms.model.Cuenta;
+import com.paucar.accountms.repository.CuentaProyeccion;
+import com.paucar.accountms.util.Dinero;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+import java.math.BigDecimal;
 
 @Mapper(componentModel = "spring")
 public interface CuentaMapper {
 
+    @Mapping(target = "saldo", source = "saldoCentavos")
     CuentaDTO convertEntidadADto(Cuenta cuenta);
+    @Mapping(target = "saldo", source = "saldoCentavos")
+    CuentaDTO convertirProyeccionADto(CuentaProyeccion proyeccion);
+    @Mapping(target = "saldoCentavos", source = "saldo")
+    @Mapping(target = "version", ignore = true)
     Cuenta convertirDtoAEntidad(CuentaDTO cuentaDTO);
 
+    default BigDecimal centavosADecimal(Long centavos) {
+        return centavos == null ? null : Dinero.aDecimal(centavos);
+    }
+
+    default Long decimalACentavos(BigDecimal importe) {
+        return importe == null ? null : Dinero.aCentavos(importe);
+    }
+
 }
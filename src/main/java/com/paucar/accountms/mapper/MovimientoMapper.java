@@ -0,0 +1,22 @@
+package com.paucar.accountms.mapper;
+
+import com.paucar.accountms.dto.MovimientoDTO;
+import com.paucar.accountms.model.Movimiento;
+import com.paucar.accountms.util.Dinero;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+import java.math.BigDecimal;
+
+@Mapper(componentModel = "spring")
+public interface MovimientoMapper {
+
+    @Mapping(target = "monto", source = "montoCentavos")
+    @Mapping(target = "saldo", source = "saldoCentavos")
+    MovimientoDTO convertEntidadADto(Movimiento movimiento);
+
+    default BigDecimal centavosADecimal(Long centavos) {
+        return centavos == null ? null : Dinero.aDecimal(centavos);
+    }
+
+}
@@ -0,0 +1,24 @@
+package com.paucar.accountms.model;
+
+import com.paucar.accountms.util.Dinero;
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+// Guarda los centavos de la entidad como importe DECIMAL(19,2) en la columna saldo (V7 convierte la antigua DOUBLE).
+@Converter
+public class CentavosConverter implements AttributeConverter<Long, BigDecimal> {
+
+    @Override
+    public BigDecimal convertToDatabaseColumn(Long centavos) {
+        return centavos == null ? null : Dinero.aDecimal(centavos);
+    }
+
+    @Override
+    public Long convertToEntityAttribute(BigDecimal importe) {
+        // setScale no redondea importes leídos de DECIMAL(19,2); solo normaliza si el driver devuelve otra escala.
+        return importe == null ? null : Dinero.aCentavos(importe.setScale(2, RoundingMode.HALF_EVEN));
+    }
+}
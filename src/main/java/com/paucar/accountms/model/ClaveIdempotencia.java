@@ -0,0 +1,40 @@
+package com.paucar.accountms.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+// Clave enviada en la cabecera Idempotency-Key. Mientras la operación está en curso solo guarda la huella
+// de la petición; al terminar guarda también el estado HTTP y el cuerpo (JSON) de la respuesta original.
+@Builder
+@Entity
+@Table(name = "claves_idempotencia",
+        indexes = @Index(name = "idx_claves_idempotencia_expira", columnList = "expira"))
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ClaveIdempotencia {
+
+    @Id
+    @Column(length = 100)
+    private String clave;
+
+    // Operación y parámetros de la petición que reservó la clave.
+    @Column(nullable = false)
+    private String huella;
+
+    @Column(name = "estado_http")
+    private Integer estadoHttp;
+
+    // Tipo explícito en lugar de @Lob: coincide con la migración y la validación del esquema lo acepta
+    // también en H2, que trata LONGTEXT como VARCHAR.
+    @Column(columnDefinition = "longtext")
+    private String respuesta;
+
+    @Column(nullable = false)
+    private Instant expira;
+}
@@ -0,0 +1,41 @@
+package com.paucar.accountms.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+import java.time.Instant;
+
+// Saldo acumulado de una cuenta hasta un movimiento dado. Las consultas de saldo histórico parten
+// del último corte y solo suman los movimientos posteriores, en lugar de recorrer todo el registro.
+@Builder
+@Entity
+@Immutable
+@Table(name = "cortes_saldo",
+        uniqueConstraints = @UniqueConstraint(name = "uk_cortes_saldo_cuenta_movimiento",
+                columnNames = {"cuenta_id", "ultimo_movimiento_id"}))
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CorteSaldo {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "cuenta_id", nullable = false)
+    private Long cuentaId;
+
+    @Column(name = "saldo_centavos", nullable = false)
+    private Long saldoCentavos;
+
+    // Último movimiento incluido en el saldo del corte.
+    @Column(name = "ultimo_movimiento_id", nullable = false)
+    private Long ultimoMovimientoId;
+
+    @Column(nullable = false)
+    private Instant fecha;
+}
@@ -8,27 +8,45 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 
 @Builder
 @Entity
-@Table(name = "cuentas")
+@Table(name = "cuentas",
+        uniqueConstraints = @UniqueConstraint(name = "uk_cuentas_numero_cuenta", columnNames = "numero_cuenta"),
+        indexes = @Index(name = "idx_cuentas_cliente_estado_tipo", columnList = "cliente_id, estado, tipo_cuenta"))
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "cuentas")
+@NaturalIdCache(region = "cuentas_numeros")
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
 public class Cuenta {
 
+    // Ids reservados de 50 en 50 en la tabla secuencias (optimizador pooled-lo, ver application.yml). A diferencia
+    // de IDENTITY, Hibernate conoce el id antes del INSERT y puede enviar las inserciones en lotes JDBC.
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "cuentas")
+    @TableGenerator(name = "cuentas", table = "secuencias", pkColumnName = "nombre", valueColumnName = "valor",
+            pkColumnValue = "cuentas", allocationSize = 50)
     private Long id;
 
-    @Column(unique = true, nullable = false)
+    // Identificador natural: las búsquedas por número de cuenta se resuelven desde la caché de segundo nivel
+    // (número -> id y entidad). Los UPDATE de saldo no pasan por la caché: la entrada de la cuenta se bloquea
+    // al releerla en la misma transacción (CuentaRepositoryPersonalizado.buscarEnEscritura).
+    @NaturalId
+    @Column(name = "numero_cuenta", nullable = false)
     @NotNull(message = "El número de cuenta no puede ser nulo.")
     @Pattern(regexp = "\\d{10,12}", message = "El número de cuenta debe tener entre 10 y 12 dígitos.")
     private String numeroCuenta;
 
+    // Saldo en centavos. La columna sigue siendo el importe decimal "saldo".
     @NotNull(message = "El saldo no puede ser nulo.")
-    @DecimalMin(value = "0.0", inclusive = true, message = "El saldo inicial debe ser mayor o igual a 0.")
-    private Double saldo;
+    @Convert(converter = CentavosConverter.class)
+    @Column(name = "saldo", precision = 19, scale = 2)
+    private Long saldoCentavos;
 
     @NotNull(message = "El tipo de cuenta es obligatorio.")
     @Enumerated(EnumType.STRING)
@@ -42,4 +60,9 @@ public class Cuenta {
     @NotNull(message = "El estado de la cuenta es obligatorio.")
     @Enumerated(EnumType.STRING)
     private EstadoCuenta estado;
+
+    // Control de concurrencia optimista: Hibernate rechaza la escritura si otra transacción modificó la fila.
+    @Version
+    @Column(nullable = false)
+    private Long version;
 }
@@ -0,0 +1,53 @@
+package com.paucar.accountms.model;
+
+import com.paucar.accountms.util.TipoMovimiento;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+import java.time.Instant;
+
+// Registro inmutable de cada cambio de saldo. Las filas se insertan en lote al confirmar la transacción
+// (ver RegistroMovimientos) y nunca se modifican: el saldo de una cuenta es la suma de sus movimientos.
+@Builder
+@Entity
+@Immutable
+@Table(name = "movimientos", indexes = {
+        @Index(name = "idx_movimientos_cuenta", columnList = "cuenta_id, id"),
+        @Index(name = "idx_movimientos_fecha", columnList = "fecha")
+})
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class Movimiento {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "cuenta_id", nullable = false)
+    private Long cuentaId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 30)
+    private TipoMovimiento tipo;
+
+    // Importe con signo en centavos: positivo si abona la cuenta, negativo si la debita.
+    // Tabla nueva: se guarda directamente en centavos (BIGINT), sin conversión a decimal.
+    @Column(name = "monto_centavos", nullable = false)
+    private Long montoCentavos;
+
+    // Saldo de la cuenta tras aplicar el movimiento, en centavos.
+    @Column(name = "saldo_centavos", nullable = false)
+    private Long saldoCentavos;
+
+    // Identifica las dos patas de una misma transferencia.
+    @Column(length = 36)
+    private String referencia;
+
+    @Column(nullable = false)
+    private Instant fecha;
+}
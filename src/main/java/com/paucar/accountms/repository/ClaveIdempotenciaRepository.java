@@ -0,0 +1,60 @@
+package com.paucar.accountms.repository;
+
+import com.paucar.accountms.model.ClaveIdempotencia;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.hibernate.jpa.HibernateHints.HINT_NATIVE_SPACES;
+
+// Cada escritura se confirma en su propia transacción, independiente de la de la operación protegida.
+public interface ClaveIdempotenciaRepository extends JpaRepository<ClaveIdempotencia, String> {
+
+    // Reserva la clave con un INSERT directo: si ya existe, la clave primaria lo rechaza
+    // (DataIntegrityViolationException) sin necesidad de consultarla antes. Sin el espacio de consulta,
+    // Hibernate vaciaría todas las regiones de la caché de segundo nivel tras cada INSERT nativo.
+    @Transactional
+    @Modifying
+    @QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = "claves_idempotencia"))
+    @Query(value = "INSERT INTO claves_idempotencia (clave, huella, expira) VALUES (:clave, :huella, :expira)",
+            nativeQuery = true)
+    int reservar(@Param("clave") String clave, @Param("huella") String huella, @Param("expira") Instant expira);
+
+    // Toma una clave expirada que la limpieza aún no eliminó, como si fuera nueva. Si dos peticiones compiten
+    // por ella, la segunda ya no la ve expirada y no la actualiza.
+    @Transactional
+    @Modifying
+    @Query("UPDATE ClaveIdempotencia c SET c.huella = :huella, c.expira = :expira, c.estadoHttp = NULL, c.respuesta = NULL "
+            + "WHERE c.clave = :clave AND c.expira <= :fecha")
+    int reemplazarExpirada(@Param("clave") String clave, @Param("huella") String huella,
+                           @Param("fecha") Instant fecha, @Param("expira") Instant expira);
+
+    // Solo las claves vigentes: una expirada equivale a una clave que ya no existe.
+    Optional<ClaveIdempotencia> findByClaveAndExpiraAfter(String clave, Instant fecha);
+
+    // Guarda la respuesta y extiende la caducidad de la reserva en curso al TTL completo.
+    @Transactional
+    @Modifying
+    @Query("UPDATE ClaveIdempotencia c SET c.estadoHttp = :estadoHttp, c.respuesta = :respuesta, c.expira = :expira "
+            + "WHERE c.clave = :clave")
+    int completar(@Param("clave") String clave, @Param("estadoHttp") int estadoHttp, @Param("respuesta") String respuesta,
+                  @Param("expira") Instant expira);
+
+    // Libera una reserva cuya operación falló, para que el reintento vuelva a ejecutarla.
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM ClaveIdempotencia c WHERE c.clave = :clave AND c.estadoHttp IS NULL")
+    int liberar(@Param("clave") String clave);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM ClaveIdempotencia c WHERE c.expira < :fecha")
+    int eliminarExpiradas(@Param("fecha") Instant fecha);
+}
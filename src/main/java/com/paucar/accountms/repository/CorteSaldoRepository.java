@@ -0,0 +1,41 @@
+package com.paucar.accountms.repository;
+
+import com.paucar.accountms.model.CorteSaldo;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.hibernate.jpa.HibernateHints.HINT_NATIVE_SPACES;
+
+public interface CorteSaldoRepository extends JpaRepository<CorteSaldo, Long> {
+
+    // Corte más reciente registrado hasta la fecha indicada.
+    Optional<CorteSaldo> findFirstByCuentaIdAndFechaLessThanEqualOrderByIdDesc(Long cuentaId, Instant fecha);
+
+    // Bloquea la fila de la tarea de cortes hasta el final de la transacción. Vacío si otra instancia ya la
+    // tiene bloqueada: dos generaciones simultáneas calcularían los mismos cortes (uk_cortes_saldo_cuenta_movimiento).
+    @Query(value = "SELECT nombre FROM bloqueos_tareas WHERE nombre = 'cortes_saldo' FOR UPDATE SKIP LOCKED",
+            nativeQuery = true)
+    Optional<String> bloquearGeneracionCortes();
+
+    // Un corte nuevo por cada cuenta con movimientos desde su último corte (hasta hastaId), calculado
+    // en una sola sentencia a partir del propio registro: saldo del corte anterior + movimientos nuevos.
+    // El espacio de consulta evita que Hibernate vacíe toda la caché de segundo nivel tras el INSERT.
+    @Modifying
+    @QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = "cortes_saldo"))
+    @Query(value = "INSERT INTO cortes_saldo (cuenta_id, saldo_centavos, ultimo_movimiento_id, fecha) " +
+            "SELECT m.cuenta_id, COALESCE(c.saldo_centavos, 0) + SUM(m.monto_centavos), MAX(m.id), :fecha " +
+            "FROM movimientos m " +
+            "LEFT JOIN cortes_saldo c ON c.id = " +
+            "(SELECT MAX(c2.id) FROM cortes_saldo c2 WHERE c2.cuenta_id = m.cuenta_id) " +
+            "WHERE m.id > COALESCE(c.ultimo_movimiento_id, 0) AND m.id <= :hastaId " +
+            "GROUP BY m.cuenta_id, c.saldo_centavos",
+            nativeQuery = true)
+    int generarCortes(@Param("hastaId") long hastaId, @Param("fecha") Instant fecha);
+}
@@ -0,0 +1,14 @@
+package com.paucar.accountms.repository;
+
+import com.paucar.accountms.util.EstadoCuenta;
+import com.paucar.accountms.util.TipoCuenta;
+
+// Columnas de una cuenta leídas directamente con una expresión constructora (SELECT new ...). A diferencia
+// de la entidad, no se registra en el contexto de persistencia ni guarda una copia para la detección de cambios.
+public record CuentaProyeccion(Long id,
+                               String numeroCuenta,
+                               Long saldoCentavos,
+                               TipoCuenta tipoCuenta,
+                               Long clienteId,
+                               EstadoCuenta estado) {
+}
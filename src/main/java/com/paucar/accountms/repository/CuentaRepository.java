@@ -1,16 +1,93 @@
 package com.paucar.accountms.repository;
 
 import com.paucar.accountms.model.Cuenta;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
+import static org.hibernate.jpa.HibernateHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_NATIVE_SPACES;
 
-public interface CuentaRepository extends JpaRepository<Cuenta, Long> {
+
+public interface CuentaRepository extends JpaRepository<Cuenta, Long>, CuentaRepositoryPersonalizado {
+
+    // Consultas de lectura: seleccionan directamente las columnas de CuentaProyeccion, sin cargar entidades.
+    String SELECCIONAR_PROYECCION = "SELECT new com.paucar.accountms.repository.CuentaProyeccion(" +
+            "c.id, c.numeroCuenta, c.saldoCentavos, c.tipoCuenta, c.clienteId, c.estado) FROM Cuenta c ";
 
     boolean existsByNumeroCuenta(String numeroCuenta);
-    List<Cuenta> findByClienteId(Long clienteId);
-    Optional<Cuenta> findByNumeroCuenta(String numeroCuenta);
+
+    // Cuáles de los números indicados ya existen, en una sola consulta (creación de cuentas en lote).
+    @Query("SELECT c.numeroCuenta FROM Cuenta c WHERE c.numeroCuenta IN :numerosCuenta")
+    Set<String> buscarNumerosExistentes(@Param("numerosCuenta") Collection<String> numerosCuenta);
+
+    @Query(SELECCIONAR_PROYECCION + "WHERE c.id = :id")
+    Optional<CuentaProyeccion> buscarProyeccionPorId(@Param("id") Long id);
+
+    @Query(SELECCIONAR_PROYECCION + "WHERE c.clienteId = :clienteId")
+    List<CuentaProyeccion> buscarProyeccionesPorClienteId(@Param("clienteId") Long clienteId);
+
+    // Paginación por cursor (keyset): siguiente página de cuentas con id mayor al último devuelto.
+    // Usa el índice de la clave primaria, por lo que el coste no crece con la profundidad de la página.
+    @Query(SELECCIONAR_PROYECCION + "WHERE c.id > :id ORDER BY c.id")
+    List<CuentaProyeccion> buscarProyeccionesDespuesDe(@Param("id") Long id, Limit limite);
+
+    // Recorre todas las cuentas sin materializarlas: el driver de MySQL solo transmite fila a fila
+    // con fetchSize = Integer.MIN_VALUE. Debe consumirse dentro de una transacción y cerrarse al terminar.
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+            @QueryHint(name = HINT_CACHEABLE, value = "false")
+    })
+    @Query(SELECCIONAR_PROYECCION + "ORDER BY c.id")
+    Stream<CuentaProyeccion> recorrerTodas();
+
+    // Espacio de consulta de los UPDATE de saldo. No coincide con ninguna entidad, así que Hibernate no vacía
+    // la región de Cuenta en la caché de segundo nivel al ejecutarlos; la entrada de la cuenta afectada se
+    // bloquea al releerla con buscarEnEscritura dentro de la misma transacción.
+    String ESPACIO_SALDOS = "cuentas_saldos";
+
+    // Suma el monto (en centavos) en la base de datos solo si la cuenta está ACTIVA. Devuelve las filas afectadas (0 o 1).
+    // Ambas actualizaciones incrementan la versión para que las entidades leídas antes queden obsoletas.
+    // SQL nativo: la columna guarda el importe decimal, por eso los centavos se multiplican por 0.01.
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = ESPACIO_SALDOS))
+    @Query(value = "UPDATE cuentas SET saldo = saldo + :monto * 0.01, version = version + 1 " +
+            "WHERE numero_cuenta = :numeroCuenta AND estado = 'ACTIVO'",
+            nativeQuery = true)
+    int incrementarSaldo(@Param("numeroCuenta") String numeroCuenta, @Param("monto") long monto);
+
+    // Resta el monto solo si la cuenta está ACTIVA y el saldo resultante respeta la regla de su tipo:
+    // las cuentas de ahorros deben tener al menos el monto y las corrientes al menos saldoMinimoCorriente
+    // (monto + límite de sobregiro).
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = ESPACIO_SALDOS))
+    @Query(value = "UPDATE cuentas SET saldo = saldo - :monto * 0.01, version = version + 1 " +
+            "WHERE numero_cuenta = :numeroCuenta AND estado = 'ACTIVO' " +
+            "AND ((tipo_cuenta = 'AHORROS' AND saldo >= :monto * 0.01) " +
+            "OR (tipo_cuenta = 'CORRIENTE' AND saldo >= :saldoMinimoCorriente * 0.01))",
+            nativeQuery = true)
+    int decrementarSaldo(@Param("numeroCuenta") String numeroCuenta,
+                         @Param("monto") long monto,
+                         @Param("saldoMinimoCorriente") long saldoMinimoCorriente);
+
+    // Carga y bloquea (SELECT ... FOR UPDATE) todas las cuentas indicadas en una sola consulta.
+    // Las filas se bloquean recorriendo el índice único de numeroCuenta, en el mismo orden sin importar
+    // el orden de los parámetros, por lo que dos transferencias en sentidos opuestos no pueden cruzarse.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM Cuenta c WHERE c.numeroCuenta IN :numerosCuenta ORDER BY c.id")
+    List<Cuenta> bloquearPorNumerosCuenta(@Param("numerosCuenta") Collection<String> numerosCuenta);
 
 }
@@ -0,0 +1,17 @@
+package com.paucar.accountms.repository;
+
+import com.paucar.accountms.model.Cuenta;
+
+import java.util.Optional;
+
+public interface CuentaRepositoryPersonalizado {
+
+    // Búsqueda por identificador natural: se resuelve desde la caché de segundo nivel y, repetida en la misma
+    // sesión, desde el contexto de persistencia.
+    Optional<Cuenta> findByNumeroCuenta(String numeroCuenta);
+
+    // Relectura dentro de la transacción que modificó el saldo con incrementarSaldo/decrementarSaldo: lee la fila
+    // de la base de datos sin pasar por la caché y bloquea la entrada de la cuenta hasta el final de la transacción.
+    Optional<Cuenta> buscarEnEscritura(String numeroCuenta);
+
+}
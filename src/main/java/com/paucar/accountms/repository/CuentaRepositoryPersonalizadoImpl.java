@@ -0,0 +1,72 @@
+package com.paucar.accountms.repository;
+
+import com.paucar.accountms.model.Cuenta;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.cache.spi.access.EntityDataAccess;
+import org.hibernate.cache.spi.access.SoftLock;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+public class CuentaRepositoryPersonalizadoImpl implements CuentaRepositoryPersonalizado {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // Igual que los métodos de SimpleJpaRepository: se une a la transacción en curso o abre una de solo lectura.
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<Cuenta> findByNumeroCuenta(String numeroCuenta) {
+        return entityManager.unwrap(Session.class)
+                .bySimpleNaturalId(Cuenta.class)
+                .loadOptional(numeroCuenta);
+    }
+
+    // Sin consultar la caché (tendría el saldo anterior al UPDATE) ni llenarla (con un saldo aún sin confirmar).
+    // Después bloquea la entrada igual que Hibernate al actualizar una entidad READ_WRITE: hasta que la
+    // transacción termina, ninguna lectura concurrente puede guardar en la caché el saldo anterior.
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Optional<Cuenta> buscarEnEscritura(String numeroCuenta) {
+        SessionImplementor sesion = entityManager.unwrap(SessionImplementor.class);
+        CacheMode modoAnterior = sesion.getCacheMode();
+        sesion.setCacheMode(CacheMode.IGNORE);
+        Optional<Cuenta> cuenta;
+        try {
+            cuenta = sesion.bySimpleNaturalId(Cuenta.class).loadOptional(numeroCuenta);
+        } finally {
+            sesion.setCacheMode(modoAnterior);
+        }
+        cuenta.ifPresent(c -> bloquearEnCache(sesion, c));
+        return cuenta;
+    }
+
+    private static void bloquearEnCache(SessionImplementor sesion, Cuenta cuenta) {
+        EntityPersister persister = sesion.getFactory().getMappingMetamodel().getEntityDescriptor(Cuenta.class);
+        EntityDataAccess cache = persister.getCacheAccessStrategy();
+        if (cache == null) {
+            // Caché de segundo nivel desactivada
+            return;
+        }
+        Object clave = cache.generateCacheKey(cuenta.getId(), persister, sesion.getFactory(),
+                sesion.getTenantIdentifier());
+
+        // Con la versión anterior al UPDATE: una lectura que todavía la tenga no vuelve a entrar en la caché
+        // después de liberar el bloqueo. Si la transacción se revierte, la entrada simplemente se descarta.
+        SoftLock bloqueo = cache.lockItem(sesion, clave, cuenta.getVersion() - 1);
+        sesion.getActionQueue().registerProcess((AfterTransactionCompletionProcess) (confirmada, s) -> {
+            if (confirmada) {
+                cache.unlockItem(s, clave, bloqueo);
+            } else {
+                cache.evict(clave);
+            }
+        });
+    }
+}
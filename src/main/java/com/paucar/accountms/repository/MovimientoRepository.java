@@ -0,0 +1,25 @@
+package com.paucar.accountms.repository;
+
+import com.paucar.accountms.model.Movimiento;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface MovimientoRepository extends JpaRepository<Movimiento, Long> {
+
+    // Historial por cursor, del más reciente al más antiguo; usa el índice (cuenta_id, id).
+    List<Movimiento> findByCuentaIdOrderByIdDesc(Long cuentaId, Limit limite);
+    List<Movimiento> findByCuentaIdAndIdLessThanOrderByIdDesc(Long cuentaId, Long id, Limit limite);
+
+    // Suma de los movimientos posteriores a un corte y anteriores o iguales a la fecha indicada.
+    @Query("SELECT COALESCE(SUM(m.montoCentavos), 0) FROM Movimiento m " +
+            "WHERE m.cuentaId = :cuentaId AND m.id > :desdeId AND m.fecha <= :fecha")
+    long sumarDesde(@Param("cuentaId") Long cuentaId, @Param("desdeId") long desdeId, @Param("fecha") Instant fecha);
+
+    @Query("SELECT MAX(m.id) FROM Movimiento m WHERE m.fecha <= :fecha")
+    Long ultimoIdHasta(@Param("fecha") Instant fecha);
+}
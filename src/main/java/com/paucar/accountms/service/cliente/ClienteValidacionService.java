@@ -0,0 +1,20 @@
+package com.paucar.accountms.service.cliente;
+
+import com.paucar.accountms.client.dto.Cliente;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+public interface ClienteValidacionService {
+
+    // Devuelve el cliente o lanza ClienteNoEncontradoException si no existe en CUSTOMER-MS.
+    Cliente validarCliente(Long clienteId);
+
+    // Igual que validarCliente sin bloquear: el futuro falla con la misma excepción que lanzaría validarCliente.
+    CompletableFuture<Cliente> validarClienteAsync(Long clienteId);
+
+    // Valida varios clientes con pocas llamadas a CUSTOMER-MS y devuelve los ids que no existen.
+    Set<Long> buscarClientesInexistentes(Collection<Long> clienteIds);
+
+}
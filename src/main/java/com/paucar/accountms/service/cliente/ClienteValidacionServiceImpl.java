@@ -0,0 +1,341 @@
+package com.paucar.accountms.service.cliente;
+
+import com.github.benmanes.caffeine.cache.AsyncCacheLoader;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.paucar.accountms.client.ClienteFeign;
+import com.paucar.accountms.client.dto.Cliente;
+import com.paucar.accountms.exception.ClienteNoEncontradoException;
+import com.paucar.accountms.exception.ServicioClientesNoDisponibleException;
+import com.paucar.accountms.util.ApiResponse;
+import com.paucar.accountms.util.PoliticaFallbackCliente;
+import feign.FeignException;
+import feign.RetryableException;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Valida clientes contra CUSTOMER-MS guardando las respuestas en una caché en memoria acotada.
+ * También se guardan los "no encontrado" (con un TTL más corto) para no repetir la llamada remota
+ * por un mismo id inexistente, y las entradas válidas se refrescan en segundo plano antes de expirar.
+ * Los errores de comunicación no se guardan: se propagan y la siguiente consulta vuelve a intentarlo.
+ * <p>
+ * Las consultas concurrentes de un mismo id comparten una única llamada en curso: la caché guarda el
+ * futuro de la consulta, así que quienes llegan mientras está pendiente esperan ese mismo resultado
+ * (o ese mismo error) en lugar de lanzar su propia petición a CUSTOMER-MS.
+ * <p>
+ * Cada llamada remota pasa por un bulkhead y un circuit breaker propios ("customerMs"), de modo que
+ * la lentitud de CUSTOMER-MS solo afecta a la creación de cuentas. Si el servicio no está disponible
+ * se aplica la política configurada en clientes.fallback.
+ * <p>
+ * Para validar muchos clientes a la vez, los ids que no están en la caché se piden a CUSTOMER-MS en
+ * bloques de clientes.lote.tamano ids por llamada (GET /cliente/lote), repartidos en
+ * clientes.lote.paralelismo consultas simultáneas. Si CUSTOMER-MS todavía no ofrece esa ruta, se
+ * vuelve a las consultas por id y la ruta de lote se prueba de nuevo pasado clientes.lote.reintento.
+ */
+@Slf4j
+@Service
+public class ClienteValidacionServiceImpl implements ClienteValidacionService {
+
+    static final String NOMBRE_CACHE = "clientes";
+    static final String NOMBRE_RESILIENCIA = "customerMs";
+
+    private final ClienteFeign clienteFeign;
+    private final CircuitBreaker circuitBreaker;
+    private final Bulkhead bulkhead;
+    private final PoliticaFallbackCliente politicaFallback;
+    private final Executor ejecutor;
+    private final int tamanoLote;
+    private final int paralelismoLote;
+    private final Duration reintentoLote;
+    private final AsyncLoadingCache<Long, Optional<Cliente>> cache;
+
+    // Instante (System.nanoTime) hasta el que no se usa la ruta de lote porque CUSTOMER-MS la rechazó
+    private volatile long loteNoDisponibleHasta;
+
+    public ClienteValidacionServiceImpl(ClienteFeign clienteFeign,
+                                        MeterRegistry meterRegistry,
+                                        CircuitBreakerRegistry circuitBreakerRegistry,
+                                        BulkheadRegistry bulkheadRegistry,
+                                        @Value("${clientes.fallback:RECHAZAR}") PoliticaFallbackCliente politicaFallback,
+                                        @Value("${spring.threads.virtual.enabled:false}") boolean hilosVirtuales,
+                                        @Value("${clientes.cache.tamano-maximo:10000}") long tamanoMaximo,
+                                        @Value("${clientes.cache.ttl:10m}") Duration ttl,
+                                        @Value("${clientes.cache.ttl-no-encontrado:30s}") Duration ttlNoEncontrado,
+                                        @Value("${clientes.cache.refresco:5m}") Duration refresco,
+                                        @Value("${clientes.lote.tamano:100}") int tamanoLote,
+                                        @Value("${clientes.lote.paralelismo:4}") int paralelismoLote,
+                                        @Value("${clientes.lote.reintento:5m}") Duration reintentoLote) {
+        this.clienteFeign = clienteFeign;
+        this.circuitBreaker = circuitBreakerRegistry.circuitBreaker(NOMBRE_RESILIENCIA);
+        this.bulkhead = bulkheadRegistry.bulkhead(NOMBRE_RESILIENCIA);
+        this.politicaFallback = politicaFallback;
+        this.tamanoLote = tamanoLote;
+        this.paralelismoLote = paralelismoLote;
+        this.reintentoLote = reintentoLote;
+        this.loteNoDisponibleHasta = System.nanoTime();
+        this.ejecutor = crearEjecutor(hilosVirtuales);
+        this.cache = Caffeine.newBuilder()
+                .executor(ejecutor)
+                .maximumSize(tamanoMaximo)
+                .expireAfter(new ExpiracionPorResultado(ttl, ttlNoEncontrado))
+                .refreshAfterWrite(refresco)
+                .recordStats()
+                .buildAsync(new CargadorClientes());
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, NOMBRE_CACHE);
+    }
+
+    // Devuelve null si CUSTOMER-MS no está disponible y la política de fallback permite continuar.
+    @Override
+    public Cliente validarCliente(Long clienteId) {
+        try {
+            return validarClienteAsync(clienteId).join();
+        } catch (CompletionException e) {
+            // Se relanza el error original de la consulta compartida (p. ej. FeignException)
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw e;
+        }
+    }
+
+    // Con la respuesta en caché el futuro ya está completo. Si no, se completa en el hilo de la consulta
+    // remota, sin ocupar el hilo de quien llama. Cancelarlo no afecta a la consulta compartida.
+    @Override
+    public CompletableFuture<Cliente> validarClienteAsync(Long clienteId) {
+        CompletableFuture<Optional<Cliente>> consulta = cache.get(clienteId);
+        return consulta.handle((cliente, error) -> {
+            if (error == null) {
+                return cliente.orElseThrow(() -> new ClienteNoEncontradoException("El cliente con ID: " + clienteId + " no existe."));
+            }
+            Throwable causa = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            // Caffeine descarta las consultas fallidas de forma asíncrona; se retira aquí (solo si sigue
+            // siendo la misma) para que el siguiente intento vuelva a llamar a CUSTOMER-MS.
+            cache.asMap().remove(clienteId, consulta);
+            if (noDisponible(causa)) {
+                aplicarFallback("el cliente " + clienteId, causa);
+                return null;
+            }
+            throw causa instanceof RuntimeException excepcion ? excepcion : new CompletionException(causa);
+        });
+    }
+
+    // Con la política PERMITIR y CUSTOMER-MS no disponible, se consideran existentes todos los clientes.
+    @Override
+    public Set<Long> buscarClientesInexistentes(Collection<Long> clienteIds) {
+        Set<Long> ids = clienteIds.stream().filter(Objects::nonNull).collect(Collectors.toSet());
+        if (ids.isEmpty()) {
+            return Set.of();
+        }
+        Map<Long, Optional<Cliente>> clientes;
+        try {
+            clientes = cache.getAll(ids).join();
+        } catch (CompletionException e) {
+            // Igual que en validarCliente: las consultas fallidas no deben quedar en la caché
+            ids.forEach(id -> {
+                CompletableFuture<Optional<Cliente>> consulta = cache.getIfPresent(id);
+                if (consulta != null && consulta.isCompletedExceptionally()) {
+                    cache.asMap().remove(id, consulta);
+                }
+            });
+            if (noDisponible(e.getCause())) {
+                aplicarFallback(ids.size() + " clientes", e.getCause());
+                return Set.of();
+            }
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw e;
+        }
+        return clientes.entrySet().stream()
+                .filter(entrada -> entrada.getValue().isEmpty())
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toSet());
+    }
+
+    @PreDestroy
+    public void detener() {
+        if (ejecutor instanceof ExecutorService servicio) {
+            servicio.shutdown();
+        } else if (ejecutor instanceof SimpleAsyncTaskExecutor virtual) {
+            virtual.close();
+        }
+    }
+
+    // Hilos propios para las llamadas HTTP bloqueantes, fuera del ForkJoinPool común.
+    // En modo virtual cada consulta usa un hilo virtual (requiere Java 21).
+    private static Executor crearEjecutor(boolean hilosVirtuales) {
+        if (hilosVirtuales) {
+            SimpleAsyncTaskExecutor virtual = new SimpleAsyncTaskExecutor("clientes-cache-");
+            virtual.setVirtualThreads(true);
+            return virtual;
+        }
+        AtomicInteger contador = new AtomicInteger();
+        return Executors.newCachedThreadPool(tarea -> {
+            Thread hilo = new Thread(tarea, "clientes-cache-" + contador.incrementAndGet());
+            hilo.setDaemon(true);
+            return hilo;
+        });
+    }
+
+    // Orden recomendado por Resilience4j: el circuit breaker envuelve al bulkhead, así que los rechazos
+    // por saturación también cuentan como fallos del servicio remoto.
+    private Optional<Cliente> consultarCliente(Long clienteId) {
+        return CircuitBreaker.decorateSupplier(circuitBreaker,
+                Bulkhead.decorateSupplier(bulkhead, () -> llamarCustomerMs(clienteId))).get();
+    }
+
+    // Cada bloque es una sola llamada protegida por el circuit breaker y el bulkhead. Los bloques se reparten
+    // en carriles que se consultan en paralelo; dentro de un carril van uno tras otro, así que un lote grande
+    // nunca ocupa más de paralelismoLote permisos del bulkhead.
+    private CompletableFuture<Map<Long, Optional<Cliente>>> consultarClientes(Set<? extends Long> clienteIds,
+                                                                             Executor executor) {
+        List<Long> ids = new ArrayList<>(clienteIds);
+        List<List<Long>> bloques = new ArrayList<>();
+        for (int inicio = 0; inicio < ids.size(); inicio += tamanoLote) {
+            bloques.add(ids.subList(inicio, Math.min(inicio + tamanoLote, ids.size())));
+        }
+        int carriles = Math.min(paralelismoLote, bloques.size());
+        List<CompletableFuture<Map<Long, Optional<Cliente>>>> consultas = IntStream.range(0, carriles)
+                .mapToObj(carril -> CompletableFuture.supplyAsync(() -> {
+                    Map<Long, Optional<Cliente>> clientes = new HashMap<>();
+                    for (int i = carril; i < bloques.size(); i += carriles) {
+                        List<Long> bloque = bloques.get(i);
+                        clientes.putAll(CircuitBreaker.decorateSupplier(circuitBreaker,
+                                Bulkhead.decorateSupplier(bulkhead, () -> llamarCustomerMs(bloque))).get());
+                    }
+                    return clientes;
+                }, executor))
+                .toList();
+        return CompletableFuture.allOf(consultas.toArray(CompletableFuture[]::new))
+                .thenApply(ignorado -> {
+                    Map<Long, Optional<Cliente>> clientes = new HashMap<>();
+                    consultas.forEach(consulta -> clientes.putAll(consulta.join()));
+                    return clientes;
+                });
+    }
+
+    private Optional<Cliente> llamarCustomerMs(Long clienteId) {
+        try {
+            ResponseEntity<ApiResponse<Cliente>> respuesta = clienteFeign.obtenerCliente(clienteId);
+            if (respuesta.getBody() == null || respuesta.getBody().getDatos() == null) {
+                return Optional.empty();
+            }
+            return Optional.of(respuesta.getBody().getDatos());
+        } catch (FeignException.NotFound e) {
+            return Optional.empty();
+        }
+    }
+
+    // Los ids que no vienen en la respuesta se guardan como "no encontrado".
+    private Map<Long, Optional<Cliente>> llamarCustomerMs(List<Long> clienteIds) {
+        Map<Long, Optional<Cliente>> clientes = new HashMap<>();
+        if (System.nanoTime() - loteNoDisponibleHasta >= 0) {
+            try {
+                ResponseEntity<ApiResponse<List<Cliente>>> respuesta = clienteFeign.obtenerClientes(clienteIds);
+                clienteIds.forEach(id -> clientes.put(id, Optional.empty()));
+                if (respuesta.getBody() != null && respuesta.getBody().getDatos() != null) {
+                    respuesta.getBody().getDatos().forEach(cliente ->
+                            clientes.computeIfPresent(cliente.getId(), (id, anterior) -> Optional.of(cliente)));
+                }
+                return clientes;
+            } catch (FeignException.NotFound | FeignException.MethodNotAllowed e) {
+                // Una versión de CUSTOMER-MS sin la ruta de lote responde 404/405. Se vuelve a probar más tarde,
+                // por si CUSTOMER-MS se actualiza sin reiniciar este servicio.
+                loteNoDisponibleHasta = System.nanoTime() + reintentoLote.toNanos();
+                log.warn("CUSTOMER-MS no ofrece la consulta por lote ({}); se consultará cliente por cliente durante {}",
+                        e.status(), reintentoLote);
+            } catch (FeignException.BadRequest e) {
+                // Un 400 puede deberse a esta petición en concreto: solo este bloque se consulta por id
+                log.warn("CUSTOMER-MS rechazó la consulta por lote ({}); este bloque se consultará cliente por cliente",
+                        e.status());
+            }
+        }
+        clienteIds.forEach(id -> clientes.put(id, llamarCustomerMs(id)));
+        return clientes;
+    }
+
+    // Circuito abierto, bulkhead lleno, timeout/conexión fallida o error 5xx de CUSTOMER-MS.
+    private boolean noDisponible(Throwable error) {
+        return error instanceof CallNotPermittedException
+                || error instanceof BulkheadFullException
+                || error instanceof RetryableException
+                || error instanceof FeignException.FeignServerException;
+    }
+
+    private void aplicarFallback(String clientes, Throwable causa) {
+        if (politicaFallback == PoliticaFallbackCliente.PERMITIR) {
+            log.warn("CUSTOMER-MS no disponible; se continúa sin verificar {}: {}", clientes, causa.getMessage());
+            return;
+        }
+        throw new ServicioClientesNoDisponibleException(
+                "El servicio de clientes no está disponible. Intente nuevamente en unos instantes.", causa);
+    }
+
+    // Un id suelto se consulta con GET /cliente/{id}; varios ids sin caché (getAll), por bloques.
+    private class CargadorClientes implements AsyncCacheLoader<Long, Optional<Cliente>> {
+
+        @Override
+        public CompletableFuture<Optional<Cliente>> asyncLoad(Long clienteId, Executor executor) {
+            return CompletableFuture.supplyAsync(() -> consultarCliente(clienteId), executor);
+        }
+
+        @Override
+        public CompletableFuture<Map<Long, Optional<Cliente>>> asyncLoadAll(Set<? extends Long> clienteIds,
+                                                                           Executor executor) {
+            return consultarClientes(clienteIds, executor);
+        }
+    }
+
+    // Las respuestas "no encontrado" caducan antes que los clientes válidos, para que un cliente
+    // recién registrado en CUSTOMER-MS se reconozca pronto.
+    private record ExpiracionPorResultado(Duration ttl, Duration ttlNoEncontrado)
+            implements Expiry<Long, Optional<Cliente>> {
+
+        @Override
+        public long expireAfterCreate(Long clienteId, Optional<Cliente> cliente, long ahora) {
+            return (cliente.isPresent() ? ttl : ttlNoEncontrado).toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(Long clienteId, Optional<Cliente> cliente, long ahora, long duracionActual) {
+            return expireAfterCreate(clienteId, cliente, ahora);
+        }
+
+        @Override
+        public long expireAfterRead(Long clienteId, Optional<Cliente> cliente, long ahora, long duracionActual) {
+            return duracionActual;
+        }
+    }
+}
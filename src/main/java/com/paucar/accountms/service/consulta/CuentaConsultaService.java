@@ -4,10 +4,15 @@ import com.paucar.accountms.dto.CuentaDTO;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface CuentaConsultaService {
 
-    List<CuentaDTO> obtenerTodasLasCuentas();
+    int LIMITE_PAGINA_POR_DEFECTO = 100;
+    int LIMITE_PAGINA_MAXIMO = 1000;
+
+    List<CuentaDTO> obtenerCuentas(Long despuesDeId, int limite);
+    void recorrerCuentas(Consumer<CuentaDTO> consumidor);
     Optional<CuentaDTO> obtenerCuentaPorId(Long id);
     List<CuentaDTO> obtenerCuentasPorClienteId(Long clienteId);
 
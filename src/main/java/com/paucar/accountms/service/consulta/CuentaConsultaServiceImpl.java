@@ -1,39 +1,64 @@
 package com.paucar.accountms.service.consulta;
 
+import com.paucar.accountms.config.CacheConfig;
 import com.paucar.accountms.dto.CuentaDTO;
 import com.paucar.accountms.mapper.CuentaMapper;
+import com.paucar.accountms.repository.CuentaProyeccion;
 import com.paucar.accountms.repository.CuentaRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+// Lado de lectura: todas las consultas seleccionan proyecciones (sin entidades administradas ni copias para
+// la detección de cambios) dentro de transacciones de solo lectura, sin vaciado del contexto al confirmar.
 @Service
 @RequiredArgsConstructor
+@Transactional(readOnly = true)
 public class CuentaConsultaServiceImpl implements CuentaConsultaService {
 
     private final CuentaRepository cuentaRepository;
     private final CuentaMapper cuentaMapper;
-    
+
     @Override
-    public List<CuentaDTO> obtenerTodasLasCuentas() {
-        return cuentaRepository.findAll().stream()
-                .map(cuentaMapper::convertEntidadADto)
+    public List<CuentaDTO> obtenerCuentas(Long despuesDeId, int limite) {
+        if (limite < 1 || limite > LIMITE_PAGINA_MAXIMO) {
+            throw new IllegalArgumentException("El límite debe estar entre 1 y " + LIMITE_PAGINA_MAXIMO + ".");
+        }
+        long cursor = despuesDeId == null ? 0L : despuesDeId;
+        return cuentaRepository.buscarProyeccionesDespuesDe(cursor, Limit.of(limite)).stream()
+                .map(cuentaMapper::convertirProyeccionADto)
                 .collect(Collectors.toList());
     }
 
+    // Las proyecciones no quedan en el contexto de persistencia, así que su tamaño no crece con la tabla.
+    @Override
+    public void recorrerCuentas(Consumer<CuentaDTO> consumidor) {
+        try (Stream<CuentaProyeccion> cuentas = cuentaRepository.recorrerTodas()) {
+            cuentas.forEach(cuenta -> consumidor.accept(cuentaMapper.convertirProyeccionADto(cuenta)));
+        }
+    }
+
     @Override
     public Optional<CuentaDTO> obtenerCuentaPorId(Long id) {
-        return cuentaRepository.findById(id)
-                .map(cuentaMapper::convertEntidadADto);
+        return cuentaRepository.buscarProyeccionPorId(id)
+                .map(cuentaMapper::convertirProyeccionADto);
     }
 
+    // Lectura a través de caché; InvalidadorCacheCuentas descarta la entrada cuando cambia alguna cuenta del cliente.
+    // Un acierto de caché no abre transacción (ver el orden en CacheConfig).
     @Override
+    @Cacheable(cacheNames = CacheConfig.CUENTAS_POR_CLIENTE)
     public List<CuentaDTO> obtenerCuentasPorClienteId(Long clienteId) {
-        return cuentaRepository.findByClienteId(clienteId).stream()
-                .map(cuentaMapper::convertEntidadADto)
-                .collect(Collectors.toList());
+        return cuentaRepository.buscarProyeccionesPorClienteId(clienteId).stream()
+                .map(cuentaMapper::convertirProyeccionADto)
+                .toList();
     }
 }
@@ -0,0 +1,12 @@
+package com.paucar.accountms.service.consulta;
+
+import java.util.Arrays;
+import java.util.Set;
+
+// Se publica cuando una operación modifica cuentas; lleva los clientes cuyas consultas en caché quedan obsoletas.
+public record CuentasModificadasEvento(Set<Long> clienteIds) {
+
+    public static CuentasModificadasEvento de(Long... clienteIds) {
+        return new CuentasModificadasEvento(Set.copyOf(Arrays.asList(clienteIds)));
+    }
+}
@@ -0,0 +1,51 @@
+package com.paucar.accountms.service.consulta;
+
+import com.paucar.accountms.config.CacheConfig;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Invalida las listas de cuentas por cliente cuando se confirma una modificación; si la transacción se revierte
+ * no se invalida nada. Fuera de una transacción se ejecuta de inmediato.
+ * <p>
+ * Una lectura que consultó la base de datos antes del commit puede guardar su lista después de la invalidación.
+ * Por eso las mismas claves se invalidan otra vez pasado un breve retraso, que acota a ese tiempo la vida de la
+ * lista obsoleta. La invalidación solo alcanza a la caché de esta instancia: en las demás, la lista anterior dura
+ * como mucho el expireAfterWrite de spring.cache.caffeine.spec.
+ */
+@Component
+public class InvalidadorCacheCuentas {
+
+    private final CacheManager cacheManager;
+    private final TaskScheduler programador;
+    private final Duration retrasoSegundaInvalidacion;
+
+    public InvalidadorCacheCuentas(CacheManager cacheManager,
+                                   TaskScheduler programador,
+                                   @Value("${cuentas.cache.segunda-invalidacion:1s}") Duration retrasoSegundaInvalidacion) {
+        this.cacheManager = cacheManager;
+        this.programador = programador;
+        this.retrasoSegundaInvalidacion = retrasoSegundaInvalidacion;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void alModificarCuentas(CuentasModificadasEvento evento) {
+        Set<Long> clienteIds = evento.clienteIds();
+        invalidar(clienteIds);
+        programador.schedule(() -> invalidar(clienteIds), Instant.now().plus(retrasoSegundaInvalidacion));
+    }
+
+    private void invalidar(Set<Long> clienteIds) {
+        Cache cache = Objects.requireNonNull(cacheManager.getCache(CacheConfig.CUENTAS_POR_CLIENTE));
+        clienteIds.forEach(cache::evict);
+    }
+}
@@ -2,10 +2,17 @@ package com.paucar.accountms.service.gestion;
 
 
 import com.paucar.accountms.dto.CuentaDTO;
+import com.paucar.accountms.dto.ResultadoCreacionCuentaDTO;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 public interface CuentaGestionService {
 
-    CuentaDTO crearCuenta(CuentaDTO cuentaDTO);
+    // Los pasos independientes se ejecutan en paralelo; el futuro se completa al guardar la cuenta.
+    CompletableFuture<CuentaDTO> crearCuenta(CuentaDTO cuentaDTO);
+    // Crea las cuentas válidas y devuelve un resultado por cuenta, en el mismo orden.
+    List<ResultadoCreacionCuentaDTO> crearCuentas(List<CuentaDTO> cuentas);
     CuentaDTO actualizarCuenta(Long id, CuentaDTO cuentaDTO);
     void eliminarCuenta(Long id);
 
@@ -1,56 +1,228 @@
 package com.paucar.accountms.service.gestion;
 
-import com.paucar.accountms.client.ClienteFeign;
+import com.paucar.accountms.client.dto.Cliente;
 import com.paucar.accountms.dto.CuentaDTO;
+import com.paucar.accountms.dto.ResultadoCreacionCuentaDTO;
 import com.paucar.accountms.exception.CuentaYaExisteException;
 import com.paucar.accountms.exception.CuentaNoEncontradaException;
-import com.paucar.accountms.exception.ClienteNoEncontradoException;
 import com.paucar.accountms.mapper.CuentaMapper;
 import com.paucar.accountms.model.Cuenta;
-import com.paucar.accountms.client.dto.Cliente;
 import com.paucar.accountms.repository.CuentaRepository;
-import com.paucar.accountms.util.ApiResponse;
+import com.paucar.accountms.service.cliente.ClienteValidacionService;
+import com.paucar.accountms.service.consulta.CuentasModificadasEvento;
+import com.paucar.accountms.service.movimiento.RegistroMovimientos;
+import com.paucar.accountms.util.Dinero;
 import com.paucar.accountms.util.EstadoCuenta;
+import com.paucar.accountms.util.TipoMovimiento;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
-import org.springframework.http.ResponseEntity;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class CuentaGestionServiceImpl implements CuentaGestionService {
 
     private final CuentaRepository cuentaRepository;
-    private final ClienteFeign clienteFeign;
+    private final ClienteValidacionService clienteValidacionService;
     private final CuentaMapper cuentaMapper;
+    private final GeneradorNumerosCuenta generadorNumerosCuenta;
+    private final RegistroMovimientos registroMovimientos;
+    private final TransactionTemplate transacciones;
+    private final ApplicationEventPublisher eventos;
+    private final Validator validator;
+    private final EjecutorCreacionCuentas ejecutorCreacion;
 
+    // Devuelve un futuro que falla con la excepción del primer paso que falle (p. ej. ClienteNoEncontradoException).
     @Override
-    public CuentaDTO crearCuenta(CuentaDTO cuentaDTO) {
-        // Validar la existencia del cliente usando el cliente Feign.
-        ResponseEntity<ApiResponse<Cliente>> respuesta = clienteFeign.obtenerCliente(cuentaDTO.getClienteId());
-
-        if (respuesta.getBody() == null || respuesta.getBody().getDatos() == null) {
-            throw new ClienteNoEncontradoException("El cliente con ID: " + cuentaDTO.getClienteId() + " no existe.");
-        }
-
-        // Verificar si la cuenta ya existe en el repositorio.
-        if (cuentaRepository.existsByNumeroCuenta(cuentaDTO.getNumeroCuenta())) {
-            throw new CuentaYaExisteException("La cuenta con número " + cuentaDTO.getNumeroCuenta() + " ya existe.");
-        }
-
+    public CompletableFuture<CuentaDTO> crearCuenta(CuentaDTO cuentaDTO) {
         // Mapear DTO a entidad de Cuenta y establecer estado.
         Cuenta cuenta = cuentaMapper.convertirDtoAEntidad(cuentaDTO);
         cuenta.setEstado(EstadoCuenta.ACTIVO);
+        String numeroIndicado = cuenta.getNumeroCuenta();
+
+        // La validación del cliente (caché o CUSTOMER-MS) y el número de cuenta (base de datos) no dependen
+        // entre sí: se lanzan a la vez y la inserción espera a los dos.
+        CompletableFuture<Cliente> cliente = clienteValidacionService.validarClienteAsync(cuentaDTO.getClienteId());
+        CompletableFuture<String> numero = ejecutorCreacion.ejecutar(() -> asignarNumero(numeroIndicado));
 
-        // Si el número de cuenta es nulo o vacío, generar un nuevo número de cuenta.
-        if (cuenta.getNumeroCuenta() == null || cuenta.getNumeroCuenta().isEmpty()) {
-            cuenta.setNumeroCuenta(generarNumeroCuenta());
+        CompletableFuture<CuentaDTO> resultado = new CompletableFuture<>();
+        // El primer paso que falla responde sin esperar al otro, que se cancela si aún no empezó
+        // (después de completar el resultado, para que la cancelación no sustituya al error real).
+        cliente.whenComplete((ignorado, error) -> {
+            if (error != null) {
+                resultado.completeExceptionally(causa(error));
+                numero.cancel(false);
+            }
+        });
+        numero.whenComplete((ignorado, error) -> {
+            if (error != null) {
+                resultado.completeExceptionally(causa(error));
+                cliente.cancel(false);
+            }
+        });
+        // Si quien espera cancela la creación, no se inicia lo que quede pendiente.
+        resultado.whenComplete((ignorado, error) -> {
+            if (resultado.isCancelled()) {
+                numero.cancel(false);
+            }
+        });
+
+        cliente.thenCombine(numero, (ignorado, numeroCuenta) -> numeroCuenta)
+                .thenCompose(numeroCuenta -> ejecutorCreacion.ejecutar(() -> {
+                    if (resultado.isDone()) {
+                        throw new CancellationException("Creación de cuenta cancelada");
+                    }
+                    cuenta.setNumeroCuenta(numeroCuenta);
+                    return guardar(cuenta);
+                }))
+                .whenComplete((cuentaCreada, error) -> {
+                    if (error != null) {
+                        resultado.completeExceptionally(causa(error));
+                    } else {
+                        resultado.complete(cuentaCreada);
+                    }
+                });
+        return resultado;
+    }
+
+    // Sin número de cuenta se asigna uno del bloque reservado, que no puede repetirse; solo un número
+    // indicado por el cliente necesita comprobarse contra la base de datos.
+    private String asignarNumero(String numeroIndicado) {
+        if (numeroIndicado == null || numeroIndicado.isEmpty()) {
+            return generadorNumerosCuenta.siguienteNumero();
+        }
+        if (GeneradorNumerosCuenta.esReservado(numeroIndicado)) {
+            throw new IllegalArgumentException(mensajeNumeroReservado(numeroIndicado));
         }
+        if (cuentaRepository.existsByNumeroCuenta(numeroIndicado)) {
+            throw new CuentaYaExisteException("La cuenta con número " + numeroIndicado + " ya existe.");
+        }
+        return numeroIndicado;
+    }
+
+    private static String mensajeNumeroReservado(String numero) {
+        return "El número de cuenta " + numero + " está reservado para los números generados por el sistema.";
+    }
 
-        // Guardar la cuenta en el repositorio.
-        Cuenta cuentaGuardada = cuentaRepository.save(cuenta);
+    // Guardar la cuenta y su saldo inicial como primer movimiento, en la misma transacción.
+    // La transacción empieza aquí, tras validar al cliente, para no retener una conexión durante esa llamada.
+    private CuentaDTO guardar(Cuenta cuenta) {
+        Cuenta cuentaGuardada = transacciones.execute(estado -> {
+            Cuenta guardada = cuentaRepository.save(cuenta);
+            registroMovimientos.registrar(guardada, TipoMovimiento.APERTURA, guardada.getSaldoCentavos(), null);
+            return guardada;
+        });
+        eventos.publishEvent(CuentasModificadasEvento.de(cuentaGuardada.getClienteId()));
         return cuentaMapper.convertEntidadADto(cuentaGuardada);
     }
 
+    private static Throwable causa(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+    @Override
+    public List<ResultadoCreacionCuentaDTO> crearCuentas(List<CuentaDTO> cuentasDTO) {
+        // Los clientes del lote se validan juntos, con pocas llamadas a CUSTOMER-MS; un cliente inexistente
+        // solo rechaza sus cuentas. Si CUSTOMER-MS no está disponible, la excepción rechaza el lote completo.
+        Set<Long> clientesInexistentes = clienteValidacionService.buscarClientesInexistentes(cuentasDTO.stream()
+                .map(CuentaDTO::getClienteId)
+                .toList());
+
+        // Números indicados por el cliente que ya existen, con una sola consulta para todo el lote.
+        Set<String> numerosIndicados = cuentasDTO.stream()
+                .map(CuentaDTO::getNumeroCuenta)
+                .filter(numero -> numero != null && !numero.isEmpty())
+                .collect(Collectors.toSet());
+        Set<String> numerosExistentes = numerosIndicados.isEmpty()
+                ? Set.of()
+                : cuentaRepository.buscarNumerosExistentes(numerosIndicados);
+
+        ResultadoCreacionCuentaDTO[] resultados = new ResultadoCreacionCuentaDTO[cuentasDTO.size()];
+        List<Cuenta> nuevas = new ArrayList<>();
+        List<Integer> indicesNuevas = new ArrayList<>();
+        Set<String> numerosDelLote = new HashSet<>();
+        for (int i = 0; i < cuentasDTO.size(); i++) {
+            CuentaDTO cuentaDTO = cuentasDTO.get(i);
+            Cuenta cuenta = cuentaMapper.convertirDtoAEntidad(cuentaDTO);
+            // Siempre se inserta: un id enviado por el cliente convertiría save en una actualización.
+            cuenta.setId(null);
+            cuenta.setEstado(EstadoCuenta.ACTIVO);
+
+            String error = null;
+            String numero = cuenta.getNumeroCuenta();
+            if (cuenta.getClienteId() != null && clientesInexistentes.contains(cuenta.getClienteId())) {
+                error = "El cliente con ID: " + cuenta.getClienteId() + " no existe.";
+            } else if (numero == null || numero.isEmpty()) {
+                cuenta.setNumeroCuenta(generadorNumerosCuenta.siguienteNumero());
+            } else if (GeneradorNumerosCuenta.esReservado(numero)) {
+                error = mensajeNumeroReservado(numero);
+            } else if (numerosExistentes.contains(numero)) {
+                error = "La cuenta con número " + numero + " ya existe.";
+            } else if (!numerosDelLote.add(numero)) {
+                error = "El número de cuenta " + numero + " está repetido en el lote.";
+            }
+            // Las restricciones de la entidad se comprueban aquí para que una fila inválida no haga fallar el lote.
+            if (error == null) {
+                String violaciones = validator.validate(cuenta).stream()
+                        .map(ConstraintViolation::getMessage)
+                        .sorted()
+                        .collect(Collectors.joining(" "));
+                error = violaciones.isEmpty() ? null : violaciones;
+            }
+
+            if (error == null) {
+                nuevas.add(cuenta);
+                indicesNuevas.add(i);
+            } else {
+                resultados[i] = ResultadoCreacionCuentaDTO.builder()
+                        .indice(i)
+                        .numeroCuenta(numero)
+                        .clienteId(cuenta.getClienteId())
+                        .exitosa(false)
+                        .mensaje(error)
+                        .build();
+            }
+        }
+
+        if (!nuevas.isEmpty()) {
+            // Los ids se reservan por bloques, así que las inserciones y los movimientos de apertura
+            // se envían en lotes JDBC al confirmar.
+            List<Cuenta> guardadas = transacciones.execute(estado -> {
+                List<Cuenta> cuentas = cuentaRepository.saveAll(nuevas);
+                cuentas.forEach(cuenta -> registroMovimientos.registrar(
+                        cuenta, TipoMovimiento.APERTURA, cuenta.getSaldoCentavos(), null));
+                return cuentas;
+            });
+            for (int j = 0; j < guardadas.size(); j++) {
+                Cuenta cuenta = guardadas.get(j);
+                int indice = indicesNuevas.get(j);
+                resultados[indice] = ResultadoCreacionCuentaDTO.builder()
+                        .indice(indice)
+                        .id(cuenta.getId())
+                        .numeroCuenta(cuenta.getNumeroCuenta())
+                        .clienteId(cuenta.getClienteId())
+                        .exitosa(true)
+                        .mensaje("Cuenta creada")
+                        .build();
+            }
+            eventos.publishEvent(new CuentasModificadasEvento(guardadas.stream()
+                    .map(Cuenta::getClienteId)
+                    .collect(Collectors.toSet())));
+        }
+        return Arrays.asList(resultados);
+    }
+
+    @Transactional
     @Override
     public CuentaDTO actualizarCuenta(Long id, CuentaDTO cuentaDTO) {
         // Buscar la cuenta existente por ID.
@@ -58,28 +230,29 @@ public class CuentaGestionServiceImpl implements CuentaGestionService {
                 .orElseThrow(() -> new CuentaNoEncontradaException("Cuenta no encontrada con el ID: " + id));
 
         // Actualizar los valores de la cuenta.
-        cuentaExistente.setSaldo(cuentaDTO.getSaldo());
+        long saldoAnterior = cuentaExistente.getSaldoCentavos();
+        cuentaExistente.setSaldoCentavos(Dinero.aCentavos(cuentaDTO.getSaldo()));
         cuentaExistente.setTipoCuenta(cuentaDTO.getTipoCuenta());
         cuentaExistente.setEstado(cuentaDTO.getEstado());
 
-        // Guardar los cambios en el repositorio.
+        // Guardar los cambios en el repositorio; un cambio directo de saldo queda como ajuste.
         Cuenta cuentaGuardada = cuentaRepository.save(cuentaExistente);
+        if (cuentaGuardada.getSaldoCentavos() != saldoAnterior) {
+            registroMovimientos.registrar(cuentaGuardada, TipoMovimiento.AJUSTE,
+                    cuentaGuardada.getSaldoCentavos() - saldoAnterior, null);
+        }
+        eventos.publishEvent(CuentasModificadasEvento.de(cuentaGuardada.getClienteId()));
         return cuentaMapper.convertEntidadADto(cuentaGuardada);
     }
 
     @Override
     public void eliminarCuenta(Long id) {
-        // Verificar si la cuenta existe por ID.
-        if (!cuentaRepository.existsById(id)) {
-            throw new CuentaNoEncontradaException("Cuenta no encontrada con el ID: " + id);
-        }
+        // Buscar la cuenta por ID (se necesita su cliente para invalidar la caché).
+        Cuenta cuenta = cuentaRepository.findById(id)
+                .orElseThrow(() -> new CuentaNoEncontradaException("Cuenta no encontrada con el ID: " + id));
 
         // Eliminar la cuenta del repositorio.
-        cuentaRepository.deleteById(id);
-    }
-
-    // Generador de número de cuenta.
-    private String generarNumeroCuenta() {
-        return String.valueOf((long) (Math.random() * 10000000000L));
+        cuentaRepository.delete(cuenta);
+        eventos.publishEvent(CuentasModificadasEvento.de(cuenta.getClienteId()));
     }
 }
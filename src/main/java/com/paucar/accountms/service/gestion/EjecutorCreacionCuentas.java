@@ -0,0 +1,107 @@
+package com.paucar.accountms.service.gestion;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Hilos acotados para los pasos de base de datos de la creación de cuentas, que así no ocupan el hilo
+ * de la petición HTTP mientras esperan. Cuando la cola está llena el paso se rechaza con
+ * RejectedExecutionException (503), en lugar de acumular trabajo que ya no llegaría a tiempo.
+ * <p>
+ * Cada paso usa como mucho una conexión a la vez. Con hilos de plataforma, conviene no superar el tamaño del
+ * pool de Hikari. En modo virtual (spring.threads.virtual.enabled, requiere Java 21) cada paso tiene su propio
+ * hilo virtual, y un semáforo del tamaño del pool de Hikari limita cuántos se ejecutan a la vez. El resto
+ * espera su turno sin ocupar un hilo de plataforma.
+ */
+@Component
+public class EjecutorCreacionCuentas {
+
+    private final ThreadPoolExecutor hilos;
+    private final SimpleAsyncTaskExecutor hilosVirtuales;
+    private final Semaphore conexiones;
+    private final AtomicInteger pendientes = new AtomicInteger();
+    private final int maximoPendientes;
+
+    public EjecutorCreacionCuentas(@Value("${cuentas.creacion.hilos:8}") int numeroHilos,
+                                   @Value("${cuentas.creacion.capacidad-cola:256}") int capacidadCola,
+                                   @Value("${spring.threads.virtual.enabled:false}") boolean virtuales,
+                                   @Value("${spring.datasource.hikari.maximum-pool-size:10}") int tamanoPool) {
+        if (virtuales) {
+            this.hilos = null;
+            this.hilosVirtuales = new SimpleAsyncTaskExecutor("cuenta-creacion-");
+            this.hilosVirtuales.setVirtualThreads(true);
+            this.conexiones = new Semaphore(tamanoPool);
+            this.maximoPendientes = tamanoPool + capacidadCola;
+            return;
+        }
+        AtomicInteger contador = new AtomicInteger();
+        this.hilos = new ThreadPoolExecutor(numeroHilos, numeroHilos, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(capacidadCola),
+                tarea -> new Thread(tarea, "cuenta-creacion-" + contador.incrementAndGet()));
+        this.hilosVirtuales = null;
+        this.conexiones = null;
+        this.maximoPendientes = 0;
+    }
+
+    // Un paso cancelado antes de empezar ya no se ejecuta.
+    public <T> CompletableFuture<T> ejecutar(Supplier<T> paso) {
+        if (hilosVirtuales == null) {
+            return CompletableFuture.supplyAsync(paso, hilos);
+        }
+
+        // Mismo límite que la cola de los hilos de plataforma: los que se ejecutan más los que esperan permiso
+        if (pendientes.incrementAndGet() > maximoPendientes) {
+            pendientes.decrementAndGet();
+            throw new RejectedExecutionException("Demasiados pasos de creación de cuentas pendientes.");
+        }
+        CompletableFuture<T> resultado = new CompletableFuture<>();
+        try {
+            hilosVirtuales.execute(() -> ejecutarConPermiso(paso, resultado));
+        } catch (RuntimeException e) {
+            pendientes.decrementAndGet();
+            throw e;
+        }
+        return resultado;
+    }
+
+    @PreDestroy
+    public void detener() {
+        if (hilos != null) {
+            hilos.shutdown();
+        } else {
+            hilosVirtuales.close();
+        }
+    }
+
+    private <T> void ejecutarConPermiso(Supplier<T> paso, CompletableFuture<T> resultado) {
+        try {
+            conexiones.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            pendientes.decrementAndGet();
+            resultado.completeExceptionally(e);
+            return;
+        }
+        try {
+            if (!resultado.isDone()) {
+                resultado.complete(paso.get());
+            }
+        } catch (Throwable e) {
+            resultado.completeExceptionally(e);
+        } finally {
+            conexiones.release();
+            pendientes.decrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.paucar.accountms.service.gestion;
+
+import com.paucar.accountms.util.Luhn;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Números de cuenta de 11 dígitos: 10 de secuencia más un dígito de control de Luhn. Cada instancia reserva en la
+ * tabla secuencias un bloque de números consecutivos y los reparte desde memoria, así que crear una cuenta no
+ * necesita consultar la base de datos ni reintentar por colisiones. Las instancias nunca reciben el mismo bloque.
+ * Los números sin usar de un bloque se pierden al reiniciar; la secuencia tiene huecos pero no repeticiones.
+ * Los números con la forma de los generados quedan reservados: un cliente no puede indicarlos (ver esReservado).
+ */
+@Component
+public class GeneradorNumerosCuenta {
+
+    static final String SECUENCIA = "numero_cuenta";
+    // Los números generados antes (aleatorios) tienen como mucho 10 dígitos: con el de control no pueden coincidir.
+    static final long MAXIMO = 9_999_999_999L;
+    // Primer cuerpo de la secuencia (V5__crear_secuencias.sql)
+    static final long MINIMO = 1_000_000_000L;
+
+    // El UPDATE bloquea la fila hasta el commit: otra instancia espera y lee el valor ya avanzado.
+    private static final String AVANZAR = "UPDATE secuencias SET valor = valor + ? WHERE nombre = ?";
+    private static final String LEER = "SELECT valor FROM secuencias WHERE nombre = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transaccionNueva;
+    private final int tamanoBloque;
+
+    // ReentrantLock en lugar de synchronized: la reserva hace E/S y no debe fijar un hilo virtual a su portador.
+    private final ReentrantLock cerrojo = new ReentrantLock();
+    // Bloque en uso: [siguiente, limite)
+    private long siguiente;
+    private long limite;
+
+    public GeneradorNumerosCuenta(JdbcTemplate jdbcTemplate,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${cuentas.numeros.tamano-bloque:1000}") int tamanoBloque) {
+        if (tamanoBloque < 1) {
+            throw new IllegalArgumentException("El tamaño del bloque debe ser mayor que cero.");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        // Transacción propia: la fila de la secuencia no queda bloqueada durante la transacción que crea la cuenta.
+        this.transaccionNueva = new TransactionTemplate(transactionManager);
+        this.transaccionNueva.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.tamanoBloque = tamanoBloque;
+    }
+
+    public String siguienteNumero() {
+        long cuerpo;
+        cerrojo.lock();
+        try {
+            if (siguiente == limite) {
+                reservarBloque();
+            }
+            cuerpo = siguiente++;
+        } finally {
+            cerrojo.unlock();
+        }
+        return String.valueOf(cuerpo) + Luhn.digitoControl(cuerpo);
+    }
+
+    // 11 dígitos, cuerpo dentro de la secuencia y dígito de control válido: la secuencia puede generarlo (o ya
+    // lo generó), así que aceptarlo de un cliente provocaría una colisión con la restricción única.
+    public static boolean esReservado(String numero) {
+        return numero != null && numero.length() == 11 && Luhn.esValido(numero)
+                && Long.parseLong(numero.substring(0, 10)) >= MINIMO;
+    }
+
+    private void reservarBloque() {
+        Long fin = transaccionNueva.execute(estado -> {
+            if (jdbcTemplate.update(AVANZAR, tamanoBloque, SECUENCIA) != 1) {
+                throw new IllegalStateException("No existe la secuencia " + SECUENCIA + ".");
+            }
+            return jdbcTemplate.queryForObject(LEER, Long.class, SECUENCIA);
+        });
+        if (fin == null || fin - 1 > MAXIMO) {
+            throw new IllegalStateException("Se agotaron los números de cuenta.");
+        }
+        siguiente = fin - tamanoBloque;
+        limite = fin;
+    }
+}
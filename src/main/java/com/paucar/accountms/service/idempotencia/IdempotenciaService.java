@@ -0,0 +1,18 @@
+package com.paucar.accountms.service.idempotencia;
+
+import com.paucar.accountms.util.ApiResponse;
+import org.springframework.http.ResponseEntity;
+
+import java.util.function.Supplier;
+
+public interface IdempotenciaService {
+
+    String CABECERA = "Idempotency-Key";
+
+    // Ejecuta la operación una sola vez por clave; las repeticiones devuelven la respuesta original.
+    // Sin clave, la operación se ejecuta directamente.
+    <T> ResponseEntity<ApiResponse<T>> ejecutar(String clave, String huella, Class<T> tipoDatos,
+                                                Supplier<ResponseEntity<ApiResponse<T>>> operacion);
+    int eliminarExpiradas();
+
+}
@@ -0,0 +1,210 @@
+package com.paucar.accountms.service.idempotencia;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.paucar.accountms.exception.ClaveIdempotenciaReutilizadaException;
+import com.paucar.accountms.exception.SolicitudEnCursoException;
+import com.paucar.accountms.model.ClaveIdempotencia;
+import com.paucar.accountms.repository.ClaveIdempotenciaRepository;
+import com.paucar.accountms.util.ApiResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.function.Supplier;
+
+/**
+ * Deduplica depósitos, retiros y transferencias por la cabecera Idempotency-Key en dos niveles:
+ * las respuestas recientes se guardan en memoria (Caffeine) y todas las claves en la tabla
+ * claves_idempotencia, compartida entre instancias y con caducidad por TTL.
+ * <p>
+ * Una clave nueva se reserva con un único INSERT antes de ejecutar la operación, y se completa con la
+ * respuesta al terminar. Una clave expirada cuenta como nueva aunque la limpieza todavía no la haya
+ * eliminado, y la copia en memoria caduca a la vez que la fila. Las repeticiones se resuelven en memoria
+ * sin tocar la base de datos; solo las que llegan a otra instancia (o tras un desalojo) leen la fila por
+ * su clave primaria.
+ * <p>
+ * Si la operación falla la reserva se libera y el reintento vuelve a ejecutarla. La reserva en curso vence
+ * a los pocos minutos (cuentas.idempotencia.reserva) y solo al completarse la clave pasa a durar el TTL:
+ * si la instancia cae, o no consigue guardar la respuesta, el cliente puede reintentar tras ese plazo en
+ * lugar de recibir 409 durante todo el TTL. A cambio, un reintento posterior a esa caída vuelve a ejecutar
+ * la operación.
+ */
+@Slf4j
+@Service
+public class IdempotenciaServiceImpl implements IdempotenciaService {
+
+    static final String NOMBRE_CACHE = "idempotencia";
+    static final int LONGITUD_MAXIMA_CLAVE = 100;
+
+    private final ClaveIdempotenciaRepository claveIdempotenciaRepository;
+    private final ObjectMapper objectMapper;
+    private final Duration ttl;
+    private final Duration reserva;
+    private final Cache<String, Resultado> cache;
+
+    public IdempotenciaServiceImpl(ClaveIdempotenciaRepository claveIdempotenciaRepository,
+                                   ObjectMapper objectMapper,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${cuentas.idempotencia.ttl:24h}") Duration ttl,
+                                   @Value("${cuentas.idempotencia.reserva:5m}") Duration reserva,
+                                   @Value("${cuentas.idempotencia.tamano-maximo:100000}") long tamanoMaximo) {
+        this.claveIdempotenciaRepository = claveIdempotenciaRepository;
+        this.objectMapper = objectMapper;
+        this.ttl = ttl;
+        this.reserva = reserva;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(tamanoMaximo)
+                .expireAfter(new ExpiracionPorClave())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, NOMBRE_CACHE);
+    }
+
+    @Override
+    public <T> ResponseEntity<ApiResponse<T>> ejecutar(String clave, String huella, Class<T> tipoDatos,
+                                                       Supplier<ResponseEntity<ApiResponse<T>>> operacion) {
+        if (clave == null) {
+            return operacion.get();
+        }
+        validarClave(clave);
+
+        Resultado guardado = cache.getIfPresent(clave);
+        if (guardado != null) {
+            return repetir(guardado, huella);
+        }
+        Instant ahora = Instant.now();
+        if (!reservar(clave, huella, ahora, ahora.plus(reserva))) {
+            return repetir(cargarResultado(clave, huella, tipoDatos, ahora), huella);
+        }
+
+        ResponseEntity<ApiResponse<T>> respuesta;
+        try {
+            respuesta = operacion.get();
+        } catch (RuntimeException e) {
+            liberar(clave, e);
+            throw e;
+        }
+        completar(clave, new Resultado(huella, respuesta.getStatusCode().value(), respuesta.getBody(),
+                Instant.now().plus(ttl)));
+        return respuesta;
+    }
+
+    @Scheduled(initialDelayString = "${cuentas.idempotencia.limpieza:PT10M}",
+            fixedDelayString = "${cuentas.idempotencia.limpieza:PT10M}")
+    @Override
+    public int eliminarExpiradas() {
+        int eliminadas = claveIdempotenciaRepository.eliminarExpiradas(Instant.now());
+        if (eliminadas > 0) {
+            log.info("Claves de idempotencia expiradas eliminadas: {}", eliminadas);
+        }
+        return eliminadas;
+    }
+
+    private void validarClave(String clave) {
+        if (clave.isBlank() || clave.length() > LONGITUD_MAXIMA_CLAVE) {
+            throw new IllegalArgumentException("La cabecera " + CABECERA + " debe tener entre 1 y "
+                    + LONGITUD_MAXIMA_CLAVE + " caracteres.");
+        }
+    }
+
+    private boolean reservar(String clave, String huella, Instant ahora, Instant expira) {
+        try {
+            claveIdempotenciaRepository.reservar(clave, huella, expira);
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            return claveIdempotenciaRepository.reemplazarExpirada(clave, huella, ahora, expira) > 0;
+        }
+    }
+
+    // Un fallo al liberar no debe ocultar el error de la operación; la reserva vencerá sola.
+    private void liberar(String clave, RuntimeException error) {
+        try {
+            claveIdempotenciaRepository.liberar(clave);
+        } catch (RuntimeException e) {
+            error.addSuppressed(e);
+        }
+    }
+
+    // La operación ya se aplicó: un fallo al guardar la respuesta no debe convertirla en un error.
+    private void completar(String clave, Resultado resultado) {
+        try {
+            String cuerpo = objectMapper.writeValueAsString(resultado.cuerpo());
+            claveIdempotenciaRepository.completar(clave, resultado.estadoHttp(), cuerpo, resultado.expira());
+            cache.put(clave, resultado);
+        } catch (JsonProcessingException | RuntimeException e) {
+            log.error("No se pudo guardar la respuesta de la clave de idempotencia {}; queda en curso hasta que venza la reserva",
+                    clave, e);
+        }
+    }
+
+    // Sin fila vigente, la clave expiró o se liberó justo después de fallar la reserva: se trata como en curso
+    // y el reintento la reservará.
+    private <T> Resultado cargarResultado(String clave, String huella, Class<T> tipoDatos, Instant ahora) {
+        ClaveIdempotencia registro = claveIdempotenciaRepository.findByClaveAndExpiraAfter(clave, ahora)
+                .orElseThrow(() -> new SolicitudEnCursoException(
+                        "Ya hay una solicitud en curso con esta clave de idempotencia. Intente nuevamente en unos instantes."));
+        if (!registro.getHuella().equals(huella)) {
+            throw claveReutilizada();
+        }
+        if (registro.getEstadoHttp() == null) {
+            throw new SolicitudEnCursoException(
+                    "Ya hay una solicitud en curso con esta clave de idempotencia. Intente nuevamente en unos instantes.");
+        }
+        JavaType tipo = objectMapper.getTypeFactory().constructParametricType(ApiResponse.class, tipoDatos);
+        try {
+            Resultado resultado = new Resultado(registro.getHuella(), registro.getEstadoHttp(),
+                    objectMapper.readValue(registro.getRespuesta(), tipo), registro.getExpira());
+            cache.put(clave, resultado);
+            return resultado;
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("La respuesta guardada para la clave de idempotencia no es válida.", e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> ResponseEntity<ApiResponse<T>> repetir(Resultado resultado, String huella) {
+        if (!resultado.huella().equals(huella)) {
+            throw claveReutilizada();
+        }
+        return ResponseEntity.status(resultado.estadoHttp()).body((ApiResponse<T>) resultado.cuerpo());
+    }
+
+    private ClaveIdempotenciaReutilizadaException claveReutilizada() {
+        return new ClaveIdempotenciaReutilizadaException(
+                "La clave de idempotencia ya se usó con una solicitud distinta.");
+    }
+
+    private record Resultado(String huella, int estadoHttp, ApiResponse<?> cuerpo, Instant expira) {
+    }
+
+    // Cada respuesta se guarda en memoria solo hasta que expira su clave en la tabla.
+    private static class ExpiracionPorClave implements Expiry<String, Resultado> {
+
+        @Override
+        public long expireAfterCreate(String clave, Resultado resultado, long ahora) {
+            return Math.max(0, Duration.between(Instant.now(), resultado.expira()).toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(String clave, Resultado resultado, long ahora, long duracionActual) {
+            return expireAfterCreate(clave, resultado, ahora);
+        }
+
+        @Override
+        public long expireAfterRead(String clave, Resultado resultado, long ahora, long duracionActual) {
+            return duracionActual;
+        }
+    }
+}
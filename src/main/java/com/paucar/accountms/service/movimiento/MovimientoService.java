@@ -0,0 +1,18 @@
+package com.paucar.accountms.service.movimiento;
+
+import com.paucar.accountms.dto.MovimientoDTO;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface MovimientoService {
+
+    int LIMITE_PAGINA_POR_DEFECTO = 50;
+    int LIMITE_PAGINA_MAXIMO = 500;
+
+    List<MovimientoDTO> obtenerMovimientos(String numeroCuenta, Long antesDeId, int limite);
+    // Saldo reconstruido a partir del registro de movimientos, en centavos.
+    long obtenerSaldoAl(String numeroCuenta, Instant fecha);
+    int generarCortes();
+
+}
@@ -0,0 +1,98 @@
+package com.paucar.accountms.service.movimiento;
+
+import com.paucar.accountms.dto.MovimientoDTO;
+import com.paucar.accountms.exception.CuentaNoEncontradaException;
+import com.paucar.accountms.mapper.MovimientoMapper;
+import com.paucar.accountms.model.Cuenta;
+import com.paucar.accountms.model.CorteSaldo;
+import com.paucar.accountms.model.Movimiento;
+import com.paucar.accountms.repository.CorteSaldoRepository;
+import com.paucar.accountms.repository.CuentaRepository;
+import com.paucar.accountms.repository.MovimientoRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+@Slf4j
+@Service
+public class MovimientoServiceImpl implements MovimientoService {
+
+    private final CuentaRepository cuentaRepository;
+    private final MovimientoRepository movimientoRepository;
+    private final CorteSaldoRepository corteSaldoRepository;
+    private final MovimientoMapper movimientoMapper;
+    private final Duration margenCorte;
+
+    public MovimientoServiceImpl(CuentaRepository cuentaRepository,
+                                 MovimientoRepository movimientoRepository,
+                                 CorteSaldoRepository corteSaldoRepository,
+                                 MovimientoMapper movimientoMapper,
+                                 @Value("${cuentas.movimientos.cortes.margen:1m}") Duration margenCorte) {
+        this.cuentaRepository = cuentaRepository;
+        this.movimientoRepository = movimientoRepository;
+        this.corteSaldoRepository = corteSaldoRepository;
+        this.movimientoMapper = movimientoMapper;
+        this.margenCorte = margenCorte;
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public List<MovimientoDTO> obtenerMovimientos(String numeroCuenta, Long antesDeId, int limite) {
+        if (limite < 1 || limite > LIMITE_PAGINA_MAXIMO) {
+            throw new IllegalArgumentException("El límite debe estar entre 1 y " + LIMITE_PAGINA_MAXIMO + ".");
+        }
+        Long cuentaId = buscarCuenta(numeroCuenta).getId();
+        List<Movimiento> movimientos = antesDeId == null
+                ? movimientoRepository.findByCuentaIdOrderByIdDesc(cuentaId, Limit.of(limite))
+                : movimientoRepository.findByCuentaIdAndIdLessThanOrderByIdDesc(cuentaId, antesDeId, Limit.of(limite));
+        return movimientos.stream()
+                .map(movimientoMapper::convertEntidadADto)
+                .toList();
+    }
+
+    // Parte del último corte anterior a la fecha y suma solo los movimientos posteriores a él.
+    @Transactional(readOnly = true)
+    @Override
+    public long obtenerSaldoAl(String numeroCuenta, Instant fecha) {
+        Long cuentaId = buscarCuenta(numeroCuenta).getId();
+        Optional<CorteSaldo> corte = corteSaldoRepository.findFirstByCuentaIdAndFechaLessThanEqualOrderByIdDesc(cuentaId, fecha);
+        long saldoBase = corte.map(CorteSaldo::getSaldoCentavos).orElse(0L);
+        long desdeId = corte.map(CorteSaldo::getUltimoMovimientoId).orElse(0L);
+        return saldoBase + movimientoRepository.sumarDesde(cuentaId, desdeId, fecha);
+    }
+
+    // Solo entran movimientos con cierta antigüedad: los ids se asignan al insertar, no al confirmar,
+    // y una transacción más lenta aún podría confirmar un id menor que el último ya visible.
+    // La tarea se programa en todas las instancias, pero solo la que obtiene el bloqueo genera los cortes.
+    @Scheduled(initialDelayString = "${cuentas.movimientos.cortes.intervalo:PT1H}",
+            fixedDelayString = "${cuentas.movimientos.cortes.intervalo:PT1H}")
+    @Transactional
+    @Override
+    public int generarCortes() {
+        if (corteSaldoRepository.bloquearGeneracionCortes().isEmpty()) {
+            log.info("Otra instancia está generando los cortes de saldo");
+            return 0;
+        }
+        Instant ahora = Instant.now();
+        Long hastaId = movimientoRepository.ultimoIdHasta(ahora.minus(margenCorte));
+        if (hastaId == null) {
+            return 0;
+        }
+        int cortes = corteSaldoRepository.generarCortes(hastaId, ahora);
+        log.info("Cortes de saldo generados: {} (hasta el movimiento {})", cortes, hastaId);
+        return cortes;
+    }
+
+    private Cuenta buscarCuenta(String numeroCuenta) {
+        return cuentaRepository.findByNumeroCuenta(numeroCuenta)
+                .orElseThrow(() -> new CuentaNoEncontradaException("Cuenta no encontrada: " + numeroCuenta));
+    }
+}
@@ -0,0 +1,102 @@
+package com.paucar.accountms.service.movimiento;
+
+import com.paucar.accountms.model.Cuenta;
+import com.paucar.accountms.model.Movimiento;
+import com.paucar.accountms.util.TipoMovimiento;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+import java.util.TimeZone;
+
+/**
+ * Acumula los movimientos de la transacción en curso y los inserta todos juntos, en un único lote JDBC,
+ * justo antes de confirmarla. La escritura queda fuera del camino de cada operación pero dentro de la
+ * misma transacción que el cambio de saldo: si esta se revierte, sus movimientos no se escriben.
+ * <p>
+ * Se usa JDBC directamente porque Hibernate no agrupa en lotes los INSERT de entidades con id IDENTITY.
+ */
+@Component
+@RequiredArgsConstructor
+public class RegistroMovimientos {
+
+    static final String INSERTAR = "INSERT INTO movimientos (cuenta_id, tipo, monto_centavos, saldo_centavos, referencia, fecha) " +
+            "VALUES (?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // monto con signo en centavos; la cuenta ya debe reflejar el saldo resultante.
+    public void registrar(Cuenta cuenta, TipoMovimiento tipo, long monto, String referencia) {
+        registrar(cuenta, cuenta.getSaldoCentavos(), tipo, monto, referencia);
+    }
+
+    // Para varios movimientos aplicados a la cuenta con un solo UPDATE: saldoResultante es el saldo tras este.
+    public void registrar(Cuenta cuenta, long saldoResultante, TipoMovimiento tipo, long monto, String referencia) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Los movimientos se registran dentro de la transacción que modifica el saldo.");
+        }
+        lotePendiente().movimientos.add(Movimiento.builder()
+                .cuentaId(cuenta.getId())
+                .tipo(tipo)
+                .montoCentavos(monto)
+                .saldoCentavos(saldoResultante)
+                .referencia(referencia)
+                .fecha(Instant.now())
+                .build());
+    }
+
+    // Un lote por transacción: se registra como sincronización, así una transacción anidada
+    // (REQUIRES_NEW) tiene el suyo propio mientras la exterior está suspendida.
+    private LotePendiente lotePendiente() {
+        for (TransactionSynchronization sincronizacion : TransactionSynchronizationManager.getSynchronizations()) {
+            if (sincronizacion instanceof LotePendiente lote && lote.registro() == this) {
+                return lote;
+            }
+        }
+        LotePendiente lote = new LotePendiente(this, new ArrayList<>());
+        TransactionSynchronizationManager.registerSynchronization(lote);
+        return lote;
+    }
+
+    void insertar(List<Movimiento> movimientos) {
+        // Misma representación que usa Hibernate para los Instant: marca de tiempo en UTC
+        Calendar utc = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+        jdbcTemplate.batchUpdate(INSERTAR, movimientos, movimientos.size(),
+                (sentencia, movimiento) -> asignarParametros(sentencia, movimiento, utc));
+    }
+
+    private static void asignarParametros(PreparedStatement sentencia, Movimiento movimiento, Calendar utc)
+            throws SQLException {
+        sentencia.setLong(1, movimiento.getCuentaId());
+        sentencia.setString(2, movimiento.getTipo().name());
+        sentencia.setLong(3, movimiento.getMontoCentavos());
+        sentencia.setLong(4, movimiento.getSaldoCentavos());
+        if (movimiento.getReferencia() == null) {
+            sentencia.setNull(5, Types.VARCHAR);
+        } else {
+            sentencia.setString(5, movimiento.getReferencia());
+        }
+        sentencia.setTimestamp(6, Timestamp.from(movimiento.getFecha()), utc);
+    }
+
+    private record LotePendiente(RegistroMovimientos registro, List<Movimiento> movimientos)
+            implements TransactionSynchronization {
+
+        @Override
+        public void beforeCommit(boolean soloLectura) {
+            if (!movimientos.isEmpty()) {
+                registro.insertar(movimientos);
+            }
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.paucar.accountms.service.transaccion;
+
+import com.paucar.accountms.dto.CuentaDTO;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Acumula depósitos durante una ventana corta y los entrega juntos al aplicador, agrupados por número de cuenta
+ * (group commit). Cada franja tiene su propia cola y su propio hilo, y una cuenta cae siempre en la misma franja,
+ * así que dos lotes en curso nunca compiten por la misma fila.
+ * <p>
+ * El futuro de cada depósito se completa cuando el aplicador termina, es decir, después de confirmar la transacción
+ * del lote. Cuando la cola de una franja está llena se rechaza el depósito.
+ */
+public class AgrupadorDepositos implements AutoCloseable {
+
+    private static final long ESPERA_SIN_DEPOSITOS_MS = 100;
+    private static final String DETENIDO = "El agrupador de depósitos se detuvo.";
+
+    private final Franja[] franjas;
+    private final Duration ventana;
+    private final int tamanoMaximoLote;
+    private final Function<Map<String, List<Long>>, ResultadoDepositosAgrupados> aplicador;
+    private volatile boolean activo = true;
+
+    public AgrupadorDepositos(int numeroFranjas, int capacidadCola, Duration ventana, int tamanoMaximoLote,
+                              Function<Map<String, List<Long>>, ResultadoDepositosAgrupados> aplicador) {
+        this.ventana = ventana;
+        this.tamanoMaximoLote = tamanoMaximoLote;
+        this.aplicador = aplicador;
+        this.franjas = new Franja[numeroFranjas];
+        for (int i = 0; i < numeroFranjas; i++) {
+            BlockingQueue<DepositoPendiente> cola = new ArrayBlockingQueue<>(capacidadCola);
+            Thread hilo = new Thread(() -> procesar(cola), "cuenta-agrupado-" + i);
+            hilo.setDaemon(true);
+            hilo.start();
+            franjas[i] = new Franja(cola, hilo);
+        }
+    }
+
+    public CompletableFuture<CuentaDTO> encolar(String numeroCuenta, long monto) {
+        DepositoPendiente deposito = new DepositoPendiente(numeroCuenta, monto, new CompletableFuture<>());
+        if (!activo || !franjas[Math.floorMod(numeroCuenta.hashCode(), franjas.length)].cola().offer(deposito)) {
+            throw new RejectedExecutionException("La cola de depósitos está llena.");
+        }
+        return deposito.resultado();
+    }
+
+    // Deja de aceptar depósitos y espera a que se apliquen los que ya estaban en cola.
+    @Override
+    public void close() {
+        activo = false;
+        for (Franja franja : franjas) {
+            try {
+                franja.hilo().join(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void procesar(BlockingQueue<DepositoPendiente> cola) {
+        List<DepositoPendiente> lote = new ArrayList<>(tamanoMaximoLote);
+        try {
+            while (activo || !cola.isEmpty()) {
+                DepositoPendiente primero = cola.poll(ESPERA_SIN_DEPOSITOS_MS, TimeUnit.MILLISECONDS);
+                if (primero == null) {
+                    continue;
+                }
+                lote.add(primero);
+                try {
+                    acumular(cola, lote);
+                    aplicar(lote);
+                } catch (InterruptedException e) {
+                    fallar(lote, new RejectedExecutionException(DETENIDO));
+                    throw e;
+                } catch (Throwable e) {
+                    // Cualquier fallo, incluso un Error, se entrega a los depósitos del lote y el hilo sigue
+                    // atendiendo la cola: si muriera, los depósitos de esta franja quedarían esperando para siempre.
+                    fallar(lote, e);
+                } finally {
+                    lote.clear();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Si el hilo termina antes de vaciar la cola, no deja depósitos sin respuesta.
+        List<DepositoPendiente> pendientes = new ArrayList<>();
+        cola.drainTo(pendientes);
+        fallar(pendientes, new RejectedExecutionException(DETENIDO));
+    }
+
+    // Completa el lote con lo que llegue hasta agotar la ventana (contada desde el primer depósito) o llenarlo.
+    private void acumular(BlockingQueue<DepositoPendiente> cola, List<DepositoPendiente> lote) throws InterruptedException {
+        long limite = System.nanoTime() + ventana.toNanos();
+        while (lote.size() < tamanoMaximoLote) {
+            long restante = limite - System.nanoTime();
+            DepositoPendiente siguiente = restante > 0 ? cola.poll(restante, TimeUnit.NANOSECONDS) : null;
+            if (siguiente == null) {
+                cola.drainTo(lote, tamanoMaximoLote - lote.size());
+                return;
+            }
+            lote.add(siguiente);
+        }
+    }
+
+    private void aplicar(List<DepositoPendiente> lote) {
+        Map<String, List<DepositoPendiente>> porCuenta = new LinkedHashMap<>();
+        for (DepositoPendiente deposito : lote) {
+            porCuenta.computeIfAbsent(deposito.numeroCuenta(), numero -> new ArrayList<>()).add(deposito);
+        }
+        Map<String, List<Long>> montosPorCuenta = new LinkedHashMap<>();
+        porCuenta.forEach((numeroCuenta, depositos) ->
+                montosPorCuenta.put(numeroCuenta, depositos.stream().map(DepositoPendiente::monto).toList()));
+
+        ResultadoDepositosAgrupados resultado = aplicador.apply(montosPorCuenta);
+        porCuenta.forEach((numeroCuenta, depositos) -> {
+            List<CuentaDTO> cuentas = resultado.aplicados().get(numeroCuenta);
+            RuntimeException rechazo = resultado.rechazados().get(numeroCuenta);
+            for (int i = 0; i < depositos.size(); i++) {
+                if (cuentas != null) {
+                    depositos.get(i).resultado().complete(cuentas.get(i));
+                } else {
+                    depositos.get(i).resultado().completeExceptionally(rechazo != null ? rechazo
+                            : new IllegalStateException("No se pudo aplicar el movimiento en la cuenta: " + numeroCuenta));
+                }
+            }
+        });
+    }
+
+    // Solo afecta a los depósitos que aún no tienen resultado.
+    private static void fallar(List<DepositoPendiente> lote, Throwable causa) {
+        lote.forEach(deposito -> deposito.resultado().completeExceptionally(causa));
+    }
+
+    private record DepositoPendiente(String numeroCuenta, long monto, CompletableFuture<CuentaDTO> resultado) {
+    }
+
+    private record Franja(BlockingQueue<DepositoPendiente> cola, Thread hilo) {
+    }
+}
@@ -1,10 +1,17 @@
 package com.paucar.accountms.service.transaccion;
 
 import com.paucar.accountms.dto.CuentaDTO;
+import com.paucar.accountms.dto.ResultadoTransferenciaDTO;
+import com.paucar.accountms.dto.TransferenciaDTO;
+import com.paucar.accountms.util.ModoLote;
 
+import java.util.List;
+
+// Los montos se expresan en centavos (ver Dinero).
 public interface CuentaTransaccionService {
 
-    CuentaDTO depositar(String numeroCuenta, Double monto);
-    CuentaDTO retirar(String numeroCuenta, Double monto);
-    Boolean transferir(String numeroCuentaOrigen, String numeroCuentaDestino, Double monto);
+    CuentaDTO depositar(String numeroCuenta, long monto);
+    CuentaDTO retirar(String numeroCuenta, long monto);
+    Boolean transferir(String numeroCuentaOrigen, String numeroCuentaDestino, long monto);
+    List<ResultadoTransferenciaDTO> transferirLote(List<TransferenciaDTO> transferencias, ModoLote modo);
 }
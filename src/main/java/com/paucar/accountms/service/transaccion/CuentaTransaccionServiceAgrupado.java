@@ -0,0 +1,88 @@
+package com.paucar.accountms.service.transaccion;
+
+import com.paucar.accountms.dto.CuentaDTO;
+import com.paucar.accountms.dto.ResultadoTransferenciaDTO;
+import com.paucar.accountms.dto.TransferenciaDTO;
+import com.paucar.accountms.service.validacion.CuentaValidacionService;
+import com.paucar.accountms.util.ModoLote;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Modo de ejecución opcional (cuentas.transacciones.modo=agrupado) para cuentas que reciben muchos depósitos pequeños.
+ * Los depósitos se acumulan unos milisegundos y se aplican por lotes con {@link AgrupadorDepositos}: una transacción
+ * por lote y un UPDATE por cuenta con la suma de sus montos, en lugar de una transacción por depósito.
+ * Cada llamador espera a que se confirme su lote; a cambio de esa latencia acotada (la ventana) se confirman
+ * muchos más depósitos por segundo. Retiros y transferencias se aplican directamente.
+ */
+@Service
+@Primary
+@ConditionalOnProperty(name = "cuentas.transacciones.modo", havingValue = "agrupado")
+public class CuentaTransaccionServiceAgrupado implements CuentaTransaccionService {
+
+    private final CuentaTransaccionServiceImpl delegado;
+    private final CuentaValidacionService cuentaValidacionService;
+    private final AgrupadorDepositos agrupador;
+
+    public CuentaTransaccionServiceAgrupado(CuentaTransaccionServiceImpl delegado,
+                                            CuentaValidacionService cuentaValidacionService,
+                                            @Value("${cuentas.transacciones.agrupado.ventana:2ms}") Duration ventana,
+                                            @Value("${cuentas.transacciones.agrupado.tamano-maximo-lote:500}") int tamanoMaximoLote,
+                                            @Value("${cuentas.transacciones.agrupado.franjas:0}") int franjas,
+                                            @Value("${cuentas.transacciones.agrupado.capacidad-cola:10000}") int capacidadCola) {
+        this.delegado = delegado;
+        this.cuentaValidacionService = cuentaValidacionService;
+        this.agrupador = new AgrupadorDepositos(franjas > 0 ? franjas : Runtime.getRuntime().availableProcessors(),
+                capacidadCola, ventana, tamanoMaximoLote, delegado::depositarAgrupados);
+    }
+
+    // El monto se valida antes de encolar, para que un depósito inválido no espere a la ventana.
+    @Override
+    public CuentaDTO depositar(String numeroCuenta, long monto) {
+        cuentaValidacionService.validarMonto(monto);
+        return esperar(agrupador.encolar(numeroCuenta, monto));
+    }
+
+    @Override
+    public CuentaDTO retirar(String numeroCuenta, long monto) {
+        return delegado.retirar(numeroCuenta, monto);
+    }
+
+    @Override
+    public Boolean transferir(String numeroCuentaOrigen, String numeroCuentaDestino, long monto) {
+        return delegado.transferir(numeroCuentaOrigen, numeroCuentaDestino, monto);
+    }
+
+    @Override
+    public List<ResultadoTransferenciaDTO> transferirLote(List<TransferenciaDTO> transferencias, ModoLote modo) {
+        return delegado.transferirLote(transferencias, modo);
+    }
+
+    @PreDestroy
+    public void detener() {
+        agrupador.close();
+    }
+
+    // Propaga la excepción original del lote para que la manejen los @ExceptionHandler habituales.
+    private <T> T esperar(CompletableFuture<T> futuro) {
+        try {
+            return futuro.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            if (ex.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw ex;
+        }
+    }
+}
@@ -1,15 +1,32 @@
 package com.paucar.accountms.service.transaccion;
 
+import com.paucar.accountms.config.ReintentoConcurrencia;
 import com.paucar.accountms.dto.CuentaDTO;
+import com.paucar.accountms.dto.ResultadoTransferenciaDTO;
+import com.paucar.accountms.dto.TransferenciaDTO;
 import com.paucar.accountms.exception.CuentaNoEncontradaException;
 import com.paucar.accountms.mapper.CuentaMapper;
 import com.paucar.accountms.model.Cuenta;
 import com.paucar.accountms.repository.CuentaRepository;
+import com.paucar.accountms.service.consulta.CuentasModificadasEvento;
+import com.paucar.accountms.service.movimiento.RegistroMovimientos;
 import com.paucar.accountms.service.validacion.CuentaValidacionService;
+import com.paucar.accountms.util.Dinero;
+import com.paucar.accountms.util.ModoLote;
+import com.paucar.accountms.util.TipoMovimiento;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
 @Service
 @RequiredArgsConstructor
 public class CuentaTransaccionServiceImpl implements CuentaTransaccionService {
@@ -17,46 +34,119 @@ public class CuentaTransaccionServiceImpl implements CuentaTransaccionService {
     private final CuentaRepository cuentaRepository;
     private final CuentaMapper cuentaMapper;
     private final CuentaValidacionService cuentaValidacionService;
+    private final MotorTransferencia motorTransferencia;
+    private final RegistroMovimientos registroMovimientos;
+    private final ApplicationEventPublisher eventos;
 
+    @ReintentoConcurrencia
+    @Transactional
     @Override
-    public CuentaDTO depositar(String numeroCuenta, Double monto) {
+    public CuentaDTO depositar(String numeroCuenta, long monto) {
         cuentaValidacionService.validarMonto(monto);
 
-        Cuenta cuenta = cuentaRepository.findByNumeroCuenta(numeroCuenta)
-                .orElseThrow(() -> new CuentaNoEncontradaException("Cuenta no encontrada: " + numeroCuenta));
+        // Actualización atómica en la base de datos: no se pierden depósitos concurrentes.
+        if (cuentaRepository.incrementarSaldo(numeroCuenta, monto) == 0) {
+            rechazarMovimiento(numeroCuenta, monto, false);
+        }
 
-        cuentaValidacionService.validarEstadoActivo(cuenta);
-
-        cuenta.setSaldo(cuenta.getSaldo() + monto);
-        Cuenta cuentaGuardada = cuentaRepository.save(cuenta);
-        return cuentaMapper.convertEntidadADto(cuentaGuardada);
+        return movimientoAplicado(numeroCuenta, TipoMovimiento.DEPOSITO, monto);
     }
 
+    @ReintentoConcurrencia
+    @Transactional
     @Override
-    public CuentaDTO retirar(String numeroCuenta, Double monto) {
+    public CuentaDTO retirar(String numeroCuenta, long monto) {
         cuentaValidacionService.validarMonto(monto);
 
-        Cuenta cuenta = cuentaRepository.findByNumeroCuenta(numeroCuenta)
-                .orElseThrow(() -> new CuentaNoEncontradaException("Cuenta no encontrada: " + numeroCuenta));
+        // El estado y la regla de saldo se evalúan dentro del mismo UPDATE.
+        if (cuentaRepository.decrementarSaldo(numeroCuenta, monto,
+                monto + CuentaValidacionService.LIMITE_SOBREGIRO_CORRIENTE) == 0) {
+            rechazarMovimiento(numeroCuenta, monto, true);
+        }
 
-        cuentaValidacionService.validarEstadoActivo(cuenta);
-        cuentaValidacionService.validarSaldo(cuenta, monto);
-
-        cuenta.setSaldo(cuenta.getSaldo() - monto);
-        Cuenta cuentaGuardada = cuentaRepository.save(cuenta);
-        return cuentaMapper.convertEntidadADto(cuentaGuardada);
+        return movimientoAplicado(numeroCuenta, TipoMovimiento.RETIRO, -monto);
     }
 
+    // Modo agrupado: aplica en una sola transacción los depósitos acumulados, con un UPDATE por cuenta por la suma
+    // de sus montos y un movimiento por depósito. Las cuentas que no admiten el abono se devuelven como rechazadas
+    // sin revertir el resto del lote. Los montos ya vienen validados.
+    @ReintentoConcurrencia
     @Transactional
-    @Override
-    public Boolean transferir(String numeroCuentaOrigen, String numeroCuentaDestino, Double monto) {
+    public ResultadoDepositosAgrupados depositarAgrupados(Map<String, List<Long>> montosPorCuenta) {
+        Map<String, List<CuentaDTO>> aplicados = new HashMap<>();
+        Map<String, RuntimeException> rechazados = new HashMap<>();
+        Set<Long> clienteIds = new HashSet<>();
 
-        Cuenta cuentaOrigen = cuentaValidacionService.validarCuenta(numeroCuentaOrigen, monto, "origen");
-        Cuenta cuentaDestino = cuentaValidacionService.validarCuenta(numeroCuentaDestino, 0.0, "destino");
+        // Filas en un orden fijo para que dos transacciones no se bloqueen en sentidos opuestos
+        for (String numeroCuenta : new TreeSet<>(montosPorCuenta.keySet())) {
+            List<Long> montos = montosPorCuenta.get(numeroCuenta);
+            long total = montos.stream().mapToLong(Long::longValue).sum();
+            if (cuentaRepository.incrementarSaldo(numeroCuenta, total) == 0) {
+                try {
+                    rechazarMovimiento(numeroCuenta, total, false);
+                } catch (RuntimeException e) {
+                    rechazados.put(numeroCuenta, e);
+                }
+                continue;
+            }
 
-        this.retirar(cuentaOrigen.getNumeroCuenta(), monto);
-        this.depositar(cuentaDestino.getNumeroCuenta(), monto);
+            // Cada depósito ve el saldo que deja en el registro, como si se hubiera aplicado por separado
+            Cuenta cuenta = buscarCuenta(numeroCuenta);
+            long saldo = cuenta.getSaldoCentavos() - total;
+            List<CuentaDTO> resultados = new ArrayList<>(montos.size());
+            for (long monto : montos) {
+                saldo += monto;
+                registroMovimientos.registrar(cuenta, saldo, TipoMovimiento.DEPOSITO, monto, null);
+                CuentaDTO resultado = cuentaMapper.convertEntidadADto(cuenta);
+                resultado.setSaldo(Dinero.aDecimal(saldo));
+                resultados.add(resultado);
+            }
+            aplicados.put(numeroCuenta, resultados);
+            clienteIds.add(cuenta.getClienteId());
+        }
 
+        if (!clienteIds.isEmpty()) {
+            eventos.publishEvent(new CuentasModificadasEvento(Set.copyOf(clienteIds)));
+        }
+        return new ResultadoDepositosAgrupados(aplicados, rechazados);
+    }
+
+    // La transacción la abre el motor; el reintento queda por fuera para que cada intento relea las cuentas.
+    @ReintentoConcurrencia
+    @Override
+    public Boolean transferir(String numeroCuentaOrigen, String numeroCuentaDestino, long monto) {
+        motorTransferencia.transferir(numeroCuentaOrigen, numeroCuentaDestino, monto);
         return true;
     }
+
+    @ReintentoConcurrencia
+    @Override
+    public List<ResultadoTransferenciaDTO> transferirLote(List<TransferenciaDTO> transferencias, ModoLote modo) {
+        return motorTransferencia.transferirLote(transferencias, modo);
+    }
+
+    // Relee la cuenta con el saldo ya actualizado (sin la caché de segundo nivel) y anota el movimiento en el registro.
+    private CuentaDTO movimientoAplicado(String numeroCuenta, TipoMovimiento tipo, long monto) {
+        Cuenta cuenta = buscarCuenta(numeroCuenta);
+        registroMovimientos.registrar(cuenta, tipo, monto, null);
+        eventos.publishEvent(CuentasModificadasEvento.de(cuenta.getClienteId()));
+        return cuentaMapper.convertEntidadADto(cuenta);
+    }
+
+    private Cuenta buscarCuenta(String numeroCuenta) {
+        return cuentaRepository.buscarEnEscritura(numeroCuenta)
+                .orElseThrow(() -> new CuentaNoEncontradaException("Cuenta no encontrada: " + numeroCuenta));
+    }
+
+    // Solo se ejecuta cuando el UPDATE condicional no afectó ninguna fila: determina el motivo y lanza la excepción.
+    private void rechazarMovimiento(String numeroCuenta, long monto, boolean esRetiro) {
+        Cuenta cuenta = buscarCuenta(numeroCuenta);
+
+        cuentaValidacionService.validarEstadoActivo(cuenta);
+        if (esRetiro) {
+            cuentaValidacionService.validarSaldo(cuenta, monto);
+        }
+
+        throw new IllegalStateException("No se pudo aplicar el movimiento en la cuenta: " + numeroCuenta);
+    }
 }
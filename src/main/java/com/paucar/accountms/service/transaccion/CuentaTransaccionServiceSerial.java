@@ -0,0 +1,93 @@
+package com.paucar.accountms.service.transaccion;
+
+import com.paucar.accountms.dto.CuentaDTO;
+import com.paucar.accountms.dto.ResultadoTransferenciaDTO;
+import com.paucar.accountms.dto.TransferenciaDTO;
+import com.paucar.accountms.util.ModoLote;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Stream;
+
+/**
+ * Modo de ejecución opcional (cuentas.transacciones.modo=serial) para cuentas con mucho tráfico.
+ * Cada operación se encola en la franja de su número de cuenta y se aplica con {@link CuentaTransaccionServiceImpl};
+ * el llamador recibe el resultado cuando el comando termina. Así las operaciones sobre una misma cuenta
+ * no se disputan la fila en la base de datos, sino que se ordenan en memoria. Las transferencias y los lotes
+ * pasan por las franjas de todas sus cuentas.
+ */
+@Service
+@Primary
+@ConditionalOnProperty(name = "cuentas.transacciones.modo", havingValue = "serial")
+public class CuentaTransaccionServiceSerial implements CuentaTransaccionService {
+
+    private final CuentaTransaccionServiceImpl delegado;
+    private final EjecutorSerialPorCuenta ejecutor;
+
+    public CuentaTransaccionServiceSerial(CuentaTransaccionServiceImpl delegado,
+                                          @Value("${cuentas.transacciones.serial.franjas:0}") int franjas,
+                                          @Value("${cuentas.transacciones.serial.capacidad-cola:1000}") int capacidadCola) {
+        this.delegado = delegado;
+        this.ejecutor = new EjecutorSerialPorCuenta(
+                franjas > 0 ? franjas : Runtime.getRuntime().availableProcessors(), capacidadCola);
+    }
+
+    @Override
+    public CuentaDTO depositar(String numeroCuenta, long monto) {
+        return esperar(ejecutor.ejecutar(numeroCuenta, () -> delegado.depositar(numeroCuenta, monto)));
+    }
+
+    @Override
+    public CuentaDTO retirar(String numeroCuenta, long monto) {
+        return esperar(ejecutor.ejecutar(numeroCuenta, () -> delegado.retirar(numeroCuenta, monto)));
+    }
+
+    // Pasa por las franjas de ambas cuentas: ninguna operación sobre el origen o el destino se cruza con ella.
+    @Override
+    public Boolean transferir(String numeroCuentaOrigen, String numeroCuentaDestino, long monto) {
+        return esperar(ejecutor.ejecutar(List.of(numeroCuentaOrigen, numeroCuentaDestino),
+                () -> delegado.transferir(numeroCuentaOrigen, numeroCuentaDestino, monto)));
+    }
+
+    // Un lote retiene las franjas de todas sus cuentas mientras el motor lo aplica.
+    @Override
+    public List<ResultadoTransferenciaDTO> transferirLote(List<TransferenciaDTO> transferencias, ModoLote modo) {
+        // Las transferencias sin cuenta las rechaza el motor dentro del lote
+        Set<String> numerosCuenta = new HashSet<>();
+        for (TransferenciaDTO transferencia : transferencias) {
+            Stream.of(transferencia.getCuentaOrigen(), transferencia.getCuentaDestino())
+                    .filter(Objects::nonNull)
+                    .forEach(numerosCuenta::add);
+        }
+        if (numerosCuenta.isEmpty()) {
+            return delegado.transferirLote(transferencias, modo);
+        }
+        return esperar(ejecutor.ejecutar(numerosCuenta, () -> delegado.transferirLote(transferencias, modo)));
+    }
+
+    @PreDestroy
+    public void detener() {
+        ejecutor.close();
+    }
+
+    // Propaga la excepción original del comando para que la manejen los @ExceptionHandler habituales.
+    private <T> T esperar(CompletableFuture<T> futuro) {
+        try {
+            return futuro.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw ex;
+        }
+    }
+}
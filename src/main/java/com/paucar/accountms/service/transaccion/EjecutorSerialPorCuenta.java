@@ -0,0 +1,89 @@
+package com.paucar.accountms.service.transaccion;
+
+import java.util.Collection;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Ejecuta los comandos de una misma cuenta de a uno y en orden de llegada, sobre un número fijo de hilos (franjas).
+ * Cada número de cuenta se asigna siempre a la misma franja, así que sus operaciones nunca compiten entre sí
+ * y las de cuentas distintas avanzan en paralelo. Cuando la cola de una franja está llena se rechaza el comando.
+ * <p>
+ * Un comando sobre varias cuentas (una transferencia o un lote) se encola en todas sus franjas: se ejecuta en la
+ * primera mientras las demás quedan retenidas hasta que termina. Estos comandos se encolan de a uno, así que
+ * todas las franjas los ven en el mismo orden y dos de ellos no pueden quedar esperándose entre sí.
+ */
+public class EjecutorSerialPorCuenta implements AutoCloseable {
+
+    private final ExecutorService[] franjas;
+
+    public EjecutorSerialPorCuenta(int numeroFranjas, int capacidadCola) {
+        this.franjas = new ExecutorService[numeroFranjas];
+        for (int i = 0; i < numeroFranjas; i++) {
+            String nombreHilo = "cuenta-serial-" + i;
+            franjas[i] = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(capacidadCola), tarea -> new Thread(tarea, nombreHilo));
+        }
+    }
+
+    public <T> CompletableFuture<T> ejecutar(String numeroCuenta, Supplier<T> comando) {
+        return CompletableFuture.supplyAsync(comando, franjas[indiceFranja(numeroCuenta)]);
+    }
+
+    public <T> CompletableFuture<T> ejecutar(Collection<String> numerosCuenta, Supplier<T> comando) {
+        int[] indices = numerosCuenta.stream().mapToInt(this::indiceFranja).distinct().sorted().toArray();
+        if (indices.length == 1) {
+            return CompletableFuture.supplyAsync(comando, franjas[indices[0]]);
+        }
+
+        CompletableFuture<T> resultado = new CompletableFuture<>();
+        CountDownLatch retenidas = new CountDownLatch(indices.length - 1);
+        synchronized (this) {
+            try {
+                for (int i = 1; i < indices.length; i++) {
+                    franjas[indices[i]].execute(() -> {
+                        retenidas.countDown();
+                        resultado.handle((valor, error) -> null).join();
+                    });
+                }
+                franjas[indices[0]].execute(() -> {
+                    try {
+                        retenidas.await();
+                        resultado.complete(comando.get());
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        resultado.completeExceptionally(e);
+                    } catch (Throwable e) {
+                        resultado.completeExceptionally(e);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                // Libera las franjas ya retenidas: el comando no llegará a ejecutarse
+                resultado.completeExceptionally(e);
+                throw e;
+            }
+        }
+        return resultado;
+    }
+
+    public boolean mismaFranja(String numeroCuenta, String otroNumeroCuenta) {
+        return indiceFranja(numeroCuenta) == indiceFranja(otroNumeroCuenta);
+    }
+
+    private int indiceFranja(String numeroCuenta) {
+        return Math.floorMod(numeroCuenta.hashCode(), franjas.length);
+    }
+
+    @Override
+    public void close() {
+        for (ExecutorService franja : franjas) {
+            franja.shutdown();
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.paucar.accountms.service.transaccion;
+
+import com.paucar.accountms.dto.ResultadoTransferenciaDTO;
+import com.paucar.accountms.dto.TransferenciaDTO;
+import com.paucar.accountms.exception.CuentaInactivaException;
+import com.paucar.accountms.exception.CuentaNoEncontradaException;
+import com.paucar.accountms.exception.LoteTransferenciasRechazadoException;
+import com.paucar.accountms.exception.SaldoInsuficienteException;
+import com.paucar.accountms.model.Cuenta;
+import com.paucar.accountms.repository.CuentaRepository;
+import com.paucar.accountms.service.consulta.CuentasModificadasEvento;
+import com.paucar.accountms.service.movimiento.RegistroMovimientos;
+import com.paucar.accountms.service.validacion.CuentaValidacionService;
+import com.paucar.accountms.util.Dinero;
+import com.paucar.accountms.util.ModoLote;
+import com.paucar.accountms.util.TipoMovimiento;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Ejecuta transferencias con una sola lectura: las cuentas involucradas se bloquean en una consulta,
+ * se validan en memoria y los saldos se escriben en el mismo flush al confirmar la transacción.
+ */
+@Component
+@RequiredArgsConstructor
+public class MotorTransferencia {
+
+    private final CuentaRepository cuentaRepository;
+    private final CuentaValidacionService cuentaValidacionService;
+    private final RegistroMovimientos registroMovimientos;
+    private final ApplicationEventPublisher eventos;
+
+    @Transactional
+    public void transferir(String numeroCuentaOrigen, String numeroCuentaDestino, long monto) {
+        validarSolicitud(numeroCuentaOrigen, numeroCuentaDestino, monto);
+
+        Map<String, Cuenta> cuentas = bloquearCuentas(List.of(numeroCuentaOrigen, numeroCuentaDestino));
+        aplicar(cuentas, numeroCuentaOrigen, numeroCuentaDestino, monto);
+        eventos.publishEvent(CuentasModificadasEvento.de(
+                cuentas.get(numeroCuentaOrigen).getClienteId(), cuentas.get(numeroCuentaDestino).getClienteId()));
+    }
+
+    // Aplica el lote en orden sobre los saldos en memoria, de modo que cada transferencia ve el efecto de las anteriores.
+    // En TODO_O_NADA, cualquier fallo revierte el lote completo; en MEJOR_ESFUERZO solo se omiten las que fallan.
+    @Transactional
+    public List<ResultadoTransferenciaDTO> transferirLote(List<TransferenciaDTO> transferencias, ModoLote modo) {
+        Set<String> numerosCuenta = new HashSet<>();
+        transferencias.forEach(transferencia -> {
+            numerosCuenta.add(transferencia.getCuentaOrigen());
+            numerosCuenta.add(transferencia.getCuentaDestino());
+        });
+        Map<String, Cuenta> cuentas = bloquearCuentas(numerosCuenta);
+
+        List<ResultadoTransferenciaDTO> resultados = new ArrayList<>(transferencias.size());
+        Set<Long> clientesAfectados = new HashSet<>();
+        boolean huboFallos = false;
+
+        for (int i = 0; i < transferencias.size(); i++) {
+            TransferenciaDTO transferencia = transferencias.get(i);
+            ResultadoTransferenciaDTO.ResultadoTransferenciaDTOBuilder resultado = ResultadoTransferenciaDTO.builder()
+                    .indice(i)
+                    .cuentaOrigen(transferencia.getCuentaOrigen())
+                    .cuentaDestino(transferencia.getCuentaDestino())
+                    .monto(transferencia.getMonto());
+            try {
+                long monto = Dinero.aCentavos(transferencia.getMonto());
+                validarSolicitud(transferencia.getCuentaOrigen(), transferencia.getCuentaDestino(), monto);
+                aplicar(cuentas, transferencia.getCuentaOrigen(), transferencia.getCuentaDestino(), monto);
+                clientesAfectados.add(cuentas.get(transferencia.getCuentaOrigen()).getClienteId());
+                clientesAfectados.add(cuentas.get(transferencia.getCuentaDestino()).getClienteId());
+                resultados.add(resultado.exitosa(true).mensaje("Transferencia realizada con éxito").build());
+            } catch (CuentaNoEncontradaException | CuentaInactivaException | SaldoInsuficienteException
+                     | IllegalArgumentException ex) {
+                huboFallos = true;
+                resultados.add(resultado.exitosa(false).mensaje(ex.getMessage()).build());
+            }
+        }
+
+        if (huboFallos && modo == ModoLote.TODO_O_NADA) {
+            List<ResultadoTransferenciaDTO> revertidos = resultados.stream()
+                    .map(resultado -> resultado.isExitosa()
+                            ? resultado.toBuilder().exitosa(false)
+                                    .mensaje("No aplicada: el lote se revirtió por errores en otras transferencias.").build()
+                            : resultado)
+                    .toList();
+            throw new LoteTransferenciasRechazadoException(
+                    "No se aplicó ninguna transferencia del lote porque al menos una no es válida.", revertidos);
+        }
+
+        if (!clientesAfectados.isEmpty()) {
+            eventos.publishEvent(new CuentasModificadasEvento(clientesAfectados));
+        }
+        return resultados;
+    }
+
+    private void validarSolicitud(String numeroCuentaOrigen, String numeroCuentaDestino, long monto) {
+        cuentaValidacionService.validarMonto(monto);
+
+        if (numeroCuentaOrigen.equals(numeroCuentaDestino)) {
+            throw new IllegalArgumentException("La cuenta de origen y la de destino deben ser distintas.");
+        }
+    }
+
+    private Map<String, Cuenta> bloquearCuentas(Collection<String> numerosCuenta) {
+        return cuentaRepository.bloquearPorNumerosCuenta(numerosCuenta).stream()
+                .collect(Collectors.toMap(Cuenta::getNumeroCuenta, Function.identity()));
+    }
+
+    private void aplicar(Map<String, Cuenta> cuentas, String numeroCuentaOrigen, String numeroCuentaDestino, long monto) {
+        Cuenta cuentaOrigen = cuentaValidacionService.validarCuenta(
+                cuentas.get(numeroCuentaOrigen), numeroCuentaOrigen, monto, "origen");
+        Cuenta cuentaDestino = cuentaValidacionService.validarCuenta(
+                cuentas.get(numeroCuentaDestino), numeroCuentaDestino, 0L, "destino");
+        cuentaValidacionService.validarSaldo(cuentaOrigen, monto);
+
+        // Las entidades están gestionadas: Hibernate emite los UPDATE juntos, en lotes JDBC, al hacer flush.
+        cuentaOrigen.setSaldoCentavos(cuentaOrigen.getSaldoCentavos() - monto);
+        cuentaDestino.setSaldoCentavos(cuentaDestino.getSaldoCentavos() + monto);
+
+        // Ambas patas comparten la referencia de la transferencia
+        String referencia = UUID.randomUUID().toString();
+        registroMovimientos.registrar(cuentaOrigen, TipoMovimiento.TRANSFERENCIA_ENVIADA, -monto, referencia);
+        registroMovimientos.registrar(cuentaDestino, TipoMovimiento.TRANSFERENCIA_RECIBIDA, monto, referencia);
+    }
+}
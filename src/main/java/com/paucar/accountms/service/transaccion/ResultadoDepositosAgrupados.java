@@ -0,0 +1,12 @@
+package com.paucar.accountms.service.transaccion;
+
+import com.paucar.accountms.dto.CuentaDTO;
+
+import java.util.List;
+import java.util.Map;
+
+// Resultado de un lote del modo agrupado: por cada cuenta abonada, la cuenta tras cada uno de sus depósitos
+// (en el orden recibido); por cada cuenta rechazada, el error que impidió el abono.
+public record ResultadoDepositosAgrupados(Map<String, List<CuentaDTO>> aplicados,
+                                          Map<String, RuntimeException> rechazados) {
+}
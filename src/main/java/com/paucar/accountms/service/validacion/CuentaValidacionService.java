@@ -4,8 +4,13 @@ package com.paucar.accountms.service.validacion;
 import com.paucar.accountms.model.Cuenta;
 
 public interface CuentaValidacionService {
+
+    // Saldo mínimo permitido en una cuenta corriente (sobregiro), en centavos.
+    long LIMITE_SOBREGIRO_CORRIENTE = -50_000L;
+
     void validarEstadoActivo(Cuenta cuenta);
-    void validarSaldo(Cuenta cuenta, Double monto);
-    void validarMonto(Double monto);
-    Cuenta validarCuenta(String numeroCuenta, Double monto, String tipoCuenta);
+    void validarSaldo(Cuenta cuenta, long monto);
+    void validarMonto(long monto);
+    Cuenta validarCuenta(String numeroCuenta, long monto, String tipoCuenta);
+    Cuenta validarCuenta(Cuenta cuenta, String numeroCuenta, long monto, String tipoCuenta);
 }
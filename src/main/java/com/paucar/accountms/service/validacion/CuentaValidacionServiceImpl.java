@@ -1,5 +1,6 @@
 package com.paucar.accountms.service.validacion;
 
+import com.paucar.accountms.exception.CuentaInactivaException;
 import com.paucar.accountms.exception.CuentaNoEncontradaException;
 import com.paucar.accountms.exception.SaldoInsuficienteException;
 import com.paucar.accountms.model.Cuenta;
@@ -18,12 +19,12 @@ public class CuentaValidacionServiceImpl implements CuentaValidacionService {
     @Override
     public void validarEstadoActivo(Cuenta cuenta) {
         if (cuenta.getEstado() != EstadoCuenta.ACTIVO) {
-            throw new IllegalStateException("No se pueden realizar transacciones en cuentas que no estén ACTIVAS.");
+            throw new CuentaInactivaException("No se pueden realizar transacciones en cuentas que no estén ACTIVAS.");
         }
     }
 
     @Override
-    public void validarSaldo(Cuenta cuenta, Double monto) {
+    public void validarSaldo(Cuenta cuenta, long monto) {
         // Utilizando un switch para eliminar duplicaciones de condiciones
         switch (cuenta.getTipoCuenta()) {
             case AHORROS -> validarSaldoAhorros(cuenta, monto);
@@ -32,42 +33,50 @@ public class CuentaValidacionServiceImpl implements CuentaValidacionService {
         }
     }
 
-    private void validarSaldoAhorros(Cuenta cuenta, Double monto) {
-        if (cuenta.getSaldo() < monto) {
+    private void validarSaldoAhorros(Cuenta cuenta, long monto) {
+        if (cuenta.getSaldoCentavos() < monto) {
             throw new SaldoInsuficienteException("Saldo insuficiente en la cuenta de ahorros.");
         }
     }
 
-    private void validarSaldoCorriente(Cuenta cuenta, Double monto) {
-        if (cuenta.getSaldo() - monto < -500) {
+    private void validarSaldoCorriente(Cuenta cuenta, long monto) {
+        if (cuenta.getSaldoCentavos() - monto < LIMITE_SOBREGIRO_CORRIENTE) {
             throw new SaldoInsuficienteException("Límite de sobregiro alcanzado en la cuenta corriente.");
         }
     }
 
     @Override
-    public void validarMonto(Double monto) {
+    public void validarMonto(long monto) {
         if (monto <= 0) {
             throw new IllegalArgumentException("El monto debe ser mayor que 0.");
         }
     }
 
     @Override
-    public Cuenta validarCuenta(String numeroCuenta, Double monto, String tipoCuenta) {
+    public Cuenta validarCuenta(String numeroCuenta, long monto, String tipoCuenta) {
+        return validarCuenta(cuentaRepository.findByNumeroCuenta(numeroCuenta).orElse(null),
+                numeroCuenta, monto, tipoCuenta);
+    }
+
+    // Variante en memoria: valida una cuenta ya cargada (null si no existe) sin volver a consultarla.
+    @Override
+    public Cuenta validarCuenta(Cuenta cuenta, String numeroCuenta, long monto, String tipoCuenta) {
 
-        Cuenta cuenta = cuentaRepository.findByNumeroCuenta(numeroCuenta)
-                .orElseThrow(() -> new CuentaNoEncontradaException(
-                        "No se pudo realizar la transferencia: la cuenta de " + tipoCuenta +
-                                " con el número [" + numeroCuenta + "] no fue encontrada."));
+        if (cuenta == null) {
+            throw new CuentaNoEncontradaException(
+                    "No se pudo realizar la transferencia: la cuenta de " + tipoCuenta +
+                            " con el número [" + numeroCuenta + "] no fue encontrada.");
+        }
 
         // Validar si la cuenta está activa
         if (cuenta.getEstado() != EstadoCuenta.ACTIVO) {
-            throw new IllegalStateException(
+            throw new CuentaInactivaException(
                     "No se pudo realizar la transferencia: la cuenta de " + tipoCuenta +
                             " con el número [" + numeroCuenta + "] está INACTIVA.");
         }
 
         // Validar el saldo si es cuenta de origen
-        if (tipoCuenta.equals("origen") && cuenta.getTipoCuenta() == TipoCuenta.AHORROS && cuenta.getSaldo() < monto) {
+        if (tipoCuenta.equals("origen") && cuenta.getTipoCuenta() == TipoCuenta.AHORROS && cuenta.getSaldoCentavos() < monto) {
             throw new SaldoInsuficienteException(
                     "No se pudo realizar la transferencia: saldo insuficiente en la cuenta de origen [" + numeroCuenta + "].");
         }
@@ -0,0 +1,31 @@
+package com.paucar.accountms.util;
+
+import java.math.BigDecimal;
+
+/**
+ * Conversión entre importes decimales (contrato JSON) y centavos (representación interna).
+ * Dentro del servicio los saldos y montos se manejan como {@code long} en centavos: la aritmética es exacta
+ * y no reserva memoria, a diferencia de {@code Double}.
+ */
+public final class Dinero {
+
+    private static final int DECIMALES = 2;
+
+    private Dinero() {
+    }
+
+    public static long aCentavos(BigDecimal monto) {
+        if (monto == null) {
+            throw new IllegalArgumentException("El monto es obligatorio.");
+        }
+        try {
+            return monto.movePointRight(DECIMALES).longValueExact();
+        } catch (ArithmeticException ex) {
+            throw new IllegalArgumentException("El monto no puede tener más de " + DECIMALES + " decimales.");
+        }
+    }
+
+    public static BigDecimal aDecimal(long centavos) {
+        return BigDecimal.valueOf(centavos, DECIMALES);
+    }
+}
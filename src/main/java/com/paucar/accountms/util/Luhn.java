@@ -0,0 +1,41 @@
+package com.paucar.accountms.util;
+
+/**
+ * Dígito de control de Luhn (módulo 10), el mismo que usan las tarjetas de pago. Detecta cualquier error en
+ * un solo dígito y casi todas las transposiciones de dígitos adyacentes al teclear un número de cuenta.
+ */
+public final class Luhn {
+
+    private Luhn() {
+    }
+
+    // Dígito que se añade al final de numero para que el resultado sea válido.
+    public static int digitoControl(long numero) {
+        if (numero < 0) {
+            throw new IllegalArgumentException("El número no puede ser negativo.");
+        }
+        int suma = 0;
+        // Se duplica el último dígito y, desde él, uno de cada dos hacia la izquierda.
+        boolean duplicar = true;
+        for (long resto = numero; resto > 0; resto /= 10) {
+            int digito = (int) (resto % 10);
+            if (duplicar) {
+                digito *= 2;
+                if (digito > 9) {
+                    digito -= 9;
+                }
+            }
+            suma += digito;
+            duplicar = !duplicar;
+        }
+        return (10 - suma % 10) % 10;
+    }
+
+    public static boolean esValido(String numero) {
+        if (numero == null || numero.length() < 2 || numero.length() > 18 || !numero.chars().allMatch(Character::isDigit)) {
+            return false;
+        }
+        int ultimo = numero.length() - 1;
+        return digitoControl(Long.parseLong(numero.substring(0, ultimo))) == numero.charAt(ultimo) - '0';
+    }
+}
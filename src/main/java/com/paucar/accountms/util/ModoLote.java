@@ -0,0 +1,6 @@
+package com.paucar.accountms.util;
+
+public enum ModoLote {
+    TODO_O_NADA,
+    MEJOR_ESFUERZO
+}
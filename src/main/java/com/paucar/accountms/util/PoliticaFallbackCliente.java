@@ -0,0 +1,9 @@
+package com.paucar.accountms.util;
+
+// Qué hacer al crear una cuenta si CUSTOMER-MS no está disponible (circuito abierto, bulkhead lleno o timeout).
+public enum PoliticaFallbackCliente {
+    // Se rechaza la operación con 503.
+    RECHAZAR,
+    // Se continúa sin verificar al cliente.
+    PERMITIR
+}
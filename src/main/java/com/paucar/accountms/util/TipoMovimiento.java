@@ -0,0 +1,10 @@
+package com.paucar.accountms.util;
+
+public enum TipoMovimiento {
+    APERTURA,
+    DEPOSITO,
+    RETIRO,
+    TRANSFERENCIA_ENVIADA,
+    TRANSFERENCIA_RECIBIDA,
+    AJUSTE
+}
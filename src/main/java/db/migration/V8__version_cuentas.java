@@ -0,0 +1,41 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Locale;
+
+/**
+ * Añade la columna version (bloqueo optimista de Cuenta) a las tablas creadas por ddl-auto antes de que la
+ * entidad la tuviera; en esas bases V1 no se ejecuta. MySQL no admite ADD COLUMN IF NOT EXISTS, por eso la
+ * comprobación se hace en Java con los metadatos de la conexión.
+ */
+public class V8__version_cuentas extends BaseJavaMigration {
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        Connection conexion = context.getConnection();
+        if (existeColumna(conexion, "cuentas", "version")) {
+            return;
+        }
+        try (Statement sentencia = conexion.createStatement()) {
+            sentencia.execute("ALTER TABLE cuentas ADD COLUMN version BIGINT NOT NULL DEFAULT 0");
+        }
+    }
+
+    private static boolean existeColumna(Connection conexion, String tabla, String columna) throws SQLException {
+        DatabaseMetaData metadatos = conexion.getMetaData();
+        // H2 guarda los identificadores sin comillas en mayúsculas; MySQL tal como se escribieron.
+        boolean mayusculas = metadatos.storesUpperCaseIdentifiers();
+        try (ResultSet columnas = metadatos.getColumns(conexion.getCatalog(), conexion.getSchema(),
+                mayusculas ? tabla.toUpperCase(Locale.ROOT) : tabla,
+                mayusculas ? columna.toUpperCase(Locale.ROOT) : columna)) {
+            return columnas.next();
+        }
+    }
+}
@@ -0,0 +1,8 @@
+-- Una fila por tarea programada que no debe ejecutarse en varias instancias a la vez. La instancia que bloquea
+-- la fila (SELECT ... FOR UPDATE SKIP LOCKED) ejecuta la tarea hasta confirmar; las demás se saltan esa ronda.
+CREATE TABLE bloqueos_tareas (
+    nombre VARCHAR(64) NOT NULL,
+    PRIMARY KEY (nombre)
+);
+
+INSERT INTO bloqueos_tareas (nombre) VALUES ('cortes_saldo');
@@ -0,0 +1,13 @@
+-- Tabla de cuentas tal como la generaba ddl-auto. En bases de datos creadas antes de las migraciones
+-- esta versión se toma como línea base y no se ejecuta (spring.flyway.baseline-on-migrate).
+CREATE TABLE cuentas (
+    id            BIGINT         NOT NULL AUTO_INCREMENT,
+    numero_cuenta VARCHAR(255)   NOT NULL,
+    saldo         DECIMAL(19, 2) NOT NULL,
+    tipo_cuenta   ENUM ('AHORROS', 'CORRIENTE') NOT NULL,
+    cliente_id    BIGINT         NOT NULL,
+    estado        ENUM ('ACTIVO', 'INACTIVO', 'CERRADO') NOT NULL,
+    version       BIGINT         NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_cuentas_numero_cuenta UNIQUE (numero_cuenta)
+);
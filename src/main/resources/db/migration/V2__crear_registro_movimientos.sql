@@ -0,0 +1,24 @@
+-- Registro de movimientos y cortes de saldo. IF NOT EXISTS: en bases de datos que ya los tenían
+-- (creados por ddl-auto, con los mismos nombres de índice) no se modifica nada.
+CREATE TABLE IF NOT EXISTS movimientos (
+    id             BIGINT      NOT NULL AUTO_INCREMENT,
+    cuenta_id      BIGINT      NOT NULL,
+    tipo           ENUM ('APERTURA', 'DEPOSITO', 'RETIRO', 'TRANSFERENCIA_ENVIADA', 'TRANSFERENCIA_RECIBIDA', 'AJUSTE') NOT NULL,
+    monto_centavos BIGINT      NOT NULL,
+    saldo_centavos BIGINT      NOT NULL,
+    referencia     VARCHAR(36),
+    fecha          DATETIME(6) NOT NULL,
+    PRIMARY KEY (id),
+    -- Historial por cuenta (paginado por id) y suma de movimientos posteriores a un corte
+    INDEX idx_movimientos_cuenta (cuenta_id, id)
+);
+
+CREATE TABLE IF NOT EXISTS cortes_saldo (
+    id                   BIGINT      NOT NULL AUTO_INCREMENT,
+    cuenta_id            BIGINT      NOT NULL,
+    saldo_centavos       BIGINT      NOT NULL,
+    ultimo_movimiento_id BIGINT      NOT NULL,
+    fecha                DATETIME(6) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_cortes_saldo_cuenta_movimiento UNIQUE (cuenta_id, ultimo_movimiento_id)
+);
@@ -0,0 +1,10 @@
+CREATE TABLE IF NOT EXISTS claves_idempotencia (
+    clave       VARCHAR(100) NOT NULL,
+    huella      VARCHAR(255) NOT NULL,
+    estado_http INT,
+    respuesta   LONGTEXT,
+    expira      DATETIME(6)  NOT NULL,
+    PRIMARY KEY (clave),
+    -- Limpieza periódica de claves expiradas
+    INDEX idx_claves_idempotencia_expira (expira)
+);
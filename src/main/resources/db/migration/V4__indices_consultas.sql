@@ -0,0 +1,8 @@
+-- Índices para los accesos que no cubrían la clave primaria ni los índices únicos.
+
+-- Cuentas de un cliente (findByClienteId). Las columnas de estado y tipo completan el índice para los filtros
+-- por cliente y estado/tipo sin añadir un índice más que mantener en cada escritura.
+CREATE INDEX idx_cuentas_cliente_estado_tipo ON cuentas (cliente_id, estado, tipo_cuenta);
+
+-- Último movimiento hasta una fecha, al generar los cortes de saldo (ultimoIdHasta).
+CREATE INDEX idx_movimientos_fecha ON movimientos (fecha);
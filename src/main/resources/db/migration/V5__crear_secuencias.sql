@@ -0,0 +1,9 @@
+-- Contadores reservados por bloques (ver GeneradorNumerosCuenta): valor es el siguiente número sin reservar.
+CREATE TABLE secuencias (
+    nombre VARCHAR(64) NOT NULL,
+    valor  BIGINT      NOT NULL,
+    PRIMARY KEY (nombre)
+);
+
+-- Cuerpo de 10 dígitos de los números de cuenta (sin el dígito de control)
+INSERT INTO secuencias (nombre, valor) VALUES ('numero_cuenta', 1000000000);
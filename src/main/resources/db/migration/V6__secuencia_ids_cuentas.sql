@@ -0,0 +1,4 @@
+-- Ids de cuentas asignados por Hibernate en bloques (TableGenerator pooled-lo) en lugar de AUTO_INCREMENT,
+-- para poder agrupar los INSERT en lotes JDBC. El contador continúa después del mayor id existente.
+INSERT INTO secuencias (nombre, valor)
+SELECT 'cuentas', COALESCE(MAX(id), 0) + 1 FROM cuentas;
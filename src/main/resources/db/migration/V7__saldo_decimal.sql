@@ -0,0 +1,3 @@
+-- ddl-auto creó saldo como DOUBLE en las bases de datos anteriores a las migraciones, y V1 no se ejecuta en
+-- ellas (línea base). El importe pasa a DECIMAL exacto; en las bases creadas por V1 no cambia nada.
+ALTER TABLE cuentas MODIFY saldo DECIMAL(19, 2) NOT NULL;
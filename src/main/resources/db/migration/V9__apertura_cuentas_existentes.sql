@@ -0,0 +1,17 @@
+-- Las cuentas creadas antes del registro de movimientos no tienen apertura, y su saldo histórico (corte más
+-- movimientos) saldría sin el saldo que ya tenían. Se registra una apertura por cada cuenta sin ella, con la
+-- diferencia entre el saldo actual y sus movimientos ya registrados, fechada con el primero de ellos (o al
+-- migrar si no tiene ninguno): desde esa fecha el saldo histórico coincide con el de la cuenta. Antes de ella
+-- el registro no tiene datos y el saldo histórico es 0.
+INSERT INTO movimientos (cuenta_id, tipo, monto_centavos, saldo_centavos, referencia, fecha)
+SELECT c.id,
+       'APERTURA',
+       ROUND(c.saldo * 100) - COALESCE(m.suma, 0),
+       ROUND(c.saldo * 100) - COALESCE(m.suma, 0),
+       NULL,
+       COALESCE(m.primera, CURRENT_TIMESTAMP(6))
+FROM cuentas c
+LEFT JOIN (SELECT cuenta_id, SUM(monto_centavos) AS suma, MIN(fecha) AS primera
+           FROM movimientos
+           GROUP BY cuenta_id) m ON m.cuenta_id = c.id
+WHERE NOT EXISTS (SELECT 1 FROM movimientos a WHERE a.cuenta_id = c.id AND a.tipo = 'APERTURA');
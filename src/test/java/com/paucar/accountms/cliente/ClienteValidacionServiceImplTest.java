@@ -0,0 +1,461 @@
+package com.paucar.accountms.cliente;
+
+import com.paucar.accountms.client.ClienteFeign;
+import com.paucar.accountms.client.dto.Cliente;
+import com.paucar.accountms.exception.ClienteNoEncontradoException;
+import com.paucar.accountms.exception.ServicioClientesNoDisponibleException;
+import com.paucar.accountms.service.cliente.ClienteValidacionServiceImpl;
+import com.paucar.accountms.util.ApiResponse;
+import com.paucar.accountms.util.PoliticaFallbackCliente;
+import feign.FeignException;
+import feign.Request;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+class ClienteValidacionServiceImplTest {
+
+    private static final Logger log = LoggerFactory.getLogger(ClienteValidacionServiceImplTest.class);
+
+    @Mock
+    private ClienteFeign clienteFeign;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private CircuitBreakerRegistry circuitBreakerRegistry;
+
+    private ClienteValidacionServiceImpl clienteValidacionService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        meterRegistry = new SimpleMeterRegistry();
+        circuitBreakerRegistry = CircuitBreakerRegistry.ofDefaults();
+        clienteValidacionService = crearServicio(clienteFeign, PoliticaFallbackCliente.RECHAZAR);
+    }
+
+    @AfterEach
+    void tearDown() {
+        clienteValidacionService.detener();
+    }
+
+    @Test
+    void validarCliente_CuandoSeRepite_DeberiaConsultarCustomerMsUnaSolaVez() {
+        log.info("Iniciando prueba: validarCliente_CuandoSeRepite_DeberiaConsultarCustomerMsUnaSolaVez");
+
+        Cliente cliente = Cliente.builder().id(1L).nombre("Ana").build();
+        when(clienteFeign.obtenerCliente(1L))
+                .thenReturn(ResponseEntity.ok(ApiResponse.<Cliente>builder().datos(cliente).build()));
+
+        assertSame(cliente, clienteValidacionService.validarCliente(1L));
+        assertSame(cliente, clienteValidacionService.validarCliente(1L));
+
+        verify(clienteFeign, times(1)).obtenerCliente(1L);
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "clientes").tag("result", "hit").functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "clientes").tag("result", "miss").functionCounter().count());
+    }
+
+    @Test
+    void validarCliente_CuandoNoExiste_DeberiaGuardarLaRespuestaYLanzarExcepcion() {
+        log.info("Iniciando prueba: validarCliente_CuandoNoExiste_DeberiaGuardarLaRespuestaYLanzarExcepcion");
+
+        when(clienteFeign.obtenerCliente(2L))
+                .thenReturn(ResponseEntity.ok(ApiResponse.<Cliente>builder().datos(null).build()));
+
+        assertThrows(ClienteNoEncontradoException.class, () -> clienteValidacionService.validarCliente(2L));
+        ClienteNoEncontradoException exception = assertThrows(ClienteNoEncontradoException.class,
+                () -> clienteValidacionService.validarCliente(2L));
+
+        log.error("Excepción lanzada: {}", exception.getMessage());
+        verify(clienteFeign, times(1)).obtenerCliente(2L);
+    }
+
+    @Test
+    void validarCliente_CuandoCustomerMsResponde404_DeberiaTratarloComoNoEncontrado() {
+        log.info("Iniciando prueba: validarCliente_CuandoCustomerMsResponde404_DeberiaTratarloComoNoEncontrado");
+
+        Request peticion = Request.create(Request.HttpMethod.GET, "/cliente/3", Map.of(), null, StandardCharsets.UTF_8, null);
+        when(clienteFeign.obtenerCliente(3L))
+                .thenThrow(new FeignException.NotFound("Not Found", peticion, null, Map.of()));
+
+        assertThrows(ClienteNoEncontradoException.class, () -> clienteValidacionService.validarCliente(3L));
+        assertThrows(ClienteNoEncontradoException.class, () -> clienteValidacionService.validarCliente(3L));
+
+        verify(clienteFeign, times(1)).obtenerCliente(3L);
+    }
+
+    @Test
+    void validarCliente_CuandoFallaLaComunicacion_NoDeberiaGuardarElError() {
+        log.info("Iniciando prueba: validarCliente_CuandoFallaLaComunicacion_NoDeberiaGuardarElError");
+
+        Request peticion = Request.create(Request.HttpMethod.GET, "/cliente/4", Map.of(), null, StandardCharsets.UTF_8, null);
+        Cliente cliente = Cliente.builder().id(4L).build();
+        when(clienteFeign.obtenerCliente(4L))
+                .thenThrow(new FeignException.ServiceUnavailable("Service Unavailable", peticion, null, Map.of()))
+                .thenReturn(ResponseEntity.ok(ApiResponse.<Cliente>builder().datos(cliente).build()));
+
+        assertThrows(ServicioClientesNoDisponibleException.class, () -> clienteValidacionService.validarCliente(4L));
+        assertSame(cliente, clienteValidacionService.validarCliente(4L));
+
+        verify(clienteFeign, times(2)).obtenerCliente(4L);
+    }
+
+    @Test
+    void validarCliente_CuandoHayConsultasConcurrentes_DeberiaCompartirUnaSolaLlamada() throws Exception {
+        log.info("Iniciando prueba: validarCliente_CuandoHayConsultasConcurrentes_DeberiaCompartirUnaSolaLlamada");
+
+        Cliente cliente = Cliente.builder().id(7L).build();
+        CustomerMsSimulado customerMs = new CustomerMsSimulado(
+                () -> ResponseEntity.ok(ApiResponse.<Cliente>builder().datos(cliente).build()));
+        ClienteValidacionServiceImpl servicio = crearServicio(customerMs, PoliticaFallbackCliente.RECHAZAR);
+
+        try {
+            List<Future<Cliente>> resultados = consultarEnParalelo(servicio, customerMs, 20, 7L);
+            for (Future<Cliente> resultado : resultados) {
+                assertSame(cliente, resultado.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            servicio.detener();
+        }
+
+        assertEquals(1, customerMs.llamadas.get());
+    }
+
+    @Test
+    void validarCliente_CuandoLaLlamadaCompartidaFalla_DeberiaEntregarElMismoErrorATodos() throws Exception {
+        log.info("Iniciando prueba: validarCliente_CuandoLaLlamadaCompartidaFalla_DeberiaEntregarElMismoErrorATodos");
+
+        Request peticion = Request.create(Request.HttpMethod.GET, "/cliente/8", Map.of(), null, StandardCharsets.UTF_8, null);
+        FeignException error = new FeignException.ServiceUnavailable("Service Unavailable", peticion, null, Map.of());
+        CustomerMsSimulado customerMs = new CustomerMsSimulado(() -> {
+            throw error;
+        });
+        ClienteValidacionServiceImpl servicio = crearServicio(customerMs, PoliticaFallbackCliente.RECHAZAR);
+
+        try {
+            List<Future<Cliente>> resultados = consultarEnParalelo(servicio, customerMs, 20, 8L);
+            for (Future<Cliente> resultado : resultados) {
+                ExecutionException exception = assertThrows(ExecutionException.class, () -> resultado.get(5, TimeUnit.SECONDS));
+                assertInstanceOf(ServicioClientesNoDisponibleException.class, exception.getCause());
+                assertSame(error, exception.getCause().getCause());
+            }
+            assertEquals(1, customerMs.llamadas.get());
+
+            // El error no queda guardado: la siguiente consulta vuelve a llamar a CUSTOMER-MS
+            assertThrows(ServicioClientesNoDisponibleException.class, () -> servicio.validarCliente(8L));
+            assertEquals(2, customerMs.llamadas.get());
+        } finally {
+            servicio.detener();
+        }
+    }
+
+    @Test
+    void validarClienteAsync_NoDeberiaBloquearMientrasCustomerMsResponde() throws Exception {
+        log.info("Iniciando prueba: validarClienteAsync_NoDeberiaBloquearMientrasCustomerMsResponde");
+
+        CustomerMsSimulado customerMs = new CustomerMsSimulado(
+                () -> ResponseEntity.ok(ApiResponse.<Cliente>builder().datos(null).build()));
+        ClienteValidacionServiceImpl servicio = crearServicio(customerMs, PoliticaFallbackCliente.RECHAZAR);
+
+        try {
+            CompletableFuture<Cliente> validacion = servicio.validarClienteAsync(12L);
+            assertTrue(customerMs.enCurso.await(5, TimeUnit.SECONDS));
+            assertFalse(validacion.isDone());
+
+            customerMs.liberar.countDown();
+            ExecutionException exception = assertThrows(ExecutionException.class, () -> validacion.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(ClienteNoEncontradoException.class, exception.getCause());
+
+            // Con la respuesta en caché el futuro ya está completo
+            assertTrue(servicio.validarClienteAsync(12L).isCompletedExceptionally());
+            assertEquals(1, customerMs.llamadas.get());
+        } finally {
+            servicio.detener();
+        }
+    }
+
+    @Test
+    void validarCliente_ConCircuitoAbiertoYPoliticaRechazar_DeberiaLanzarServicioNoDisponible() {
+        log.info("Iniciando prueba: validarCliente_ConCircuitoAbiertoYPoliticaRechazar_DeberiaLanzarServicioNoDisponible");
+
+        circuitBreakerRegistry.circuitBreaker("customerMs").transitionToOpenState();
+
+        ServicioClientesNoDisponibleException exception = assertThrows(ServicioClientesNoDisponibleException.class,
+                () -> clienteValidacionService.validarCliente(5L));
+
+        log.error("Excepción lanzada: {}", exception.getMessage());
+        verify(clienteFeign, never()).obtenerCliente(anyLong());
+    }
+
+    @Test
+    void validarCliente_ConErrorDelServidorYPoliticaPermitir_DeberiaContinuarSinCliente() {
+        log.info("Iniciando prueba: validarCliente_ConErrorDelServidorYPoliticaPermitir_DeberiaContinuarSinCliente");
+
+        Request peticion = Request.create(Request.HttpMethod.GET, "/cliente/6", Map.of(), null, StandardCharsets.UTF_8, null);
+        when(clienteFeign.obtenerCliente(6L))
+                .thenThrow(new FeignException.InternalServerError("Internal Server Error", peticion, null, Map.of()));
+        ClienteValidacionServiceImpl servicio = crearServicio(clienteFeign, PoliticaFallbackCliente.PERMITIR);
+
+        try {
+            assertNull(servicio.validarCliente(6L));
+        } finally {
+            servicio.detener();
+        }
+    }
+
+    @Test
+    void validarCliente_CuandoElBulkheadEstaLleno_DeberiaRechazarSinLlamarACustomerMs() throws Exception {
+        log.info("Iniciando prueba: validarCliente_CuandoElBulkheadEstaLleno_DeberiaRechazarSinLlamarACustomerMs");
+
+        CustomerMsSimulado customerMs = new CustomerMsSimulado(
+                () -> ResponseEntity.ok(ApiResponse.<Cliente>builder().datos(Cliente.builder().id(9L).build()).build()));
+        ClienteValidacionServiceImpl servicio = crearServicio(customerMs, PoliticaFallbackCliente.RECHAZAR,
+                BulkheadConfig.custom().maxConcurrentCalls(1).maxWaitDuration(Duration.ZERO).build());
+
+        ExecutorService clientes = Executors.newSingleThreadExecutor();
+        try {
+            // La primera consulta ocupa el único permiso mientras CUSTOMER-MS no responde
+            Future<Cliente> ocupada = clientes.submit(() -> servicio.validarCliente(9L));
+            assertTrue(customerMs.enCurso.await(5, TimeUnit.SECONDS));
+
+            assertThrows(ServicioClientesNoDisponibleException.class, () -> servicio.validarCliente(10L));
+
+            customerMs.liberar.countDown();
+            assertNotNull(ocupada.get(5, TimeUnit.SECONDS));
+            assertEquals(1, customerMs.llamadas.get());
+        } finally {
+            clientes.shutdown();
+            servicio.detener();
+        }
+    }
+
+    @Test
+    void buscarClientesInexistentes_ConMuchosClientes_DeberiaConsultarlosPorBloques() throws Exception {
+        log.info("Iniciando prueba: buscarClientesInexistentes_ConMuchosClientes_DeberiaConsultarlosPorBloques");
+
+        try (ServicioClientesSimulado customerMs = new ServicioClientesSimulado(id -> id % 10 != 0, Duration.ZERO, true)) {
+            ClienteValidacionServiceImpl servicio = crearServicio(customerMs.clienteFeign(), PoliticaFallbackCliente.RECHAZAR);
+            List<Long> ids = LongStream.rangeClosed(1, 250).boxed().toList();
+            try {
+                Set<Long> inexistentes = servicio.buscarClientesInexistentes(ids);
+
+                assertEquals(LongStream.rangeClosed(1, 25).map(i -> i * 10).boxed().collect(Collectors.toSet()), inexistentes);
+                // 250 ids en bloques de 100: tres peticiones en lugar de 250
+                assertEquals(3, customerMs.peticionesLote());
+                assertEquals(0, customerMs.peticionesPorId());
+
+                // Las respuestas quedan en la caché compartida con validarCliente
+                assertEquals(inexistentes, servicio.buscarClientesInexistentes(ids));
+                assertEquals(7L, servicio.validarCliente(7L).getId());
+                assertThrows(ClienteNoEncontradoException.class, () -> servicio.validarCliente(20L));
+                assertEquals(3, customerMs.peticiones());
+            } finally {
+                servicio.detener();
+            }
+        }
+    }
+
+    @Test
+    void buscarClientesInexistentes_SinRutaDeLoteEnCustomerMs_DeberiaConsultarPorId() throws Exception {
+        log.info("Iniciando prueba: buscarClientesInexistentes_SinRutaDeLoteEnCustomerMs_DeberiaConsultarPorId");
+
+        try (ServicioClientesSimulado customerMs = new ServicioClientesSimulado(id -> id != 3L, Duration.ZERO, false)) {
+            ClienteValidacionServiceImpl servicio = crearServicio(customerMs.clienteFeign(), PoliticaFallbackCliente.RECHAZAR);
+            try {
+                assertEquals(Set.of(3L), servicio.buscarClientesInexistentes(List.of(1L, 2L, 3L, 4L, 5L)));
+                assertEquals(1, customerMs.peticionesLote());
+                assertEquals(5, customerMs.peticionesPorId());
+
+                // Durante clientes.lote.reintento la ruta de lote no se vuelve a intentar
+                assertEquals(Set.of(), servicio.buscarClientesInexistentes(List.of(6L, 7L, 8L)));
+                assertEquals(1, customerMs.peticionesLote());
+                assertEquals(8, customerMs.peticionesPorId());
+            } finally {
+                servicio.detener();
+            }
+        }
+    }
+
+    @Test
+    void buscarClientesInexistentes_PasadoElReintentoDeLote_DeberiaVolverAProbarLaRuta() throws Exception {
+        log.info("Iniciando prueba: buscarClientesInexistentes_PasadoElReintentoDeLote_DeberiaVolverAProbarLaRuta");
+
+        try (ServicioClientesSimulado customerMs = new ServicioClientesSimulado(id -> id != 3L, Duration.ZERO, false)) {
+            // Sin espera: cada validación vuelve a probar la ruta de lote
+            ClienteValidacionServiceImpl servicio = crearServicio(customerMs.clienteFeign(), PoliticaFallbackCliente.RECHAZAR,
+                    BulkheadConfig.ofDefaults(), Duration.ZERO);
+            try {
+                assertEquals(Set.of(3L), servicio.buscarClientesInexistentes(List.of(1L, 2L, 3L)));
+                assertEquals(Set.of(), servicio.buscarClientesInexistentes(List.of(4L, 5L)));
+
+                assertEquals(2, customerMs.peticionesLote());
+                assertEquals(5, customerMs.peticionesPorId());
+            } finally {
+                servicio.detener();
+            }
+        }
+    }
+
+    @Test
+    void buscarClientesInexistentes_CuandoElLoteRespondeBadRequest_DeberiaConsultarEseBloquePorIdSinDesactivarLaRuta() {
+        log.info("Iniciando prueba: buscarClientesInexistentes_CuandoElLoteRespondeBadRequest_DeberiaConsultarEseBloquePorIdSinDesactivarLaRuta");
+
+        Request peticion = Request.create(Request.HttpMethod.GET, "/cliente/lote", Map.of(), null, StandardCharsets.UTF_8, null);
+        when(clienteFeign.obtenerClientes(anyList()))
+                .thenThrow(new FeignException.BadRequest("Bad Request", peticion, null, Map.of()))
+                .thenReturn(ResponseEntity.ok(ApiResponse.<List<Cliente>>builder()
+                        .datos(List.of(Cliente.builder().id(22L).build()))
+                        .build()));
+        when(clienteFeign.obtenerCliente(21L))
+                .thenReturn(ResponseEntity.ok(ApiResponse.<Cliente>builder().datos(Cliente.builder().id(21L).build()).build()));
+
+        assertEquals(Set.of(), clienteValidacionService.buscarClientesInexistentes(List.of(21L)));
+        assertEquals(Set.of(23L), clienteValidacionService.buscarClientesInexistentes(List.of(22L, 23L)));
+
+        verify(clienteFeign, times(2)).obtenerClientes(anyList());
+        verify(clienteFeign, times(1)).obtenerCliente(anyLong());
+    }
+
+    @Test
+    void buscarClientesInexistentes_ConCustomerMsNoDisponible_DeberiaRechazarSinGuardarElError() {
+        log.info("Iniciando prueba: buscarClientesInexistentes_ConCustomerMsNoDisponible_DeberiaRechazarSinGuardarElError");
+
+        Request peticion = Request.create(Request.HttpMethod.GET, "/cliente/lote", Map.of(), null, StandardCharsets.UTF_8, null);
+        when(clienteFeign.obtenerClientes(anyList()))
+                .thenThrow(new FeignException.ServiceUnavailable("Service Unavailable", peticion, null, Map.of()))
+                .thenReturn(ResponseEntity.ok(ApiResponse.<List<Cliente>>builder()
+                        .datos(List.of(Cliente.builder().id(11L).build()))
+                        .build()));
+
+        assertThrows(ServicioClientesNoDisponibleException.class,
+                () -> clienteValidacionService.buscarClientesInexistentes(List.of(11L, 12L)));
+        assertEquals(Set.of(12L), clienteValidacionService.buscarClientesInexistentes(List.of(11L, 12L)));
+
+        verify(clienteFeign, times(2)).obtenerClientes(anyList());
+        verify(clienteFeign, never()).obtenerCliente(anyLong());
+    }
+
+    @Test
+    void buscarClientesInexistentes_ConCustomerMsNoDisponibleYPoliticaPermitir_DeberiaContinuar() {
+        log.info("Iniciando prueba: buscarClientesInexistentes_ConCustomerMsNoDisponibleYPoliticaPermitir_DeberiaContinuar");
+
+        Request peticion = Request.create(Request.HttpMethod.GET, "/cliente/lote", Map.of(), null, StandardCharsets.UTF_8, null);
+        when(clienteFeign.obtenerClientes(anyList()))
+                .thenThrow(new FeignException.InternalServerError("Internal Server Error", peticion, null, Map.of()));
+        ClienteValidacionServiceImpl servicio = crearServicio(clienteFeign, PoliticaFallbackCliente.PERMITIR);
+
+        try {
+            assertEquals(Set.of(), servicio.buscarClientesInexistentes(List.of(13L, 14L)));
+        } finally {
+            servicio.detener();
+        }
+    }
+
+    private ClienteValidacionServiceImpl crearServicio(ClienteFeign feign, PoliticaFallbackCliente politica) {
+        return crearServicio(feign, politica, BulkheadConfig.ofDefaults());
+    }
+
+    private ClienteValidacionServiceImpl crearServicio(ClienteFeign feign, PoliticaFallbackCliente politica,
+                                                       BulkheadConfig bulkhead) {
+        return crearServicio(feign, politica, bulkhead, Duration.ofMinutes(5));
+    }
+
+    private ClienteValidacionServiceImpl crearServicio(ClienteFeign feign, PoliticaFallbackCliente politica,
+                                                       BulkheadConfig bulkhead, Duration reintentoLote) {
+        return new ClienteValidacionServiceImpl(feign, meterRegistry, circuitBreakerRegistry,
+                BulkheadRegistry.of(bulkhead), politica, false,
+                1000, Duration.ofMinutes(10), Duration.ofSeconds(30), Duration.ofMinutes(5), 100, 4, reintentoLote);
+    }
+
+    // Lanza las consultas a la vez y libera la respuesta de CUSTOMER-MS cuando todas ya están esperando.
+    private List<Future<Cliente>> consultarEnParalelo(ClienteValidacionServiceImpl servicio, CustomerMsSimulado customerMs,
+                                                      int cantidad, Long clienteId) throws Exception {
+        ExecutorService clientes = Executors.newFixedThreadPool(cantidad);
+        CyclicBarrier salida = new CyclicBarrier(cantidad + 1);
+        try {
+            List<Future<Cliente>> resultados = IntStream.range(0, cantidad)
+                    .mapToObj(i -> clientes.submit(() -> {
+                        salida.await();
+                        return servicio.validarCliente(clienteId);
+                    }))
+                    .toList();
+            salida.await();
+            assertTrue(customerMs.enCurso.await(5, TimeUnit.SECONDS));
+            Thread.sleep(200);
+            customerMs.liberar.countDown();
+            for (Future<Cliente> resultado : resultados) {
+                try {
+                    resultado.get(5, TimeUnit.SECONDS);
+                } catch (ExecutionException ignorada) {
+                    // Se valida en cada prueba
+                }
+            }
+            return resultados;
+        } finally {
+            clientes.shutdown();
+        }
+    }
+
+    // Stub local de CUSTOMER-MS que retiene la respuesta hasta que la prueba la libera.
+    private static class CustomerMsSimulado implements ClienteFeign {
+
+        private final Supplier<ResponseEntity<ApiResponse<Cliente>>> respuesta;
+        private final AtomicInteger llamadas = new AtomicInteger();
+        private final CountDownLatch enCurso = new CountDownLatch(1);
+        private final CountDownLatch liberar = new CountDownLatch(1);
+
+        CustomerMsSimulado(Supplier<ResponseEntity<ApiResponse<Cliente>>> respuesta) {
+            this.respuesta = respuesta;
+        }
+
+        @Override
+        public ResponseEntity<ApiResponse<Cliente>> obtenerCliente(Long id) {
+            llamadas.incrementAndGet();
+            enCurso.countDown();
+            try {
+                liberar.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return respuesta.get();
+        }
+
+        @Override
+        public ResponseEntity<ApiResponse<List<Cliente>>> obtenerClientes(List<Long> ids) {
+            throw new UnsupportedOperationException("Solo se simula la consulta por id");
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.paucar.accountms.cliente;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.paucar.accountms.client.ClienteFeign;
+import com.paucar.accountms.client.dto.Cliente;
+import com.paucar.accountms.util.ApiResponse;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import feign.Feign;
+import org.springframework.boot.autoconfigure.http.HttpMessageConverters;
+import org.springframework.cloud.openfeign.support.ResponseEntityDecoder;
+import org.springframework.cloud.openfeign.support.SpringDecoder;
+import org.springframework.cloud.openfeign.support.SpringMvcContract;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+/**
+ * CUSTOMER-MS local para pruebas y benchmarks: un servidor HTTP del JDK en un puerto libre que responde
+ * GET /cliente/{id} y GET /cliente/lote?ids=... con el mismo formato ApiResponse del servicio real.
+ * Cuenta las peticiones recibidas y puede simular latencia de red o una versión sin la ruta de lote.
+ */
+public class ServicioClientesSimulado implements AutoCloseable {
+
+    private static final String RUTA_LOTE = "/cliente/lote";
+
+    static {
+        // Sin TCP_NODELAY, el ACK retardado añade ~40 ms a cada respuesta y taparía la latencia simulada
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+
+    private final Predicate<Long> existe;
+    private final Duration latencia;
+    private final boolean conLote;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ExecutorService hilos = Executors.newCachedThreadPool();
+    private final HttpServer servidor;
+
+    private final AtomicInteger peticionesPorId = new AtomicInteger();
+    private final AtomicInteger peticionesLote = new AtomicInteger();
+
+    public ServicioClientesSimulado(Predicate<Long> existe, Duration latencia, boolean conLote) throws IOException {
+        this.existe = existe;
+        this.latencia = latencia;
+        this.conLote = conLote;
+        this.servidor = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        servidor.createContext("/cliente/", this::responder);
+        servidor.setExecutor(hilos);
+        servidor.start();
+    }
+
+    public String url() {
+        return "http://localhost:" + servidor.getAddress().getPort();
+    }
+
+    public int peticiones() {
+        return peticionesPorId.get() + peticionesLote.get();
+    }
+
+    public int peticionesPorId() {
+        return peticionesPorId.get();
+    }
+
+    public int peticionesLote() {
+        return peticionesLote.get();
+    }
+
+    // Cliente Feign real (contrato Spring MVC y Jackson, como en la aplicación) apuntando a este servidor.
+    public ClienteFeign clienteFeign() {
+        MappingJackson2HttpMessageConverter jackson = new MappingJackson2HttpMessageConverter();
+        return Feign.builder()
+                .contract(new SpringMvcContract())
+                .decoder(new ResponseEntityDecoder(new SpringDecoder(() -> new HttpMessageConverters(jackson))))
+                .target(ClienteFeign.class, url());
+    }
+
+    @Override
+    public void close() {
+        servidor.stop(0);
+        hilos.shutdownNow();
+    }
+
+    private void responder(HttpExchange intercambio) throws IOException {
+        try {
+            esperar();
+            String ruta = intercambio.getRequestURI().getPath();
+            if (ruta.equals(RUTA_LOTE)) {
+                peticionesLote.incrementAndGet();
+                if (!conLote) {
+                    enviar(intercambio, 404, ApiResponse.builder().estado(404).mensaje("Not Found").build());
+                    return;
+                }
+                List<Cliente> clientes = leerIds(intercambio.getRequestURI().getRawQuery()).stream()
+                        .filter(existe)
+                        .map(ServicioClientesSimulado::cliente)
+                        .toList();
+                enviar(intercambio, 200, ApiResponse.builder().estado(200).mensaje("Clientes encontrados").datos(clientes).build());
+                return;
+            }
+            peticionesPorId.incrementAndGet();
+            long id = Long.parseLong(ruta.substring("/cliente/".length()));
+            if (existe.test(id)) {
+                enviar(intercambio, 200, ApiResponse.builder().estado(200).mensaje("Cliente encontrado").datos(cliente(id)).build());
+            } else {
+                enviar(intercambio, 404, ApiResponse.builder().estado(404).mensaje("Cliente no encontrado").build());
+            }
+        } finally {
+            intercambio.close();
+        }
+    }
+
+    // Acepta tanto ids=1&ids=2 (formato de Feign) como ids=1,2
+    private static List<Long> leerIds(String consulta) {
+        if (consulta == null) {
+            return List.of();
+        }
+        return Arrays.stream(consulta.split("&"))
+                .filter(parametro -> parametro.startsWith("ids="))
+                .flatMap(parametro -> Arrays.stream(parametro.substring("ids=".length()).split("%2C|,")))
+                .filter(valor -> !valor.isEmpty())
+                .map(Long::valueOf)
+                .toList();
+    }
+
+    private void enviar(HttpExchange intercambio, int estado, ApiResponse<?> cuerpo) throws IOException {
+        byte[] json = objectMapper.writeValueAsString(cuerpo).getBytes(StandardCharsets.UTF_8);
+        intercambio.getResponseHeaders().set("Content-Type", "application/json");
+        intercambio.sendResponseHeaders(estado, json.length);
+        try (OutputStream salida = intercambio.getResponseBody()) {
+            salida.write(json);
+        }
+    }
+
+    private void esperar() {
+        if (latencia.isZero()) {
+            return;
+        }
+        try {
+            Thread.sleep(latencia.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static Cliente cliente(long id) {
+        return Cliente.builder()
+                .id(id)
+                .nombre("Cliente " + id)
+                .apellido("Simulado")
+                .dni(String.format("%08d", id))
+                .email("cliente" + id + "@correo.com")
+                .build();
+    }
+}
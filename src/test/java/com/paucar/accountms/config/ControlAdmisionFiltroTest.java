@@ -0,0 +1,154 @@
+package com.paucar.accountms.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ControlAdmisionFiltroTest {
+
+    private static final Logger log = LoggerFactory.getLogger(ControlAdmisionFiltroTest.class);
+
+    @Mock
+    private HikariDataSource dataSource;
+
+    @Mock
+    private HikariPoolMXBean pool;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private ControlAdmisionFiltro filtro;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(dataSource.getHikariPoolMXBean()).thenReturn(pool);
+        meterRegistry = new SimpleMeterRegistry();
+        filtro = new ControlAdmisionFiltro(dataSource, new ObjectMapper(), meterRegistry, 1, 8, 1, 2, Duration.ofSeconds(3));
+    }
+
+    @Test
+    void doFilter_CuandoSeAgotanLasEscriturasEnCurso_DeberiaRechazarConRetryAfter() throws Exception {
+        log.info("Iniciando prueba: doFilter_CuandoSeAgotanLasEscriturasEnCurso_DeberiaRechazarConRetryAfter");
+
+        // La segunda escritura llega mientras la primera sigue en curso
+        AtomicReference<MockHttpServletResponse> segunda = new AtomicReference<>();
+        MockHttpServletResponse primera = new MockHttpServletResponse();
+        filtro.doFilter(peticion("PUT", "/cuentas/depositar"), primera, (request, response) -> {
+            MockHttpServletResponse respuesta = new MockHttpServletResponse();
+            filtro.doFilter(peticion("PUT", "/cuentas/retirar"), respuesta, mock(FilterChain.class));
+            segunda.set(respuesta);
+        });
+
+        assertEquals(200, primera.getStatus());
+        assertEquals(503, segunda.get().getStatus());
+        assertEquals("3", segunda.get().getHeader("Retry-After"));
+        assertTrue(segunda.get().getContentAsString().contains("\"estado\":503"));
+        assertEquals(1.0, meterRegistry.counter(ControlAdmisionFiltro.METRICA_RECHAZOS,
+                "tipo", "escritura", "motivo", "en_curso").count());
+    }
+
+    @Test
+    void doFilter_LecturasYEscriturasTienenPresupuestosSeparados() throws Exception {
+        log.info("Iniciando prueba: doFilter_LecturasYEscriturasTienenPresupuestosSeparados");
+
+        AtomicReference<MockHttpServletResponse> lectura = new AtomicReference<>();
+        FilterChain cadenaLectura = mock(FilterChain.class);
+        filtro.doFilter(peticion("PUT", "/cuentas/depositar"), new MockHttpServletResponse(), (request, response) -> {
+            MockHttpServletResponse respuesta = new MockHttpServletResponse();
+            filtro.doFilter(peticion("GET", "/cuentas/1"), respuesta, cadenaLectura);
+            lectura.set(respuesta);
+        });
+
+        assertEquals(200, lectura.get().getStatus());
+        verify(cadenaLectura, times(1)).doFilter(any(), any());
+    }
+
+    @Test
+    void doFilter_CuandoHayColaEnElPool_DeberiaRechazarEscriturasAntesQueLecturas() throws Exception {
+        log.info("Iniciando prueba: doFilter_CuandoHayColaEnElPool_DeberiaRechazarEscriturasAntesQueLecturas");
+
+        when(pool.getThreadsAwaitingConnection()).thenReturn(5);
+        FilterChain cadena = mock(FilterChain.class);
+
+        MockHttpServletResponse escritura = new MockHttpServletResponse();
+        filtro.doFilter(peticion("PUT", "/cuentas/realizar-transferencia"), escritura, cadena);
+        MockHttpServletResponse lectura = new MockHttpServletResponse();
+        filtro.doFilter(peticion("GET", "/cuentas/cliente/1"), lectura, cadena);
+
+        assertEquals(503, escritura.getStatus());
+        assertEquals(200, lectura.getStatus());
+        verify(cadena, times(1)).doFilter(any(), any());
+        assertEquals(1.0, meterRegistry.counter(ControlAdmisionFiltro.METRICA_RECHAZOS,
+                "tipo", "escritura", "motivo", "pool").count());
+    }
+
+    @Test
+    void doFilter_CuandoLaPeticionFalla_DeberiaLiberarElCupo() throws Exception {
+        log.info("Iniciando prueba: doFilter_CuandoLaPeticionFalla_DeberiaLiberarElCupo");
+
+        FilterChain cadenaConError = mock(FilterChain.class);
+        doThrow(new IllegalStateException("Error")).when(cadenaConError).doFilter(any(), any());
+        assertThrows(IllegalStateException.class,
+                () -> filtro.doFilter(peticion("PUT", "/cuentas/depositar"), new MockHttpServletResponse(), cadenaConError));
+
+        MockHttpServletResponse siguiente = new MockHttpServletResponse();
+        filtro.doFilter(peticion("PUT", "/cuentas/depositar"), siguiente, mock(FilterChain.class));
+
+        assertEquals(200, siguiente.getStatus());
+    }
+
+    @Test
+    void doFilter_ConRespuestaAsincrona_DeberiaRetenerElCupoHastaQueTermine() throws Exception {
+        log.info("Iniciando prueba: doFilter_ConRespuestaAsincrona_DeberiaRetenerElCupoHastaQueTermine");
+
+        // POST /cuentas devuelve un futuro: el hilo sale del filtro antes de que la creación termine
+        MockHttpServletRequest creacion = peticion("POST", "/cuentas");
+        creacion.setAsyncSupported(true);
+        filtro.doFilter(creacion, new MockHttpServletResponse(),
+                (request, response) -> request.startAsync(request, response));
+
+        MockHttpServletResponse mientrasTanto = new MockHttpServletResponse();
+        filtro.doFilter(peticion("PUT", "/cuentas/depositar"), mientrasTanto, mock(FilterChain.class));
+        assertEquals(503, mientrasTanto.getStatus());
+
+        creacion.getAsyncContext().complete();
+
+        MockHttpServletResponse despues = new MockHttpServletResponse();
+        filtro.doFilter(peticion("PUT", "/cuentas/depositar"), despues, mock(FilterChain.class));
+        assertEquals(200, despues.getStatus());
+    }
+
+    @Test
+    void doFilter_FueraDeCuentas_NoDeberiaAplicarse() throws Exception {
+        log.info("Iniciando prueba: doFilter_FueraDeCuentas_NoDeberiaAplicarse");
+
+        when(pool.getThreadsAwaitingConnection()).thenReturn(100);
+        FilterChain cadena = mock(FilterChain.class);
+        MockHttpServletResponse respuesta = new MockHttpServletResponse();
+
+        filtro.doFilter(peticion("GET", "/actuator/health"), respuesta, cadena);
+
+        assertEquals(200, respuesta.getStatus());
+        verify(cadena, times(1)).doFilter(any(), any());
+    }
+
+    private MockHttpServletRequest peticion(String metodo, String ruta) {
+        return new MockHttpServletRequest(metodo, ruta);
+    }
+}
@@ -0,0 +1,140 @@
+package com.paucar.accountms.config;
+
+import com.paucar.accountms.dto.CuentaDTO;
+import com.paucar.accountms.exception.ClienteNoEncontradoException;
+import com.paucar.accountms.exception.CuentaInactivaException;
+import com.paucar.accountms.exception.CuentaNoEncontradaException;
+import com.paucar.accountms.exception.SaldoInsuficienteException;
+import com.paucar.accountms.service.gestion.CuentaGestionService;
+import com.paucar.accountms.service.transaccion.CuentaTransaccionService;
+import com.paucar.accountms.service.transaccion.CuentaTransaccionServiceSerial;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class MetricasOperacionesAspectTest {
+
+    private static final Logger log = LoggerFactory.getLogger(MetricasOperacionesAspectTest.class);
+
+    @Mock
+    private CuentaTransaccionService delegado;
+
+    private SimpleMeterRegistry meterRegistry;
+    private CuentaTransaccionService cuentaTransaccionService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        meterRegistry = new SimpleMeterRegistry();
+        cuentaTransaccionService = conAspecto(delegado);
+    }
+
+    @Test
+    void depositar_DeberiaRegistrarLaDuracionConResultadoOk() {
+        log.info("Iniciando prueba: depositar_DeberiaRegistrarLaDuracionConResultadoOk");
+
+        when(delegado.depositar("1234567890", 10_000L)).thenReturn(new CuentaDTO());
+
+        cuentaTransaccionService.depositar("1234567890", 10_000L);
+
+        assertEquals(1, timer("depositar", "ok").count());
+    }
+
+    @Test
+    void retirar_CuandoNoHaySaldo_DeberiaEtiquetarSaldoInsuficienteYPropagarLaExcepcion() {
+        log.info("Iniciando prueba: retirar_CuandoNoHaySaldo_DeberiaEtiquetarSaldoInsuficienteYPropagarLaExcepcion");
+
+        when(delegado.retirar("1234567890", 500_000L)).thenThrow(new SaldoInsuficienteException("Saldo insuficiente"));
+
+        assertThrows(SaldoInsuficienteException.class, () -> cuentaTransaccionService.retirar("1234567890", 500_000L));
+
+        assertEquals(1, timer("retirar", "saldo_insuficiente").count());
+    }
+
+    @Test
+    void transferir_DeberiaEtiquetarCuentaInactivaYNoEncontrada() {
+        log.info("Iniciando prueba: transferir_DeberiaEtiquetarCuentaInactivaYNoEncontrada");
+
+        when(delegado.transferir("1234567890", "0987654321", 10_000L))
+                .thenThrow(new CuentaInactivaException("La cuenta está INACTIVA"))
+                .thenThrow(new CuentaNoEncontradaException("Cuenta no encontrada"));
+
+        assertThrows(CuentaInactivaException.class,
+                () -> cuentaTransaccionService.transferir("1234567890", "0987654321", 10_000L));
+        assertThrows(CuentaNoEncontradaException.class,
+                () -> cuentaTransaccionService.transferir("1234567890", "0987654321", 10_000L));
+
+        assertEquals(1, timer("transferir", "cuenta_inactiva").count());
+        assertEquals(1, timer("transferir", "no_encontrado").count());
+    }
+
+    @Test
+    void depositar_ConUnErrorDeEstadoInterno_NoDeberiaEtiquetarseComoCuentaInactiva() {
+        log.info("Iniciando prueba: depositar_ConUnErrorDeEstadoInterno_NoDeberiaEtiquetarseComoCuentaInactiva");
+
+        when(delegado.depositar("1234567890", 10_000L))
+                .thenThrow(new IllegalStateException("No se pudo aplicar el movimiento en la cuenta: 1234567890"));
+
+        assertThrows(IllegalStateException.class, () -> cuentaTransaccionService.depositar("1234567890", 10_000L));
+
+        assertEquals(1, timer("depositar", "error").count());
+        assertNull(meterRegistry.find(MetricasOperacionesAspect.METRICA).tag("resultado", "cuenta_inactiva").timer());
+    }
+
+    @Test
+    void modoSerial_NoDeberiaMedirseParaNoContarDosVecesLaOperacion() {
+        log.info("Iniciando prueba: modoSerial_NoDeberiaMedirseParaNoContarDosVecesLaOperacion");
+
+        CuentaTransaccionServiceSerial serial = mock(CuentaTransaccionServiceSerial.class);
+        when(serial.depositar("1234567890", 10_000L)).thenReturn(new CuentaDTO());
+
+        conAspecto(serial).depositar("1234567890", 10_000L);
+
+        assertNull(meterRegistry.find(MetricasOperacionesAspect.METRICA).timer());
+    }
+
+    @Test
+    void crearCuenta_DeberiaMedirHastaQueTermineElFuturo() {
+        log.info("Iniciando prueba: crearCuenta_DeberiaMedirHastaQueTermineElFuturo");
+
+        CuentaGestionService gestion = mock(CuentaGestionService.class);
+        CompletableFuture<CuentaDTO> creacion = new CompletableFuture<>();
+        when(gestion.crearCuenta(any())).thenReturn(creacion);
+        AspectJProxyFactory fabrica = new AspectJProxyFactory(gestion);
+        fabrica.addInterface(CuentaGestionService.class);
+        fabrica.addAspect(new MetricasOperacionesAspect(meterRegistry));
+        CuentaGestionService conMetricas = fabrica.getProxy();
+
+        assertSame(creacion, conMetricas.crearCuenta(new CuentaDTO()));
+        assertNull(meterRegistry.find(MetricasOperacionesAspect.METRICA).timer());
+
+        creacion.completeExceptionally(new ClienteNoEncontradoException("El cliente con ID: 1 no existe."));
+
+        assertEquals(1, timer("crearCuenta", "no_encontrado").count());
+    }
+
+    private CuentaTransaccionService conAspecto(CuentaTransaccionService objetivo) {
+        AspectJProxyFactory fabrica = new AspectJProxyFactory(objetivo);
+        fabrica.addInterface(CuentaTransaccionService.class);
+        fabrica.addAspect(new MetricasOperacionesAspect(meterRegistry));
+        return fabrica.getProxy();
+    }
+
+    private Timer timer(String operacion, String resultado) {
+        return meterRegistry.get(MetricasOperacionesAspect.METRICA)
+                .tag("operacion", operacion)
+                .tag("resultado", resultado)
+                .timer();
+    }
+}
@@ -0,0 +1,176 @@
+package com.paucar.accountms.config;
+
+import com.paucar.accountms.exception.CuentaInactivaException;
+import com.paucar.accountms.exception.ExcepcionesGlobales;
+import com.paucar.accountms.util.ApiResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// @ReintentoConcurrencia con el listener de métricas de ReintentoConfig, en un contexto de Spring mínimo.
+@SpringJUnitConfig({ReintentoConfig.class, ReintentoConcurrenciaTest.Configuracion.class})
+@TestPropertySource(properties = {
+        "cuentas.reintentos.max-intentos=4",
+        "cuentas.reintentos.espera-inicial-ms=20",
+        "cuentas.reintentos.espera-maxima-ms=50"
+})
+class ReintentoConcurrenciaTest {
+
+    private static final Logger log = LoggerFactory.getLogger(ReintentoConcurrenciaTest.class);
+
+    @Configuration
+    static class Configuracion {
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+
+        @Bean
+        OperacionConConflictos operacionConConflictos() {
+            return new OperacionConConflictos();
+        }
+    }
+
+    // Lanza en orden los errores programados y después responde "ok". Los campos se leen con métodos porque
+    // el bean inyectado es el proxy de reintentos.
+    static class OperacionConConflictos {
+
+        private final Deque<RuntimeException> errores = new ArrayDeque<>();
+        private final Deque<Long> inicios = new ArrayDeque<>();
+
+        void reiniciar(RuntimeException... erroresProgramados) {
+            errores.clear();
+            errores.addAll(List.of(erroresProgramados));
+            inicios.clear();
+        }
+
+        List<Long> inicios() {
+            return List.copyOf(inicios);
+        }
+
+        @ReintentoConcurrencia
+        public String depositar() {
+            inicios.add(System.nanoTime());
+            RuntimeException error = errores.poll();
+            if (error != null) {
+                throw error;
+            }
+            return "ok";
+        }
+    }
+
+    @Autowired
+    private OperacionConConflictos operacion;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        operacion.reiniciar();
+        meterRegistry.clear();
+    }
+
+    @Test
+    void depositar_TrasDosConflictos_DeberiaReintentarConEsperaCrecienteYRegistrarMetricas() {
+        log.info("Iniciando prueba: depositar_TrasDosConflictos_DeberiaReintentarConEsperaCrecienteYRegistrarMetricas");
+
+        operacion.reiniciar(
+                new ObjectOptimisticLockingFailureException("Cuenta", 1L),
+                new CannotAcquireLockException("Tiempo de espera del bloqueo agotado"));
+
+        assertEquals("ok", operacion.depositar());
+
+        // Espera exponencial: al menos 20 ms antes del segundo intento y 40 ms antes del tercero
+        List<Long> inicios = operacion.inicios();
+        assertEquals(3, inicios.size());
+        long primeraEsperaMs = (inicios.get(1) - inicios.get(0)) / 1_000_000;
+        long segundaEsperaMs = (inicios.get(2) - inicios.get(1)) / 1_000_000;
+        log.info("Esperas entre intentos: {} ms y {} ms", primeraEsperaMs, segundaEsperaMs);
+        assertTrue(primeraEsperaMs >= 20);
+        assertTrue(segundaEsperaMs >= 40);
+
+        assertEquals(1, conflictos("optimista"));
+        assertEquals(1, conflictos("bloqueo"));
+        assertEquals(2, reintentos("exito"));
+        assertNull(meterRegistry.find("cuentas.concurrencia.reintentos").tag("resultado", "fallo").counter());
+    }
+
+    @Test
+    void depositar_CuandoElConflictoPersiste_DeberiaAgotarLosIntentosSinSuperarLaEsperaMaxima() {
+        log.info("Iniciando prueba: depositar_CuandoElConflictoPersiste_DeberiaAgotarLosIntentosSinSuperarLaEsperaMaxima");
+
+        operacion.reiniciar(new CannotAcquireLockException("Deadlock"), new CannotAcquireLockException("Deadlock"),
+                new CannotAcquireLockException("Deadlock"), new CannotAcquireLockException("Deadlock"));
+
+        assertThrows(CannotAcquireLockException.class, operacion::depositar);
+
+        List<Long> inicios = operacion.inicios();
+        assertEquals(4, inicios.size());
+        // La tercera espera sería de 80 ms o más sin el límite de 50 ms
+        long terceraEsperaMs = (inicios.get(3) - inicios.get(2)) / 1_000_000;
+        assertTrue(terceraEsperaMs < 80, "La espera debería limitarse a espera-maxima-ms: " + terceraEsperaMs);
+
+        assertEquals(4, conflictos("bloqueo"));
+        // El último intento fallido no va seguido de un reintento
+        assertEquals(3, reintentos("fallo"));
+    }
+
+    @Test
+    void depositar_ConUnErrorQueNoEsDeConcurrencia_NoDeberiaReintentar() {
+        log.info("Iniciando prueba: depositar_ConUnErrorQueNoEsDeConcurrencia_NoDeberiaReintentar");
+
+        operacion.reiniciar(new CuentaInactivaException("La cuenta está INACTIVA"));
+
+        assertThrows(CuentaInactivaException.class, operacion::depositar);
+
+        assertEquals(1, operacion.inicios().size());
+        assertTrue(meterRegistry.getMeters().isEmpty());
+    }
+
+    @Test
+    void conflictoTrasAgotarLosReintentos_DeberiaResponder409() {
+        log.info("Iniciando prueba: conflictoTrasAgotarLosReintentos_DeberiaResponder409");
+
+        ExcepcionesGlobales excepcionesGlobales = new ExcepcionesGlobales();
+        for (ConcurrencyFailureException conflicto : List.of(
+                new ObjectOptimisticLockingFailureException("Cuenta", 1L),
+                new CannotAcquireLockException("Deadlock"))) {
+            ResponseEntity<ApiResponse<Void>> respuesta = excepcionesGlobales.manejarExcepcionConflictoConcurrencia(conflicto);
+            assertEquals(HttpStatus.CONFLICT, respuesta.getStatusCode());
+            assertEquals(409, respuesta.getBody().getEstado());
+        }
+    }
+
+    private double conflictos(String tipo) {
+        return meterRegistry.get("cuentas.concurrencia.conflictos")
+                .tags("operacion", "depositar", "tipo", tipo)
+                .counter().count();
+    }
+
+    private double reintentos(String resultado) {
+        return meterRegistry.get("cuentas.concurrencia.reintentos")
+                .tags("operacion", "depositar", "resultado", resultado)
+                .counter().count();
+    }
+}
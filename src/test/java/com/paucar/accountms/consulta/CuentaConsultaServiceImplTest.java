@@ -2,7 +2,7 @@ package com.paucar.accountms.consulta;
 
 import com.paucar.accountms.dto.CuentaDTO;
 import com.paucar.accountms.mapper.CuentaMapper;
-import com.paucar.accountms.model.Cuenta;
+import com.paucar.accountms.repository.CuentaProyeccion;
 import com.paucar.accountms.repository.CuentaRepository;
 import com.paucar.accountms.service.consulta.CuentaConsultaServiceImpl;
 import com.paucar.accountms.util.EstadoCuenta;
@@ -14,13 +14,18 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Limit;
 
+import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
 class CuentaConsultaServiceImplTest {
@@ -42,47 +47,63 @@ class CuentaConsultaServiceImplTest {
     }
 
     @Test
-    void obtenerTodasLasCuentas_DeberiaRetornarListaDeCuentas() {
-        log.info("Iniciando prueba: obtenerTodasLasCuentas_DeberiaRetornarListaDeCuentas");
+    void obtenerCuentas_DeberiaRetornarLaPaginaDespuesDelCursor() {
+        log.info("Iniciando prueba: obtenerCuentas_DeberiaRetornarLaPaginaDespuesDelCursor");
 
-        List<Cuenta> cuentas = Arrays.asList(
+        List<CuentaProyeccion> cuentas = Arrays.asList(
 
-                Cuenta.builder()
-                        .id(1L)
-                        .numeroCuenta("1234567890")
-                        .saldo(1000.0)
-                        .tipoCuenta(TipoCuenta.AHORROS)
-                        .clienteId(1L)
-                        .estado(EstadoCuenta.ACTIVO)
-                        .build(),
+                new CuentaProyeccion(1L, "1234567890", 100_000L, TipoCuenta.AHORROS, 1L, EstadoCuenta.ACTIVO),
 
-                Cuenta.builder()
-                        .id(2L)
-                        .numeroCuenta("0987654321")
-                        .saldo(5000.0)
-                        .tipoCuenta(TipoCuenta.CORRIENTE)
-                        .clienteId(1L)
-                        .estado(EstadoCuenta.ACTIVO)
-                        .build()
+                new CuentaProyeccion(2L, "0987654321", 500_000L, TipoCuenta.CORRIENTE, 1L, EstadoCuenta.ACTIVO)
         );
 
-        when(cuentaRepository.findAll()).thenReturn(cuentas);
-        when(cuentaMapper.convertEntidadADto(cuentas.get(0)))
-                .thenReturn(new CuentaDTO(1L, "1234567890", 1000.0, TipoCuenta.AHORROS, 1L, EstadoCuenta.ACTIVO));
-        when(cuentaMapper.convertEntidadADto(cuentas.get(1)))
-                .thenReturn(new CuentaDTO(2L, "0987654321", 5000.0, TipoCuenta.CORRIENTE, 1L, EstadoCuenta.ACTIVO));
+        when(cuentaRepository.buscarProyeccionesDespuesDe(0L, Limit.of(2))).thenReturn(cuentas);
+        when(cuentaMapper.convertirProyeccionADto(cuentas.get(0)))
+                .thenReturn(new CuentaDTO(1L, "1234567890", new BigDecimal("1000.00"), TipoCuenta.AHORROS, 1L, EstadoCuenta.ACTIVO));
+        when(cuentaMapper.convertirProyeccionADto(cuentas.get(1)))
+                .thenReturn(new CuentaDTO(2L, "0987654321", new BigDecimal("5000.00"), TipoCuenta.CORRIENTE, 1L, EstadoCuenta.ACTIVO));
 
-        List<CuentaDTO> resultado = cuentaConsultaService.obtenerTodasLasCuentas();
+        List<CuentaDTO> resultado = cuentaConsultaService.obtenerCuentas(null, 2);
         log.info("Resultado obtenido: {}", resultado);
 
         assertEquals(2, resultado.size(), "El tamaño de la lista debería ser 2.");
     }
 
+    @Test
+    void obtenerCuentas_ConLimiteFueraDeRango_DeberiaLanzarExcepcion() {
+        log.info("Iniciando prueba: obtenerCuentas_ConLimiteFueraDeRango_DeberiaLanzarExcepcion");
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> cuentaConsultaService.obtenerCuentas(10L, CuentaConsultaServiceImpl.LIMITE_PAGINA_MAXIMO + 1));
+
+        log.error("Excepción lanzada: {}", exception.getMessage());
+        verify(cuentaRepository, never()).buscarProyeccionesDespuesDe(any(), any());
+    }
+
+    @Test
+    void recorrerCuentas_DeberiaEntregarCadaCuentaYCerrarElFlujo() {
+        log.info("Iniciando prueba: recorrerCuentas_DeberiaEntregarCadaCuentaYCerrarElFlujo");
+
+        CuentaProyeccion cuenta = new CuentaProyeccion(1L, "1234567890", 100_000L, null, null, null);
+        CuentaDTO cuentaDTO = CuentaDTO.builder().id(1L).numeroCuenta("1234567890").saldo(new BigDecimal("1000.00")).build();
+        boolean[] cerrado = {false};
+        Stream<CuentaProyeccion> flujo = Stream.of(cuenta).onClose(() -> cerrado[0] = true);
+
+        when(cuentaRepository.recorrerTodas()).thenReturn(flujo);
+        when(cuentaMapper.convertirProyeccionADto(cuenta)).thenReturn(cuentaDTO);
+
+        List<CuentaDTO> recibidas = new ArrayList<>();
+        cuentaConsultaService.recorrerCuentas(recibidas::add);
+
+        assertEquals(List.of(cuentaDTO), recibidas);
+        assertTrue(cerrado[0], "El flujo debería cerrarse al terminar el recorrido.");
+    }
+
     @Test
     void obtenerCuentaPorId_CuentaNoExiste_DeberiaLanzarExcepcion() {
         log.info("Iniciando prueba: obtenerCuentaPorId_CuentaNoExiste_DeberiaLanzarExcepcion");
 
-        when(cuentaRepository.findById(999L)).thenReturn(Optional.empty());
+        when(cuentaRepository.buscarProyeccionPorId(999L)).thenReturn(Optional.empty());
         Optional<CuentaDTO> resultado = cuentaConsultaService.obtenerCuentaPorId(999L);
 
         log.info("Resultado de búsqueda por ID inexistente: {}", resultado);
@@ -94,7 +115,7 @@ class CuentaConsultaServiceImplTest {
     void obtenerCuentasPorClienteId_CuentasVacias_DeberiaRetornarListaVacia() {
         log.info("Iniciando prueba: obtenerCuentasPorClienteId_CuentasVacias_DeberiaRetornarListaVacia");
 
-        when(cuentaRepository.findByClienteId(1L)).thenReturn(Collections.emptyList());
+        when(cuentaRepository.buscarProyeccionesPorClienteId(1L)).thenReturn(Collections.emptyList());
         List<CuentaDTO> resultado = cuentaConsultaService.obtenerCuentasPorClienteId(1L);
 
         log.info("Resultado de búsqueda de cuentas para cliente sin cuentas: {}", resultado);
@@ -106,26 +127,19 @@ class CuentaConsultaServiceImplTest {
     void obtenerCuentaPorId_DeberiaRetornarCuenta() {
         log.info("Iniciando prueba: obtenerCuentaPorId_DeberiaRetornarCuenta");
 
-        Cuenta cuenta = Cuenta.builder()
-                .id(1L)
-                .numeroCuenta("1234567890")
-                .saldo(1000.0)
-                .tipoCuenta(TipoCuenta.AHORROS)
-                .clienteId(1L)
-                .estado(EstadoCuenta.ACTIVO)
-                .build();
+        CuentaProyeccion cuenta = new CuentaProyeccion(1L, "1234567890", 100_000L, TipoCuenta.AHORROS, 1L, EstadoCuenta.ACTIVO);
 
-        when(cuentaRepository.findById(1L)).thenReturn(Optional.of(cuenta));
+        when(cuentaRepository.buscarProyeccionPorId(1L)).thenReturn(Optional.of(cuenta));
         CuentaDTO cuentaDTO = CuentaDTO.builder()
                 .id(1L)
                 .numeroCuenta("1234567890")
-                .saldo(1000.0)
+                .saldo(new BigDecimal("1000.00"))
                 .tipoCuenta(TipoCuenta.AHORROS)
                 .clienteId(1L)
                 .estado(EstadoCuenta.ACTIVO)
                 .build();
 
-        when(cuentaMapper.convertEntidadADto(cuenta)).thenReturn(cuentaDTO);
+        when(cuentaMapper.convertirProyeccionADto(cuenta)).thenReturn(cuentaDTO);
 
         Optional<CuentaDTO> resultado = cuentaConsultaService.obtenerCuentaPorId(1L);
 
@@ -139,41 +153,27 @@ class CuentaConsultaServiceImplTest {
     void obtenerCuentasPorClienteId_DeberiaRetornarListaDeCuentas() {
         log.info("Iniciando prueba: obtenerCuentasPorClienteId_DeberiaRetornarListaDeCuentas");
 
-        List<Cuenta> cuentas = Arrays.asList(
-                Cuenta.builder()
-                        .id(1L)
-                        .numeroCuenta("1234567890")
-                        .saldo(1000.0)
-                        .tipoCuenta(TipoCuenta.AHORROS)
-                        .clienteId(1L)
-                        .estado(EstadoCuenta.ACTIVO)
-                        .build(),
-                Cuenta.builder()
-                        .id(2L)
-                        .numeroCuenta("0987654321")
-                        .saldo(5000.0)
-                        .tipoCuenta(TipoCuenta.CORRIENTE)
-                        .clienteId(1L)
-                        .estado(EstadoCuenta.ACTIVO)
-                        .build()
+        List<CuentaProyeccion> cuentas = Arrays.asList(
+                new CuentaProyeccion(1L, "1234567890", 100_000L, TipoCuenta.AHORROS, 1L, EstadoCuenta.ACTIVO),
+                new CuentaProyeccion(2L, "0987654321", 500_000L, TipoCuenta.CORRIENTE, 1L, EstadoCuenta.ACTIVO)
         );
 
-        when(cuentaRepository.findByClienteId(1L)).thenReturn(cuentas);
+        when(cuentaRepository.buscarProyeccionesPorClienteId(1L)).thenReturn(cuentas);
 
-        when(cuentaMapper.convertEntidadADto(cuentas.get(0)))
+        when(cuentaMapper.convertirProyeccionADto(cuentas.get(0)))
                 .thenReturn(CuentaDTO.builder()
                         .id(1L)
                         .numeroCuenta("1234567890")
-                        .saldo(1000.0)
+                        .saldo(new BigDecimal("1000.00"))
                         .tipoCuenta(TipoCuenta.AHORROS)
                         .clienteId(1L)
                         .estado(EstadoCuenta.ACTIVO)
                         .build());
-        when(cuentaMapper.convertEntidadADto(cuentas.get(1)))
+        when(cuentaMapper.convertirProyeccionADto(cuentas.get(1)))
                 .thenReturn(CuentaDTO.builder()
                         .id(2L)
                         .numeroCuenta("0987654321")
-                        .saldo(5000.0)
+                        .saldo(new BigDecimal("5000.00"))
                         .tipoCuenta(TipoCuenta.CORRIENTE)
                         .clienteId(1L)
                         .estado(EstadoCuenta.ACTIVO)
@@ -0,0 +1,75 @@
+package com.paucar.accountms.consulta;
+
+import com.paucar.accountms.config.CacheConfig;
+import com.paucar.accountms.service.consulta.CuentasModificadasEvento;
+import com.paucar.accountms.service.consulta.InvalidadorCacheCuentas;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class InvalidadorCacheCuentasTest {
+
+    private static final Logger log = LoggerFactory.getLogger(InvalidadorCacheCuentasTest.class);
+
+    private Cache cache;
+
+    private TaskScheduler programador;
+
+    private InvalidadorCacheCuentas invalidadorCacheCuentas;
+
+    @BeforeEach
+    void setUp() {
+        ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager(CacheConfig.CUENTAS_POR_CLIENTE);
+        cache = cacheManager.getCache(CacheConfig.CUENTAS_POR_CLIENTE);
+        programador = mock(TaskScheduler.class);
+        invalidadorCacheCuentas = new InvalidadorCacheCuentas(cacheManager, programador, Duration.ofSeconds(1));
+    }
+
+    @Test
+    void alModificarCuentas_DeberiaInvalidarSoloLosClientesAfectados() {
+        log.info("Iniciando prueba: alModificarCuentas_DeberiaInvalidarSoloLosClientesAfectados");
+
+        cache.put(1L, List.of());
+        cache.put(2L, List.of());
+        cache.put(3L, List.of());
+
+        invalidadorCacheCuentas.alModificarCuentas(CuentasModificadasEvento.de(1L, 3L));
+
+        assertNull(cache.get(1L));
+        assertNotNull(cache.get(2L));
+        assertNull(cache.get(3L));
+    }
+
+    @Test
+    void alModificarCuentas_DeberiaInvalidarDeNuevoLaListaGuardadaPorUnaLecturaAnterior() {
+        log.info("Iniciando prueba: alModificarCuentas_DeberiaInvalidarDeNuevoLaListaGuardadaPorUnaLecturaAnterior");
+
+        Instant antes = Instant.now();
+        cache.put(1L, List.of());
+        invalidadorCacheCuentas.alModificarCuentas(CuentasModificadasEvento.de(1L));
+        assertNull(cache.get(1L));
+
+        // Una lectura que consultó la base de datos antes del commit guarda ahora la lista anterior
+        cache.put(1L, List.of("obsoleta"));
+
+        ArgumentCaptor<Runnable> segundaInvalidacion = ArgumentCaptor.forClass(Runnable.class);
+        ArgumentCaptor<Instant> momento = ArgumentCaptor.forClass(Instant.class);
+        verify(programador, times(1)).schedule(segundaInvalidacion.capture(), momento.capture());
+        assertFalse(momento.getValue().isBefore(antes.plusSeconds(1)));
+
+        segundaInvalidacion.getValue().run();
+        assertNull(cache.get(1L));
+    }
+}
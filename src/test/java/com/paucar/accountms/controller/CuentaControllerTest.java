@@ -1,25 +1,45 @@
 package com.paucar.accountms.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.paucar.accountms.dto.CuentaDTO;
+import com.paucar.accountms.dto.LoteCuentasDTO;
+import com.paucar.accountms.dto.ResultadoCreacionCuentaDTO;
+import com.paucar.accountms.dto.LoteTransferenciasDTO;
+import com.paucar.accountms.dto.ResultadoTransferenciaDTO;
+import com.paucar.accountms.dto.TransferenciaDTO;
 import com.paucar.accountms.service.consulta.CuentaConsultaService;
 import com.paucar.accountms.service.gestion.CuentaGestionService;
+import com.paucar.accountms.service.idempotencia.IdempotenciaService;
 import com.paucar.accountms.service.transaccion.CuentaTransaccionService;
 import com.paucar.accountms.util.ApiResponse;
+import com.paucar.accountms.util.Dinero;
+import com.paucar.accountms.util.ModoLote;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 class CuentaControllerTest {
@@ -35,12 +55,21 @@ class CuentaControllerTest {
     @Mock
     private CuentaTransaccionService cuentaTransaccionService;
 
+    @Mock
+    private IdempotenciaService idempotenciaService;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
     @InjectMocks
     private CuentaController cuentaController;
 
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        // Sin respuestas guardadas: el servicio de idempotencia ejecuta la operación recibida
+        when(idempotenciaService.ejecutar(any(), any(), any(), any()))
+                .thenAnswer(invocacion -> invocacion.<Supplier<?>>getArgument(3).get());
         log.info("Inicializando pruebas para CuentaController...");
     }
 
@@ -48,12 +77,52 @@ class CuentaControllerTest {
     void obtenerTodasLasCuentas() {
         log.info("Prueba: obtenerTodasLasCuentas");
         List<CuentaDTO> listaCuentas = Arrays.asList(new CuentaDTO(), new CuentaDTO());
-        when(cuentaConsultaService.obtenerTodasLasCuentas()).thenReturn(listaCuentas);
+        when(cuentaConsultaService.obtenerCuentas(null, 100)).thenReturn(listaCuentas);
 
-        ResponseEntity<ApiResponse<List<CuentaDTO>>> response = cuentaController.obtenerTodasLasCuentas();
+        ResponseEntity<ApiResponse<List<CuentaDTO>>> response = cuentaController.obtenerTodasLasCuentas(null, 100);
 
         log.info("Resultado: HttpStatus = {}, Mensaje = {}", response.getStatusCode(), response.getBody().getMensaje());
         assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertNull(response.getHeaders().getFirst(CuentaController.CABECERA_SIGUIENTE_CURSOR));
+    }
+
+    @Test
+    void obtenerTodasLasCuentas_CuandoLaPaginaEstaLlena_DeberiaIndicarElSiguienteCursor() {
+        log.info("Prueba: obtenerTodasLasCuentas_CuandoLaPaginaEstaLlena_DeberiaIndicarElSiguienteCursor");
+        List<CuentaDTO> listaCuentas = Arrays.asList(
+                CuentaDTO.builder().id(11L).build(),
+                CuentaDTO.builder().id(12L).build());
+        when(cuentaConsultaService.obtenerCuentas(10L, 2)).thenReturn(listaCuentas);
+
+        ResponseEntity<ApiResponse<List<CuentaDTO>>> response = cuentaController.obtenerTodasLasCuentas(10L, 2);
+
+        log.info("Resultado: HttpStatus = {}, Cursor = {}", response.getStatusCode(),
+                response.getHeaders().getFirst(CuentaController.CABECERA_SIGUIENTE_CURSOR));
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("12", response.getHeaders().getFirst(CuentaController.CABECERA_SIGUIENTE_CURSOR));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void exportarCuentas_DeberiaEscribirLasCuentasComoApiResponse() throws Exception {
+        log.info("Prueba: exportarCuentas_DeberiaEscribirLasCuentasComoApiResponse");
+        doAnswer(invocacion -> {
+            Consumer<CuentaDTO> consumidor = invocacion.getArgument(0);
+            consumidor.accept(CuentaDTO.builder().id(1L).numeroCuenta("1234567890").saldo(new BigDecimal("10.50")).build());
+            consumidor.accept(CuentaDTO.builder().id(2L).numeroCuenta("0987654321").saldo(new BigDecimal("0.00")).build());
+            return null;
+        }).when(cuentaConsultaService).recorrerCuentas(any(Consumer.class));
+
+        ResponseEntity<StreamingResponseBody> response = cuentaController.exportarCuentas();
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        response.getBody().writeTo(salida);
+
+        JsonNode json = objectMapper.readTree(salida.toByteArray());
+        log.info("Resultado: HttpStatus = {}, Cuerpo = {}", response.getStatusCode(), json);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(200, json.get("estado").asInt());
+        assertEquals(2, json.get("datos").size());
+        assertEquals("0987654321", json.get("datos").get(1).get("numeroCuenta").asText());
     }
 
     @Test
@@ -86,12 +155,43 @@ class CuentaControllerTest {
         log.info("Prueba: crearCuenta");
         CuentaDTO cuentaDTO = new CuentaDTO();
         cuentaDTO.setNumeroCuenta("1234565567");
-        when(cuentaGestionService.crearCuenta(cuentaDTO)).thenReturn(cuentaDTO);
+        when(cuentaGestionService.crearCuenta(cuentaDTO)).thenReturn(CompletableFuture.completedFuture(cuentaDTO));
+
+        ResponseEntity<ApiResponse<CuentaDTO>> response = cuentaController.crearCuenta(cuentaDTO).join();
+
+        log.info("Resultado: HttpStatus = {}, Mensaje = {}", response.getStatusCode(), response.getBody().getMensaje());
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+    }
+
+    @Test
+    void crearCuentasLote_ConFilasRechazadas_DeberiaInformarCadaResultado() {
+        log.info("Prueba: crearCuentasLote_ConFilasRechazadas_DeberiaInformarCadaResultado");
+        List<CuentaDTO> cuentas = List.of(new CuentaDTO(), new CuentaDTO());
+        when(cuentaGestionService.crearCuentas(cuentas)).thenReturn(List.of(
+                ResultadoCreacionCuentaDTO.builder().indice(0).id(1L).exitosa(true).build(),
+                ResultadoCreacionCuentaDTO.builder().indice(1).exitosa(false).mensaje("El cliente con ID: 2 no existe.").build()));
 
-        ResponseEntity<ApiResponse<CuentaDTO>> response = cuentaController.crearCuenta(cuentaDTO);
+        ResponseEntity<ApiResponse<List<ResultadoCreacionCuentaDTO>>> response =
+                cuentaController.crearCuentasLote(new LoteCuentasDTO(cuentas));
 
         log.info("Resultado: HttpStatus = {}, Mensaje = {}", response.getStatusCode(), response.getBody().getMensaje());
         assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        assertEquals("Lote procesado: 1 cuentas creadas y 1 con error", response.getBody().getMensaje());
+        assertEquals(2, response.getBody().getDatos().size());
+    }
+
+    @Test
+    void crearCuentasLote_SinCuentasCreadas_DeberiaResponderOk() {
+        log.info("Prueba: crearCuentasLote_SinCuentasCreadas_DeberiaResponderOk");
+        List<CuentaDTO> cuentas = List.of(new CuentaDTO());
+        when(cuentaGestionService.crearCuentas(cuentas)).thenReturn(List.of(
+                ResultadoCreacionCuentaDTO.builder().indice(0).exitosa(false).build()));
+
+        ResponseEntity<ApiResponse<List<ResultadoCreacionCuentaDTO>>> response =
+                cuentaController.crearCuentasLote(new LoteCuentasDTO(cuentas));
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(HttpStatus.OK.value(), response.getBody().getEstado());
     }
 
     @Test
@@ -136,12 +236,12 @@ class CuentaControllerTest {
     void depositar() {
         log.info("Prueba: depositar");
         String numeroCuenta = "123456556";
-        Double monto = 100.0;
+        BigDecimal monto = new BigDecimal("100.00");
         CuentaDTO cuentaDTO = new CuentaDTO();
         cuentaDTO.setNumeroCuenta(numeroCuenta);
-        when(cuentaTransaccionService.depositar(numeroCuenta, monto)).thenReturn(cuentaDTO);
+        when(cuentaTransaccionService.depositar(numeroCuenta, Dinero.aCentavos(monto))).thenReturn(cuentaDTO);
 
-        ResponseEntity<ApiResponse<CuentaDTO>> response = cuentaController.depositar(numeroCuenta, monto);
+        ResponseEntity<ApiResponse<CuentaDTO>> response = cuentaController.depositar(numeroCuenta, monto, null);
 
         log.info("Resultado: HttpStatus = {}, Mensaje = {}", response.getStatusCode(), response.getBody().getMensaje());
         assertEquals(HttpStatus.OK, response.getStatusCode());
@@ -151,11 +251,11 @@ class CuentaControllerTest {
     void retirar() {
         log.info("Prueba: retirar");
         String numeroCuenta = "123456897";
-        Double monto = 50.0;
+        BigDecimal monto = new BigDecimal("50.00");
         CuentaDTO cuentaDTO = new CuentaDTO();
-        when(cuentaTransaccionService.retirar(numeroCuenta, monto)).thenReturn(cuentaDTO);
+        when(cuentaTransaccionService.retirar(numeroCuenta, Dinero.aCentavos(monto))).thenReturn(cuentaDTO);
 
-        ResponseEntity<ApiResponse<CuentaDTO>> response = cuentaController.retirar(numeroCuenta, monto);
+        ResponseEntity<ApiResponse<CuentaDTO>> response = cuentaController.retirar(numeroCuenta, monto, null);
 
         log.info("Resultado: HttpStatus = {}, Mensaje = {}", response.getStatusCode(), response.getBody().getMensaje());
         assertEquals(HttpStatus.OK, response.getStatusCode());
@@ -166,26 +266,54 @@ class CuentaControllerTest {
         log.info("Prueba: transferencia");
         String cuentaOrigen = "1234567865";
         String cuentaDestino = "4565678907";
-        Double monto = 100.0;
-        when(cuentaTransaccionService.transferir(cuentaOrigen, cuentaDestino, monto)).thenReturn(true);
+        BigDecimal monto = new BigDecimal("100.00");
+        when(cuentaTransaccionService.transferir(cuentaOrigen, cuentaDestino, Dinero.aCentavos(monto))).thenReturn(true);
 
-        ResponseEntity<ApiResponse<Boolean>> response = cuentaController.transferencia(cuentaOrigen, cuentaDestino, monto);
+        ResponseEntity<ApiResponse<Boolean>> response = cuentaController.transferencia(cuentaOrigen, cuentaDestino, monto, null);
 
         log.info("Resultado: HttpStatus = {}, Mensaje = {}", response.getStatusCode(), response.getBody().getMensaje());
         assertEquals(HttpStatus.OK, response.getStatusCode());
     }
 
+    @Test
+    void transferencia_ConClaveDeIdempotencia_DeberiaIdentificarLaSolicitudPorSusParametros() {
+        log.info("Prueba: transferencia_ConClaveDeIdempotencia_DeberiaIdentificarLaSolicitudPorSusParametros");
+        when(cuentaTransaccionService.transferir("1234567865", "4565678907", 10_000L)).thenReturn(true);
+
+        cuentaController.transferencia("1234567865", "4565678907", new BigDecimal("100.0"), "clave-1");
+
+        // El monto se normaliza a centavos: 100.0 y 100.00 son la misma solicitud
+        verify(idempotenciaService, times(1)).ejecutar(eq("clave-1"), eq("transferir:1234567865:4565678907:10000"),
+                eq(Boolean.class), any());
+    }
+
     @Test
     void transferencia_Falla() {
         log.info("Prueba: transferencia_Falla");
         String cuentaOrigen = "1233456745";
         String cuentaDestino = "4563458865";
-        Double monto = 100.0;
-        when(cuentaTransaccionService.transferir(cuentaOrigen, cuentaDestino, monto)).thenReturn(false);
+        BigDecimal monto = new BigDecimal("100.00");
+        when(cuentaTransaccionService.transferir(cuentaOrigen, cuentaDestino, Dinero.aCentavos(monto))).thenReturn(false);
 
-        ResponseEntity<ApiResponse<Boolean>> response = cuentaController.transferencia(cuentaOrigen, cuentaDestino, monto);
+        ResponseEntity<ApiResponse<Boolean>> response = cuentaController.transferencia(cuentaOrigen, cuentaDestino, monto, null);
 
         log.info("Resultado: HttpStatus = {}, Mensaje = {}", response.getStatusCode(), response.getBody().getMensaje());
         assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
     }
+
+    @Test
+    void transferenciaLote() {
+        log.info("Prueba: transferenciaLote");
+        List<TransferenciaDTO> transferencias = List.of(new TransferenciaDTO("1234567865", "4565678907", new BigDecimal("100.00")));
+        LoteTransferenciasDTO lote = new LoteTransferenciasDTO();
+        lote.setTransferencias(transferencias);
+        when(cuentaTransaccionService.transferirLote(transferencias, ModoLote.TODO_O_NADA))
+                .thenReturn(List.of(ResultadoTransferenciaDTO.builder().indice(0).exitosa(true).build()));
+
+        ResponseEntity<ApiResponse<List<ResultadoTransferenciaDTO>>> response = cuentaController.transferenciaLote(lote);
+
+        log.info("Resultado: HttpStatus = {}, Mensaje = {}", response.getStatusCode(), response.getBody().getMensaje());
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(1, response.getBody().getDatos().size());
+    }
 }
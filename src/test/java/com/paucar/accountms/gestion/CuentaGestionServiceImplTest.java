@@ -1,16 +1,23 @@
 package com.paucar.accountms.gestion;
 
-import com.paucar.accountms.client.ClienteFeign;
 import com.paucar.accountms.dto.CuentaDTO;
+import com.paucar.accountms.dto.ResultadoCreacionCuentaDTO;
 import com.paucar.accountms.exception.ClienteNoEncontradoException;
+import com.paucar.accountms.exception.CuentaYaExisteException;
 import com.paucar.accountms.mapper.CuentaMapper;
 import com.paucar.accountms.client.dto.Cliente;
 import com.paucar.accountms.model.Cuenta;
 import com.paucar.accountms.repository.CuentaRepository;
+import com.paucar.accountms.service.cliente.ClienteValidacionService;
 import com.paucar.accountms.service.gestion.CuentaGestionServiceImpl;
-import com.paucar.accountms.util.ApiResponse;
+import com.paucar.accountms.service.gestion.EjecutorCreacionCuentas;
+import com.paucar.accountms.service.gestion.GeneradorNumerosCuenta;
+import com.paucar.accountms.service.movimiento.RegistroMovimientos;
 import com.paucar.accountms.util.EstadoCuenta;
 import com.paucar.accountms.util.TipoCuenta;
+import com.paucar.accountms.util.TipoMovimiento;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
@@ -18,9 +25,18 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.http.ResponseEntity;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -36,7 +52,25 @@ class CuentaGestionServiceImplTest {
     private CuentaMapper cuentaMapper;
 
     @Mock
-    private ClienteFeign clienteFeign;
+    private ClienteValidacionService clienteValidacionService;
+
+    @Mock
+    private GeneradorNumerosCuenta generadorNumerosCuenta;
+
+    @Mock
+    private RegistroMovimientos registroMovimientos;
+
+    @Mock
+    private TransactionTemplate transacciones;
+
+    @Mock
+    private ApplicationEventPublisher eventos;
+
+    @Mock
+    private Validator validator;
+
+    @Mock
+    private EjecutorCreacionCuentas ejecutorCreacion;
 
     @InjectMocks
     private CuentaGestionServiceImpl cuentaGestionService;
@@ -44,6 +78,14 @@ class CuentaGestionServiceImplTest {
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        // Ejecuta el bloque transaccional directamente
+        when(transacciones.execute(any())).thenAnswer(invocacion ->
+                invocacion.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        // Ejecuta los pasos de la creación en el hilo de la prueba
+        when(ejecutorCreacion.ejecutar(any())).thenAnswer(invocacion ->
+                CompletableFuture.supplyAsync(invocacion.<Supplier<?>>getArgument(0), Runnable::run));
+        when(clienteValidacionService.validarClienteAsync(anyLong()))
+                .thenReturn(CompletableFuture.completedFuture(new Cliente()));
     }
 
     @Test
@@ -53,26 +95,21 @@ class CuentaGestionServiceImplTest {
         CuentaDTO cuentaDTO = CuentaDTO.builder()
                 .id(1L)
                 .numeroCuenta("1234567890")
-                .saldo(1000.0)
+                .saldo(new BigDecimal("1000.00"))
                 .tipoCuenta(TipoCuenta.AHORROS)
                 .clienteId(1L)
                 .estado(EstadoCuenta.ACTIVO)
                 .build();
 
         Cliente clienteSimulado = new Cliente();
-        ApiResponse<Cliente> apiResponseCliente = ApiResponse.<Cliente>builder()
-                .estado(200)
-                .mensaje("Cliente encontrado")
-                .datos(clienteSimulado)
-                .build();
 
-        when(clienteFeign.obtenerCliente(1L)).thenReturn(ResponseEntity.ok(apiResponseCliente));
+        when(clienteValidacionService.validarClienteAsync(1L)).thenReturn(CompletableFuture.completedFuture(clienteSimulado));
         when(cuentaRepository.existsByNumeroCuenta("1234567890")).thenReturn(false);
 
         Cuenta cuentaEntidad = Cuenta.builder()
                 .id(1L)
                 .numeroCuenta("1234567890")
-                .saldo(1000.0)
+                .saldoCentavos(100_000L)
                 .tipoCuenta(TipoCuenta.AHORROS)
                 .clienteId(1L)
                 .estado(EstadoCuenta.ACTIVO)
@@ -82,7 +119,7 @@ class CuentaGestionServiceImplTest {
         when(cuentaRepository.save(cuentaEntidad)).thenReturn(cuentaEntidad);
         when(cuentaMapper.convertEntidadADto(cuentaEntidad)).thenReturn(cuentaDTO);
 
-        CuentaDTO resultado = cuentaGestionService.crearCuenta(cuentaDTO);
+        CuentaDTO resultado = cuentaGestionService.crearCuenta(cuentaDTO).join();
 
         log.info("Resultado obtenido para crear cuenta: {}", resultado);
 
@@ -92,6 +129,123 @@ class CuentaGestionServiceImplTest {
         assertEquals(cuentaDTO.getClienteId(), resultado.getClienteId(), "El ID del cliente debería coincidir.");
 
         verify(cuentaRepository, times(1)).save(cuentaEntidad);
+        verify(registroMovimientos, times(1)).registrar(cuentaEntidad, TipoMovimiento.APERTURA, 100_000L, null);
+    }
+
+    @Test
+    void crearCuenta_SinNumeroDeCuenta_DeberiaAsignarNumeroGeneradoSinConsultarDuplicados() {
+        log.info("Iniciando prueba: crearCuenta_SinNumeroDeCuenta_DeberiaAsignarNumeroGeneradoSinConsultarDuplicados");
+
+        CuentaDTO cuentaDTO = CuentaDTO.builder()
+                .saldo(new BigDecimal("1000.00"))
+                .tipoCuenta(TipoCuenta.AHORROS)
+                .clienteId(1L)
+                .build();
+        Cuenta cuentaEntidad = Cuenta.builder()
+                .saldoCentavos(100_000L)
+                .tipoCuenta(TipoCuenta.AHORROS)
+                .clienteId(1L)
+                .build();
+
+        when(cuentaMapper.convertirDtoAEntidad(cuentaDTO)).thenReturn(cuentaEntidad);
+        when(generadorNumerosCuenta.siguienteNumero()).thenReturn("10000000009");
+        when(cuentaRepository.save(cuentaEntidad)).thenReturn(cuentaEntidad);
+
+        cuentaGestionService.crearCuenta(cuentaDTO).join();
+
+        assertEquals("10000000009", cuentaEntidad.getNumeroCuenta(), "Debería asignarse el número generado.");
+        assertEquals(EstadoCuenta.ACTIVO, cuentaEntidad.getEstado());
+        verify(cuentaRepository, never()).existsByNumeroCuenta(any());
+    }
+
+    @Test
+    void crearCuentas_DeberiaCrearLasValidasEInformarCadaFilaRechazada() {
+        log.info("Iniciando prueba: crearCuentas_DeberiaCrearLasValidasEInformarCadaFilaRechazada");
+
+        List<CuentaDTO> lote = List.of(
+                cuentaLote(null, 1L),            // válida, número generado
+                cuentaLote("2233445566", 1L),    // válida
+                cuentaLote("2233445566", 1L),    // repetida en el lote
+                cuentaLote("9876543210", 1L),    // ya existe
+                cuentaLote(null, 2L),            // cliente inexistente
+                cuentaLote("123", 1L),           // no cumple el patrón de la entidad
+                cuentaLote("10000000009", 1L));  // reservado para los números generados
+
+        when(clienteValidacionService.buscarClientesInexistentes(anyCollection())).thenReturn(Set.of(2L));
+        when(cuentaRepository.buscarNumerosExistentes(anyCollection())).thenReturn(Set.of("9876543210"));
+        when(cuentaMapper.convertirDtoAEntidad(any(CuentaDTO.class))).thenAnswer(invocacion -> {
+            CuentaDTO dto = invocacion.getArgument(0);
+            return Cuenta.builder()
+                    .id(99L)
+                    .numeroCuenta(dto.getNumeroCuenta())
+                    .saldoCentavos(0L)
+                    .tipoCuenta(dto.getTipoCuenta())
+                    .clienteId(dto.getClienteId())
+                    .build();
+        });
+        when(generadorNumerosCuenta.siguienteNumero()).thenReturn("10000000009");
+        Validator validadorReal = Validation.buildDefaultValidatorFactory().getValidator();
+        when(validator.validate(any(Cuenta.class))).thenAnswer(invocacion ->
+                validadorReal.validate(invocacion.<Cuenta>getArgument(0)));
+        when(cuentaRepository.saveAll(anyList())).thenAnswer(invocacion -> {
+            List<Cuenta> cuentas = invocacion.getArgument(0);
+            long id = 1;
+            for (Cuenta cuenta : cuentas) {
+                cuenta.setId(id++);
+            }
+            return cuentas;
+        });
+
+        List<ResultadoCreacionCuentaDTO> resultados = cuentaGestionService.crearCuentas(lote);
+        log.info("Resultados del lote: {}", resultados);
+
+        assertEquals(7, resultados.size());
+        assertTrue(resultados.get(0).isExitosa());
+        assertEquals("10000000009", resultados.get(0).getNumeroCuenta());
+        assertEquals(1L, resultados.get(0).getId());
+        assertTrue(resultados.get(1).isExitosa());
+        assertEquals(2L, resultados.get(1).getId());
+        assertTrue(resultados.get(2).getMensaje().contains("repetido"));
+        assertTrue(resultados.get(3).getMensaje().contains("ya existe"));
+        assertEquals("El cliente con ID: 2 no existe.", resultados.get(4).getMensaje());
+        assertTrue(resultados.get(5).getMensaje().contains("10 y 12 dígitos"));
+        assertTrue(resultados.get(6).getMensaje().contains("reservado"));
+        for (int i = 0; i < resultados.size(); i++) {
+            assertEquals(i, resultados.get(i).getIndice());
+        }
+
+        // Los clientes se validan con una sola consulta por lote y los números existentes también
+        verify(clienteValidacionService, times(1)).buscarClientesInexistentes(
+                argThat((Collection<Long> ids) -> ids.containsAll(List.of(1L, 2L))));
+        verify(clienteValidacionService, never()).validarCliente(any());
+        verify(cuentaRepository, times(1)).buscarNumerosExistentes(anyCollection());
+        verify(cuentaRepository, never()).existsByNumeroCuenta(any());
+        verify(cuentaRepository, times(1)).saveAll(argThat((Collection<Cuenta> cuentas) -> cuentas.size() == 2
+                && cuentas.stream().allMatch(cuenta -> cuenta.getEstado() == EstadoCuenta.ACTIVO)));
+        verify(registroMovimientos, times(2)).registrar(any(Cuenta.class), eq(TipoMovimiento.APERTURA), eq(0L), isNull());
+    }
+
+    @Test
+    void crearCuentas_SinCuentasValidas_NoDeberiaAbrirTransaccion() {
+        log.info("Iniciando prueba: crearCuentas_SinCuentasValidas_NoDeberiaAbrirTransaccion");
+
+        when(clienteValidacionService.buscarClientesInexistentes(anyCollection())).thenReturn(Set.of(2L));
+        when(cuentaMapper.convertirDtoAEntidad(any(CuentaDTO.class))).thenReturn(Cuenta.builder().clienteId(2L).build());
+
+        List<ResultadoCreacionCuentaDTO> resultados = cuentaGestionService.crearCuentas(List.of(cuentaLote(null, 2L)));
+
+        assertFalse(resultados.get(0).isExitosa());
+        verify(transacciones, never()).execute(any());
+        verify(eventos, never()).publishEvent(any());
+    }
+
+    private static CuentaDTO cuentaLote(String numeroCuenta, Long clienteId) {
+        return CuentaDTO.builder()
+                .numeroCuenta(numeroCuenta)
+                .saldo(BigDecimal.ZERO)
+                .tipoCuenta(TipoCuenta.AHORROS)
+                .clienteId(clienteId)
+                .build();
     }
 
     @Test
@@ -101,20 +255,105 @@ class CuentaGestionServiceImplTest {
         CuentaDTO cuentaDTO = CuentaDTO.builder()
                 .id(1L)
                 .numeroCuenta("1234567890")
-                .saldo(1000.0)
+                .saldo(new BigDecimal("1000.00"))
                 .tipoCuenta(TipoCuenta.AHORROS)
                 .clienteId(1L)
                 .estado(EstadoCuenta.ACTIVO)
                 .build();
 
-        when(clienteFeign.obtenerCliente(1L)).thenReturn(ResponseEntity.ok(ApiResponse.<Cliente>builder().datos(null).build()));
+        when(cuentaMapper.convertirDtoAEntidad(cuentaDTO)).thenReturn(Cuenta.builder().numeroCuenta("1234567890").clienteId(1L).build());
+        when(clienteValidacionService.validarClienteAsync(1L))
+                .thenReturn(CompletableFuture.failedFuture(new ClienteNoEncontradoException("El cliente con ID: 1 no existe.")));
+
+        CompletionException exception = assertThrows(CompletionException.class, () -> cuentaGestionService.crearCuenta(cuentaDTO).join());
+
+        log.error("Excepción lanzada: {}", exception.getCause().getMessage());
+        assertInstanceOf(ClienteNoEncontradoException.class, exception.getCause());
+        verify(cuentaRepository, never()).save(any(Cuenta.class));
+    }
+
+    @Test
+    void crearCuenta_DeberiaComprobarElNumeroMientrasSeValidaElCliente() {
+        log.info("Iniciando prueba: crearCuenta_DeberiaComprobarElNumeroMientrasSeValidaElCliente");
+
+        CuentaDTO cuentaDTO = cuentaLote("1234567890", 1L);
+        Cuenta cuentaEntidad = Cuenta.builder().numeroCuenta("1234567890").saldoCentavos(0L).clienteId(1L).build();
+        CompletableFuture<Cliente> validacion = new CompletableFuture<>();
+        when(cuentaMapper.convertirDtoAEntidad(cuentaDTO)).thenReturn(cuentaEntidad);
+        when(clienteValidacionService.validarClienteAsync(1L)).thenReturn(validacion);
+        when(cuentaRepository.save(cuentaEntidad)).thenReturn(cuentaEntidad);
+        when(cuentaMapper.convertEntidadADto(cuentaEntidad)).thenReturn(cuentaDTO);
+
+        CompletableFuture<CuentaDTO> resultado = cuentaGestionService.crearCuenta(cuentaDTO);
+
+        // La consulta a la base de datos no espera a CUSTOMER-MS; la inserción sí
+        verify(cuentaRepository, times(1)).existsByNumeroCuenta("1234567890");
+        verify(cuentaRepository, never()).save(any(Cuenta.class));
+        assertFalse(resultado.isDone());
+
+        validacion.complete(new Cliente());
+
+        assertSame(cuentaDTO, resultado.join());
+        verify(cuentaRepository, times(1)).save(cuentaEntidad);
+    }
+
+    @Test
+    void crearCuenta_CuandoElNumeroYaExiste_DeberiaFallarSinEsperarAlCliente() {
+        log.info("Iniciando prueba: crearCuenta_CuandoElNumeroYaExiste_DeberiaFallarSinEsperarAlCliente");
+
+        CuentaDTO cuentaDTO = cuentaLote("1234567890", 1L);
+        CompletableFuture<Cliente> validacion = new CompletableFuture<>();
+        when(cuentaMapper.convertirDtoAEntidad(cuentaDTO)).thenReturn(Cuenta.builder().numeroCuenta("1234567890").clienteId(1L).build());
+        when(clienteValidacionService.validarClienteAsync(1L)).thenReturn(validacion);
+        when(cuentaRepository.existsByNumeroCuenta("1234567890")).thenReturn(true);
+
+        CompletableFuture<CuentaDTO> resultado = cuentaGestionService.crearCuenta(cuentaDTO);
 
-        ClienteNoEncontradoException exception = assertThrows(ClienteNoEncontradoException.class, () -> cuentaGestionService.crearCuenta(cuentaDTO));
+        CompletionException exception = assertThrows(CompletionException.class, resultado::join);
+        assertInstanceOf(CuentaYaExisteException.class, exception.getCause());
+        // Se deja de esperar la validación del cliente
+        assertTrue(validacion.isCancelled());
+        verify(cuentaRepository, never()).save(any(Cuenta.class));
+    }
+
+    @Test
+    void crearCuenta_ConNumeroReservadoParaLaSecuencia_DeberiaRechazarlo() {
+        log.info("Iniciando prueba: crearCuenta_ConNumeroReservadoParaLaSecuencia_DeberiaRechazarlo");
+
+        // Mismo formato que los generados: 10 dígitos de secuencia y dígito de control válido
+        CuentaDTO cuentaDTO = cuentaLote("10000000009", 1L);
+        when(cuentaMapper.convertirDtoAEntidad(cuentaDTO)).thenReturn(Cuenta.builder().numeroCuenta("10000000009").clienteId(1L).build());
+        when(clienteValidacionService.validarClienteAsync(1L)).thenReturn(new CompletableFuture<>());
 
-        log.error("Excepción lanzada: {}", exception.getMessage());
+        CompletionException exception = assertThrows(CompletionException.class, () -> cuentaGestionService.crearCuenta(cuentaDTO).join());
+
+        assertInstanceOf(IllegalArgumentException.class, exception.getCause());
+        log.error("Excepción lanzada: {}", exception.getCause().getMessage());
+        verify(cuentaRepository, never()).existsByNumeroCuenta(any());
         verify(cuentaRepository, never()).save(any(Cuenta.class));
     }
 
+    @Test
+    void crearCuenta_CuandoElClienteNoExiste_DeberiaCancelarElPasoPendiente() {
+        log.info("Iniciando prueba: crearCuenta_CuandoElClienteNoExiste_DeberiaCancelarElPasoPendiente");
+
+        CuentaDTO cuentaDTO = cuentaLote("1234567890", 2L);
+        CompletableFuture<Cliente> validacion = new CompletableFuture<>();
+        CompletableFuture<Object> pasoEnCola = new CompletableFuture<>();
+        when(cuentaMapper.convertirDtoAEntidad(cuentaDTO)).thenReturn(Cuenta.builder().numeroCuenta("1234567890").clienteId(2L).build());
+        when(clienteValidacionService.validarClienteAsync(2L)).thenReturn(validacion);
+        // El paso de base de datos queda en la cola del ejecutor
+        doReturn(pasoEnCola).when(ejecutorCreacion).ejecutar(any());
+
+        CompletableFuture<CuentaDTO> resultado = cuentaGestionService.crearCuenta(cuentaDTO);
+        validacion.completeExceptionally(new ClienteNoEncontradoException("El cliente con ID: 2 no existe."));
+
+        CompletionException exception = assertThrows(CompletionException.class, resultado::join);
+        assertInstanceOf(ClienteNoEncontradoException.class, exception.getCause());
+        assertTrue(pasoEnCola.isCancelled());
+        verify(ejecutorCreacion, times(1)).ejecutar(any());
+    }
+
     @Test
     void actualizarCuenta_CuandoCuentaExiste_DeberiaActualizarCorrectamente() {
         log.info("Iniciando prueba: actualizarCuenta_CuandoCuentaExiste_DeberiaActualizarCorrectamente");
@@ -122,7 +361,7 @@ class CuentaGestionServiceImplTest {
         Cuenta cuentaExistente = Cuenta.builder()
                 .id(1L)
                 .numeroCuenta("1234567890")
-                .saldo(1000.0)
+                .saldoCentavos(100_000L)
                 .tipoCuenta(TipoCuenta.AHORROS)
                 .clienteId(1L)
                 .estado(EstadoCuenta.ACTIVO)
@@ -131,7 +370,7 @@ class CuentaGestionServiceImplTest {
         CuentaDTO cuentaDTO = CuentaDTO.builder()
                 .id(1L)
                 .numeroCuenta("1234567890")
-                .saldo(2000.0)
+                .saldo(new BigDecimal("2000.00"))
                 .tipoCuenta(TipoCuenta.CORRIENTE)
                 .clienteId(1L)
                 .estado(EstadoCuenta.ACTIVO)
@@ -146,7 +385,8 @@ class CuentaGestionServiceImplTest {
         log.info("Resultado obtenido para actualizar cuenta: {}", resultado);
 
         assertNotNull(resultado);
-        assertEquals(2000.0, resultado.getSaldo(), "El saldo debería ser 2000.0.");
+        assertEquals(new BigDecimal("2000.00"), resultado.getSaldo(), "El saldo debería ser 2000.00.");
         verify(cuentaRepository, times(1)).save(cuentaExistente);
+        verify(registroMovimientos, times(1)).registrar(cuentaExistente, TipoMovimiento.AJUSTE, 100_000L, null);
     }
 }
@@ -0,0 +1,97 @@
+package com.paucar.accountms.gestion;
+
+import com.paucar.accountms.service.gestion.GeneradorNumerosCuenta;
+import com.paucar.accountms.util.Luhn;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class GeneradorNumerosCuentaTest {
+
+    private static final Logger log = LoggerFactory.getLogger(GeneradorNumerosCuentaTest.class);
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private GeneradorNumerosCuenta generador;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        generador = new GeneradorNumerosCuenta(jdbcTemplate, transactionManager, 3);
+        when(jdbcTemplate.update(anyString(), eq(3), eq("numero_cuenta"))).thenReturn(1);
+    }
+
+    @Test
+    void siguienteNumero_DeberiaRepartirElBloqueReservadoSinVolverALaBaseDeDatos() {
+        log.info("Iniciando prueba: siguienteNumero_DeberiaRepartirElBloqueReservadoSinVolverALaBaseDeDatos");
+
+        // Dos bloques de 3: [1000000000, 1000000003) y [1000000003, 1000000006)
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class), eq("numero_cuenta")))
+                .thenReturn(1_000_000_003L, 1_000_000_006L);
+
+        List<String> numeros = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            numeros.add(generador.siguienteNumero());
+        }
+        log.info("Números generados: {}", numeros);
+
+        assertEquals("10000000009", numeros.get(0));
+        assertEquals(5, new HashSet<>(numeros).size(), "Los números no deberían repetirse.");
+        assertTrue(numeros.stream().allMatch(numero -> numero.length() == 11 && Luhn.esValido(numero)));
+        assertTrue(numeros.get(4).startsWith("1000000004"));
+        verify(jdbcTemplate, times(2)).update(anyString(), eq(3), eq("numero_cuenta"));
+        verify(transactionManager, times(2)).commit(any());
+    }
+
+    @Test
+    void siguienteNumero_CuandoLaSecuenciaSeAgota_DeberiaLanzarExcepcion() {
+        log.info("Iniciando prueba: siguienteNumero_CuandoLaSecuenciaSeAgota_DeberiaLanzarExcepcion");
+
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class), eq("numero_cuenta")))
+                .thenReturn(10_000_000_002L);
+
+        IllegalStateException exception = assertThrows(IllegalStateException.class, generador::siguienteNumero);
+
+        log.error("Excepción lanzada: {}", exception.getMessage());
+    }
+
+    @Test
+    void siguienteNumero_CuandoNoExisteLaSecuencia_DeberiaLanzarExcepcion() {
+        log.info("Iniciando prueba: siguienteNumero_CuandoNoExisteLaSecuencia_DeberiaLanzarExcepcion");
+
+        when(jdbcTemplate.update(anyString(), eq(3), eq("numero_cuenta"))).thenReturn(0);
+
+        assertThrows(IllegalStateException.class, generador::siguienteNumero);
+        verify(transactionManager, times(1)).rollback(any());
+    }
+
+    @Test
+    void esReservado_DeberiaReconocerLosNumerosQuePuedeGenerarLaSecuencia() {
+        log.info("Iniciando prueba: esReservado_DeberiaReconocerLosNumerosQuePuedeGenerarLaSecuencia");
+
+        assertTrue(GeneradorNumerosCuenta.esReservado("10000000009"));
+        assertTrue(GeneradorNumerosCuenta.esReservado("79927398713"));
+        assertFalse(GeneradorNumerosCuenta.esReservado("10000000008"), "Sin dígito de control válido no es generado.");
+        assertFalse(GeneradorNumerosCuenta.esReservado("09999999999"), "El cuerpo queda por debajo de la secuencia.");
+        assertFalse(GeneradorNumerosCuenta.esReservado("1234567890"));
+        assertFalse(GeneradorNumerosCuenta.esReservado("100000000093"));
+        assertFalse(GeneradorNumerosCuenta.esReservado(null));
+    }
+}
@@ -0,0 +1,237 @@
+package com.paucar.accountms.idempotencia;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.paucar.accountms.dto.CuentaDTO;
+import com.paucar.accountms.exception.ClaveIdempotenciaReutilizadaException;
+import com.paucar.accountms.exception.SaldoInsuficienteException;
+import com.paucar.accountms.exception.SolicitudEnCursoException;
+import com.paucar.accountms.model.ClaveIdempotencia;
+import com.paucar.accountms.repository.ClaveIdempotenciaRepository;
+import com.paucar.accountms.service.idempotencia.IdempotenciaServiceImpl;
+import com.paucar.accountms.util.ApiResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class IdempotenciaServiceImplTest {
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotenciaServiceImplTest.class);
+
+    private static final String HUELLA = "depositar:1234567890:10000";
+
+    @Mock
+    private ClaveIdempotenciaRepository claveIdempotenciaRepository;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private IdempotenciaServiceImpl idempotenciaService;
+
+    private AtomicInteger ejecuciones;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        idempotenciaService = new IdempotenciaServiceImpl(claveIdempotenciaRepository, objectMapper,
+                new SimpleMeterRegistry(), Duration.ofHours(24), Duration.ofMinutes(5), 1000);
+        ejecuciones = new AtomicInteger();
+    }
+
+    @Test
+    void ejecutar_SinClave_DeberiaEjecutarLaOperacionSinRegistrarNada() {
+        log.info("Iniciando prueba: ejecutar_SinClave_DeberiaEjecutarLaOperacionSinRegistrarNada");
+
+        idempotenciaService.ejecutar(null, HUELLA, CuentaDTO.class, deposito());
+        idempotenciaService.ejecutar(null, HUELLA, CuentaDTO.class, deposito());
+
+        assertEquals(2, ejecuciones.get());
+        verifyNoInteractions(claveIdempotenciaRepository);
+    }
+
+    @Test
+    void ejecutar_RepetidaEnLaMismaInstancia_DeberiaDevolverLaRespuestaOriginalDesdeMemoria() {
+        log.info("Iniciando prueba: ejecutar_RepetidaEnLaMismaInstancia_DeberiaDevolverLaRespuestaOriginalDesdeMemoria");
+
+        ResponseEntity<ApiResponse<CuentaDTO>> original = idempotenciaService.ejecutar("clave-1", HUELLA, CuentaDTO.class, deposito());
+        ResponseEntity<ApiResponse<CuentaDTO>> repetida = idempotenciaService.ejecutar("clave-1", HUELLA, CuentaDTO.class, deposito());
+
+        assertEquals(1, ejecuciones.get());
+        assertSame(original.getBody(), repetida.getBody());
+        assertEquals(HttpStatus.OK, repetida.getStatusCode());
+        verify(claveIdempotenciaRepository, times(1)).reservar(eq("clave-1"), eq(HUELLA), any(Instant.class));
+        verify(claveIdempotenciaRepository, times(1)).completar(eq("clave-1"), eq(200), contains("\"saldo\":1100.00"), any(Instant.class));
+        verify(claveIdempotenciaRepository, never()).findByClaveAndExpiraAfter(any(), any());
+    }
+
+    @Test
+    void ejecutar_ConClaveCompletadaEnLaTabla_DeberiaRepetirLaRespuestaGuardada() throws Exception {
+        log.info("Iniciando prueba: ejecutar_ConClaveCompletadaEnLaTabla_DeberiaRepetirLaRespuestaGuardada");
+
+        String guardada = objectMapper.writeValueAsString(deposito().get().getBody());
+        ejecuciones.set(0);
+        when(claveIdempotenciaRepository.reservar(eq("clave-1"), eq(HUELLA), any(Instant.class)))
+                .thenThrow(new DataIntegrityViolationException("Duplicate entry"));
+        when(claveIdempotenciaRepository.findByClaveAndExpiraAfter(eq("clave-1"), any(Instant.class)))
+                .thenReturn(Optional.of(new ClaveIdempotencia("clave-1", HUELLA, 200, guardada, Instant.now().plus(Duration.ofHours(1)))));
+
+        ResponseEntity<ApiResponse<CuentaDTO>> repetida = idempotenciaService.ejecutar("clave-1", HUELLA, CuentaDTO.class, deposito());
+
+        assertEquals(0, ejecuciones.get());
+        assertEquals(HttpStatus.OK, repetida.getStatusCode());
+        assertEquals(new BigDecimal("1100.00"), repetida.getBody().getDatos().getSaldo());
+        verify(claveIdempotenciaRepository, never()).completar(any(), anyInt(), any(), any());
+    }
+
+    @Test
+    void ejecutar_ConClaveEnCurso_DeberiaLanzarExcepcion() {
+        log.info("Iniciando prueba: ejecutar_ConClaveEnCurso_DeberiaLanzarExcepcion");
+
+        when(claveIdempotenciaRepository.reservar(eq("clave-1"), eq(HUELLA), any(Instant.class)))
+                .thenThrow(new DataIntegrityViolationException("Duplicate entry"));
+        when(claveIdempotenciaRepository.findByClaveAndExpiraAfter(eq("clave-1"), any(Instant.class)))
+                .thenReturn(Optional.of(new ClaveIdempotencia("clave-1", HUELLA, null, null, Instant.now().plus(Duration.ofHours(1)))));
+
+        SolicitudEnCursoException exception = assertThrows(SolicitudEnCursoException.class,
+                () -> idempotenciaService.ejecutar("clave-1", HUELLA, CuentaDTO.class, deposito()));
+
+        log.error("Excepción lanzada: {}", exception.getMessage());
+        assertEquals(0, ejecuciones.get());
+    }
+
+    @Test
+    void ejecutar_ConClaveExpiradaEnLaTabla_DeberiaReemplazarlaYEjecutarLaOperacion() {
+        log.info("Iniciando prueba: ejecutar_ConClaveExpiradaEnLaTabla_DeberiaReemplazarlaYEjecutarLaOperacion");
+
+        when(claveIdempotenciaRepository.reservar(eq("clave-1"), eq(HUELLA), any(Instant.class)))
+                .thenThrow(new DataIntegrityViolationException("Duplicate entry"));
+        when(claveIdempotenciaRepository.reemplazarExpirada(eq("clave-1"), eq(HUELLA), any(Instant.class), any(Instant.class)))
+                .thenReturn(1);
+
+        idempotenciaService.ejecutar("clave-1", HUELLA, CuentaDTO.class, deposito());
+
+        assertEquals(1, ejecuciones.get());
+        verify(claveIdempotenciaRepository, times(1)).completar(eq("clave-1"), eq(200), any(), any());
+        verify(claveIdempotenciaRepository, never()).findByClaveAndExpiraAfter(any(), any());
+    }
+
+    @Test
+    void ejecutar_CuandoExpiraLaClaveLeidaDeLaTabla_NoDeberiaRepetirLaRespuestaDesdeMemoria() throws Exception {
+        log.info("Iniciando prueba: ejecutar_CuandoExpiraLaClaveLeidaDeLaTabla_NoDeberiaRepetirLaRespuestaDesdeMemoria");
+
+        String guardada = objectMapper.writeValueAsString(deposito().get().getBody());
+        ejecuciones.set(0);
+        when(claveIdempotenciaRepository.reservar(eq("clave-1"), eq(HUELLA), any(Instant.class)))
+                .thenThrow(new DataIntegrityViolationException("Duplicate entry"));
+        // La fila vence en 50 ms; al repetir después, ya puede reemplazarse
+        when(claveIdempotenciaRepository.findByClaveAndExpiraAfter(eq("clave-1"), any(Instant.class)))
+                .thenReturn(Optional.of(new ClaveIdempotencia("clave-1", HUELLA, 200, guardada, Instant.now().plusMillis(50))));
+        when(claveIdempotenciaRepository.reemplazarExpirada(eq("clave-1"), eq(HUELLA), any(Instant.class), any(Instant.class)))
+                .thenReturn(0)
+                .thenReturn(1);
+
+        idempotenciaService.ejecutar("clave-1", HUELLA, CuentaDTO.class, deposito());
+        assertEquals(0, ejecuciones.get());
+
+        Thread.sleep(100);
+        idempotenciaService.ejecutar("clave-1", HUELLA, CuentaDTO.class, deposito());
+
+        assertEquals(1, ejecuciones.get());
+        verify(claveIdempotenciaRepository, times(1)).findByClaveAndExpiraAfter(eq("clave-1"), any(Instant.class));
+    }
+
+    @Test
+    void ejecutar_ConClaveUsadaEnOtraSolicitud_DeberiaLanzarExcepcion() {
+        log.info("Iniciando prueba: ejecutar_ConClaveUsadaEnOtraSolicitud_DeberiaLanzarExcepcion");
+
+        idempotenciaService.ejecutar("clave-1", HUELLA, CuentaDTO.class, deposito());
+
+        ClaveIdempotenciaReutilizadaException exception = assertThrows(ClaveIdempotenciaReutilizadaException.class,
+                () -> idempotenciaService.ejecutar("clave-1", "retirar:1234567890:10000", CuentaDTO.class, deposito()));
+
+        log.error("Excepción lanzada: {}", exception.getMessage());
+        assertEquals(1, ejecuciones.get());
+    }
+
+    @Test
+    void ejecutar_CuandoLaOperacionFalla_DeberiaLiberarLaClave() {
+        log.info("Iniciando prueba: ejecutar_CuandoLaOperacionFalla_DeberiaLiberarLaClave");
+
+        assertThrows(SaldoInsuficienteException.class, () -> idempotenciaService.ejecutar("clave-1", HUELLA, CuentaDTO.class,
+                () -> {
+                    throw new SaldoInsuficienteException("Saldo insuficiente");
+                }));
+
+        verify(claveIdempotenciaRepository, times(1)).liberar("clave-1");
+        verify(claveIdempotenciaRepository, never()).completar(any(), anyInt(), any(), any());
+    }
+
+    @Test
+    void ejecutar_CuandoFallaLaOperacionYTambienLaLiberacion_DeberiaPropagarElErrorDeLaOperacion() {
+        log.info("Iniciando prueba: ejecutar_CuandoFallaLaOperacionYTambienLaLiberacion_DeberiaPropagarElErrorDeLaOperacion");
+
+        RuntimeException errorLiberacion = new IllegalStateException("Sin conexión");
+        when(claveIdempotenciaRepository.liberar("clave-1")).thenThrow(errorLiberacion);
+
+        SaldoInsuficienteException exception = assertThrows(SaldoInsuficienteException.class,
+                () -> idempotenciaService.ejecutar("clave-1", HUELLA, CuentaDTO.class, () -> {
+                    throw new SaldoInsuficienteException("Saldo insuficiente");
+                }));
+
+        log.error("Excepción lanzada: {}", exception.getMessage());
+        assertArrayEquals(new Throwable[]{errorLiberacion}, exception.getSuppressed());
+    }
+
+    @Test
+    void ejecutar_ConClaveNueva_DeberiaReservarlaPorPocosMinutosYCompletarlaConElTtl() {
+        log.info("Iniciando prueba: ejecutar_ConClaveNueva_DeberiaReservarlaPorPocosMinutosYCompletarlaConElTtl");
+
+        Instant inicio = Instant.now();
+        idempotenciaService.ejecutar("clave-1", HUELLA, CuentaDTO.class, deposito());
+
+        ArgumentCaptor<Instant> reserva = ArgumentCaptor.forClass(Instant.class);
+        ArgumentCaptor<Instant> expira = ArgumentCaptor.forClass(Instant.class);
+        verify(claveIdempotenciaRepository).reservar(eq("clave-1"), eq(HUELLA), reserva.capture());
+        verify(claveIdempotenciaRepository).completar(eq("clave-1"), eq(200), any(), expira.capture());
+        assertFalse(reserva.getValue().isAfter(Instant.now().plus(Duration.ofMinutes(5))));
+        assertFalse(expira.getValue().isBefore(inicio.plus(Duration.ofHours(24))));
+    }
+
+    @Test
+    void ejecutar_ConClaveDemasiadoLarga_DeberiaLanzarExcepcion() {
+        log.info("Iniciando prueba: ejecutar_ConClaveDemasiadoLarga_DeberiaLanzarExcepcion");
+
+        assertThrows(IllegalArgumentException.class,
+                () -> idempotenciaService.ejecutar("x".repeat(101), HUELLA, CuentaDTO.class, deposito()));
+        verifyNoInteractions(claveIdempotenciaRepository);
+    }
+
+    private Supplier<ResponseEntity<ApiResponse<CuentaDTO>>> deposito() {
+        return () -> {
+            ejecuciones.incrementAndGet();
+            CuentaDTO cuenta = CuentaDTO.builder().numeroCuenta("1234567890").saldo(new BigDecimal("1100.00")).build();
+            return ResponseEntity.ok(ApiResponse.<CuentaDTO>builder()
+                    .estado(HttpStatus.OK.value())
+                    .mensaje("Depósito realizado con éxito")
+                    .datos(cuenta)
+                    .build());
+        };
+    }
+}
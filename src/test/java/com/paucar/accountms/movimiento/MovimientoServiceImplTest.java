@@ -0,0 +1,127 @@
+package com.paucar.accountms.movimiento;
+
+import com.paucar.accountms.exception.CuentaNoEncontradaException;
+import com.paucar.accountms.mapper.MovimientoMapper;
+import com.paucar.accountms.model.CorteSaldo;
+import com.paucar.accountms.model.Cuenta;
+import com.paucar.accountms.repository.CorteSaldoRepository;
+import com.paucar.accountms.repository.CuentaRepository;
+import com.paucar.accountms.repository.MovimientoRepository;
+import com.paucar.accountms.service.movimiento.MovimientoServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Limit;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class MovimientoServiceImplTest {
+
+    private static final Logger log = LoggerFactory.getLogger(MovimientoServiceImplTest.class);
+
+    @Mock
+    private CuentaRepository cuentaRepository;
+
+    @Mock
+    private MovimientoRepository movimientoRepository;
+
+    @Mock
+    private CorteSaldoRepository corteSaldoRepository;
+
+    @Mock
+    private MovimientoMapper movimientoMapper;
+
+    private MovimientoServiceImpl movimientoService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        movimientoService = new MovimientoServiceImpl(cuentaRepository, movimientoRepository, corteSaldoRepository,
+                movimientoMapper, Duration.ofMinutes(1));
+        when(cuentaRepository.findByNumeroCuenta("1234567890"))
+                .thenReturn(Optional.of(Cuenta.builder().id(7L).numeroCuenta("1234567890").build()));
+    }
+
+    @Test
+    void obtenerSaldoAl_ConCorte_DeberiaSumarSoloLosMovimientosPosteriores() {
+        log.info("Iniciando prueba: obtenerSaldoAl_ConCorte_DeberiaSumarSoloLosMovimientosPosteriores");
+
+        Instant fecha = Instant.parse("2024-10-01T12:00:00Z");
+        when(corteSaldoRepository.findFirstByCuentaIdAndFechaLessThanEqualOrderByIdDesc(7L, fecha))
+                .thenReturn(Optional.of(CorteSaldo.builder().cuentaId(7L).saldoCentavos(100_000L).ultimoMovimientoId(40L).build()));
+        when(movimientoRepository.sumarDesde(7L, 40L, fecha)).thenReturn(-2_500L);
+
+        assertEquals(97_500L, movimientoService.obtenerSaldoAl("1234567890", fecha));
+    }
+
+    @Test
+    void obtenerSaldoAl_SinCorte_DeberiaSumarDesdeElPrimerMovimiento() {
+        log.info("Iniciando prueba: obtenerSaldoAl_SinCorte_DeberiaSumarDesdeElPrimerMovimiento");
+
+        Instant fecha = Instant.parse("2024-10-01T12:00:00Z");
+        when(corteSaldoRepository.findFirstByCuentaIdAndFechaLessThanEqualOrderByIdDesc(7L, fecha)).thenReturn(Optional.empty());
+        when(movimientoRepository.sumarDesde(7L, 0L, fecha)).thenReturn(12_000L);
+
+        assertEquals(12_000L, movimientoService.obtenerSaldoAl("1234567890", fecha));
+    }
+
+    @Test
+    void obtenerSaldoAl_CuandoCuentaNoExiste_DeberiaLanzarExcepcion() {
+        log.info("Iniciando prueba: obtenerSaldoAl_CuandoCuentaNoExiste_DeberiaLanzarExcepcion");
+
+        when(cuentaRepository.findByNumeroCuenta("0000000000")).thenReturn(Optional.empty());
+
+        assertThrows(CuentaNoEncontradaException.class, () -> movimientoService.obtenerSaldoAl("0000000000", Instant.now()));
+        verifyNoInteractions(movimientoRepository);
+    }
+
+    @Test
+    void obtenerMovimientos_ConCursor_DeberiaPedirLosAnterioresAlCursor() {
+        log.info("Iniciando prueba: obtenerMovimientos_ConCursor_DeberiaPedirLosAnterioresAlCursor");
+
+        when(movimientoRepository.findByCuentaIdAndIdLessThanOrderByIdDesc(7L, 90L, Limit.of(20))).thenReturn(List.of());
+
+        assertTrue(movimientoService.obtenerMovimientos("1234567890", 90L, 20).isEmpty());
+        verify(movimientoRepository, never()).findByCuentaIdOrderByIdDesc(anyLong(), any(Limit.class));
+    }
+
+    @Test
+    void obtenerMovimientos_ConLimiteFueraDeRango_DeberiaLanzarExcepcion() {
+        log.info("Iniciando prueba: obtenerMovimientos_ConLimiteFueraDeRango_DeberiaLanzarExcepcion");
+
+        assertThrows(IllegalArgumentException.class, () -> movimientoService.obtenerMovimientos("1234567890", null, 0));
+        assertThrows(IllegalArgumentException.class, () -> movimientoService.obtenerMovimientos("1234567890", null, 501));
+    }
+
+    @Test
+    void generarCortes_SinMovimientosAntiguos_NoDeberiaGenerarCortes() {
+        log.info("Iniciando prueba: generarCortes_SinMovimientosAntiguos_NoDeberiaGenerarCortes");
+
+        when(corteSaldoRepository.bloquearGeneracionCortes()).thenReturn(Optional.of("cortes_saldo"));
+        when(movimientoRepository.ultimoIdHasta(any(Instant.class))).thenReturn(null);
+
+        assertEquals(0, movimientoService.generarCortes());
+        verify(corteSaldoRepository, never()).generarCortes(anyLong(), any(Instant.class));
+    }
+
+    @Test
+    void generarCortes_CuandoOtraInstanciaTieneElBloqueo_NoDeberiaGenerarCortes() {
+        log.info("Iniciando prueba: generarCortes_CuandoOtraInstanciaTieneElBloqueo_NoDeberiaGenerarCortes");
+
+        when(corteSaldoRepository.bloquearGeneracionCortes()).thenReturn(Optional.empty());
+
+        assertEquals(0, movimientoService.generarCortes());
+        verifyNoInteractions(movimientoRepository);
+        verify(corteSaldoRepository, never()).generarCortes(anyLong(), any(Instant.class));
+    }
+}
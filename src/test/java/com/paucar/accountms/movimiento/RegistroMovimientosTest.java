@@ -0,0 +1,116 @@
+package com.paucar.accountms.movimiento;
+
+import com.paucar.accountms.model.Cuenta;
+import com.paucar.accountms.model.Movimiento;
+import com.paucar.accountms.service.movimiento.RegistroMovimientos;
+import com.paucar.accountms.util.EstadoCuenta;
+import com.paucar.accountms.util.TipoCuenta;
+import com.paucar.accountms.util.TipoMovimiento;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class RegistroMovimientosTest {
+
+    private static final Logger log = LoggerFactory.getLogger(RegistroMovimientosTest.class);
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @InjectMocks
+    private RegistroMovimientos registroMovimientos;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void registrar_DeberiaInsertarTodosLosMovimientosEnUnLoteAlConfirmar() {
+        log.info("Iniciando prueba: registrar_DeberiaInsertarTodosLosMovimientosEnUnLoteAlConfirmar");
+
+        iniciarTransaccion();
+        Cuenta origen = cuenta(1L, 70_000L);
+        Cuenta destino = cuenta(2L, 50_000L);
+
+        registroMovimientos.registrar(origen, TipoMovimiento.TRANSFERENCIA_ENVIADA, -30_000L, "ref-1");
+        registroMovimientos.registrar(destino, TipoMovimiento.TRANSFERENCIA_RECIBIDA, 30_000L, "ref-1");
+
+        // Nada se escribe hasta la confirmación, y ambos movimientos comparten una sola sincronización
+        verifyNoInteractions(jdbcTemplate);
+        assertEquals(1, TransactionSynchronizationManager.getSynchronizations().size());
+
+        TransactionSynchronizationUtils.triggerBeforeCommit(false);
+
+        ArgumentCaptor<List<Movimiento>> lote = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), lote.capture(), eq(2), any());
+        assertEquals(-30_000L, lote.getValue().get(0).getMontoCentavos());
+        assertEquals(70_000L, lote.getValue().get(0).getSaldoCentavos());
+        assertEquals(2L, lote.getValue().get(1).getCuentaId());
+        assertEquals("ref-1", lote.getValue().get(1).getReferencia());
+    }
+
+    @Test
+    void registrar_CuandoLaTransaccionSeRevierte_NoDeberiaEscribirNada() {
+        log.info("Iniciando prueba: registrar_CuandoLaTransaccionSeRevierte_NoDeberiaEscribirNada");
+
+        iniciarTransaccion();
+        registroMovimientos.registrar(cuenta(1L, 150_000L), TipoMovimiento.DEPOSITO, 50_000L, null);
+
+        TransactionSynchronizationUtils.triggerAfterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void registrar_SinTransaccion_DeberiaLanzarExcepcion() {
+        log.info("Iniciando prueba: registrar_SinTransaccion_DeberiaLanzarExcepcion");
+
+        IllegalStateException exception = assertThrows(IllegalStateException.class,
+                () -> registroMovimientos.registrar(cuenta(1L, 150_000L), TipoMovimiento.DEPOSITO, 50_000L, null));
+
+        log.error("Excepción lanzada: {}", exception.getMessage());
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    private void iniciarTransaccion() {
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+    }
+
+    private Cuenta cuenta(Long id, long saldoCentavos) {
+        return Cuenta.builder()
+                .id(id)
+                .numeroCuenta("123456789" + id)
+                .saldoCentavos(saldoCentavos)
+                .tipoCuenta(TipoCuenta.AHORROS)
+                .clienteId(1L)
+                .estado(EstadoCuenta.ACTIVO)
+                .build();
+    }
+}
@@ -0,0 +1,55 @@
+package com.paucar.accountms.repository;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// El bloqueo de la generación de cortes sobre H2 en modo MySQL: mientras una transacción lo tiene, otra no
+// espera y obtiene un resultado vacío; al confirmar la primera, el bloqueo vuelve a estar disponible.
+@Slf4j
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:bloqueos;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class BloqueoCortesTest {
+
+    @Autowired
+    private CorteSaldoRepository corteSaldoRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void testSoloUnaTransaccionObtieneElBloqueoDeCortes() {
+        log.info("Iniciando prueba: testSoloUnaTransaccionObtieneElBloqueoDeCortes");
+        TransactionTemplate transaccion = new TransactionTemplate(transactionManager);
+
+        transaccion.executeWithoutResult(estado -> {
+            assertTrue(corteSaldoRepository.bloquearGeneracionCortes().isPresent());
+
+            // Otra instancia, con su propia conexión y transacción
+            Optional<String> otra = CompletableFuture
+                    .supplyAsync(() -> transaccion.execute(otroEstado -> corteSaldoRepository.bloquearGeneracionCortes()))
+                    .join();
+            assertTrue(otra.isEmpty(), "El bloqueo no debería concederse a otra transacción.");
+        });
+
+        assertTrue(transaccion.execute(estado -> corteSaldoRepository.bloquearGeneracionCortes()).isPresent());
+    }
+}
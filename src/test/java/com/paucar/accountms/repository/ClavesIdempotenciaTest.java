@@ -0,0 +1,91 @@
+package com.paucar.accountms.repository;
+
+import com.paucar.accountms.model.ClaveIdempotencia;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Caducidad de las claves de idempotencia en la tabla, cada paso en su propia transacción como en el servicio:
+// una clave expirada no se lee y puede reservarse de nuevo; una vigente no se reemplaza.
+@Slf4j
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:claves;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ClavesIdempotenciaTest {
+
+    @Autowired
+    private ClaveIdempotenciaRepository claveIdempotenciaRepository;
+
+    @BeforeEach
+    void setUp() {
+        claveIdempotenciaRepository.deleteAll();
+    }
+
+    @Test
+    void testClaveExpiradaSeReemplazaSoloUnaVez() {
+        log.info("Iniciando prueba: testClaveExpiradaSeReemplazaSoloUnaVez");
+        Instant ahora = Instant.now();
+
+        claveIdempotenciaRepository.reservar("clave-1", "depositar:1234567890:10000", ahora.minus(Duration.ofMinutes(1)));
+        claveIdempotenciaRepository.completar("clave-1", 200, "{}", ahora.minus(Duration.ofMinutes(1)));
+        assertTrue(claveIdempotenciaRepository.findByClaveAndExpiraAfter("clave-1", ahora).isEmpty());
+
+        Instant expira = ahora.plus(Duration.ofHours(24));
+        assertEquals(1, claveIdempotenciaRepository.reemplazarExpirada("clave-1", "retirar:1234567890:500", ahora, expira));
+        // La segunda petición que compite por la clave ya la encuentra vigente
+        assertEquals(0, claveIdempotenciaRepository.reemplazarExpirada("clave-1", "depositar:1234567890:10000", ahora, expira));
+
+        ClaveIdempotencia clave = claveIdempotenciaRepository.findByClaveAndExpiraAfter("clave-1", ahora).orElseThrow();
+        assertEquals("retirar:1234567890:500", clave.getHuella());
+        assertNull(clave.getEstadoHttp());
+        assertNull(clave.getRespuesta());
+    }
+
+    @Test
+    void testClaveVigenteNoSeReemplaza() {
+        log.info("Iniciando prueba: testClaveVigenteNoSeReemplaza");
+        Instant ahora = Instant.now();
+
+        claveIdempotenciaRepository.reservar("clave-2", "depositar:1234567890:10000", ahora.plus(Duration.ofHours(1)));
+        claveIdempotenciaRepository.completar("clave-2", 200, "{}", ahora.plus(Duration.ofHours(1)));
+
+        assertEquals(0, claveIdempotenciaRepository.reemplazarExpirada("clave-2", "retirar:1234567890:500",
+                ahora, ahora.plus(Duration.ofHours(24))));
+        ClaveIdempotencia clave = claveIdempotenciaRepository.findByClaveAndExpiraAfter("clave-2", ahora).orElseThrow();
+        assertEquals("depositar:1234567890:10000", clave.getHuella());
+        assertEquals(200, clave.getEstadoHttp());
+    }
+
+    @Test
+    void testReservaEnCursoVenceAntesQueLaClaveCompletada() {
+        log.info("Iniciando prueba: testReservaEnCursoVenceAntesQueLaClaveCompletada");
+        Instant ahora = Instant.now();
+
+        claveIdempotenciaRepository.reservar("clave-3", "depositar:1234567890:10000", ahora.plus(Duration.ofMinutes(5)));
+        claveIdempotenciaRepository.reservar("clave-4", "depositar:1234567890:10000", ahora.plus(Duration.ofMinutes(5)));
+        claveIdempotenciaRepository.completar("clave-4", 200, "{}", ahora.plus(Duration.ofHours(24)));
+
+        // Pasada la reserva, la clave que quedó en curso puede tomarse de nuevo; la completada sigue vigente
+        Instant despues = ahora.plus(Duration.ofMinutes(10));
+        assertTrue(claveIdempotenciaRepository.findByClaveAndExpiraAfter("clave-3", despues).isEmpty());
+        assertEquals(1, claveIdempotenciaRepository.reemplazarExpirada("clave-3", "depositar:1234567890:10000",
+                despues, despues.plus(Duration.ofMinutes(5))));
+        assertEquals(200, claveIdempotenciaRepository.findByClaveAndExpiraAfter("clave-4", despues).orElseThrow().getEstadoHttp());
+    }
+}
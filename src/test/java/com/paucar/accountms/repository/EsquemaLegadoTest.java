@@ -0,0 +1,136 @@
+package com.paucar.accountms.repository;
+
+import com.paucar.accountms.model.Cuenta;
+import com.paucar.accountms.model.Movimiento;
+import com.paucar.accountms.util.EstadoCuenta;
+import com.paucar.accountms.util.TipoCuenta;
+import com.paucar.accountms.util.TipoMovimiento;
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.MigrationInfo;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Arranca sobre una tabla cuentas como la dejaba ddl-auto antes de las migraciones (saldo DOUBLE y sin
+// columna version): Flyway toma V1 como línea base, las demás migraciones deben dejar un esquema que
+// Hibernate valide y las cuentas existentes deben poder leerse, modificarse y consultarse en el registro.
+@Slf4j
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:legado;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.cache.region_prefix=legado"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class EsquemaLegadoTest {
+
+    @TestConfiguration
+    static class EsquemaLegado {
+
+        // Crea el esquema anterior justo antes de que Flyway migre.
+        @Bean
+        FlywayMigrationStrategy crearEsquemaLegado() {
+            return flyway -> {
+                JdbcTemplate jdbcTemplate = new JdbcTemplate(flyway.getConfiguration().getDataSource());
+                jdbcTemplate.execute("""
+                        CREATE TABLE cuentas (
+                            id            BIGINT       NOT NULL AUTO_INCREMENT,
+                            cliente_id    BIGINT       NOT NULL,
+                            estado        ENUM ('ACTIVO', 'INACTIVO', 'CERRADO') NOT NULL,
+                            numero_cuenta VARCHAR(255) NOT NULL,
+                            saldo         DOUBLE       NOT NULL,
+                            tipo_cuenta   ENUM ('AHORROS', 'CORRIENTE') NOT NULL,
+                            PRIMARY KEY (id),
+                            CONSTRAINT uk_legado_numero_cuenta UNIQUE (numero_cuenta)
+                        )""");
+                jdbcTemplate.update("INSERT INTO cuentas (cliente_id, estado, numero_cuenta, saldo, tipo_cuenta) "
+                        + "VALUES (1, 'ACTIVO', '1234567890', 1234.56, 'AHORROS')");
+                jdbcTemplate.update("INSERT INTO cuentas (cliente_id, estado, numero_cuenta, saldo, tipo_cuenta) "
+                        + "VALUES (2, 'ACTIVO', '1234567891', 0.1, 'CORRIENTE')");
+                // La segunda cuenta ya tenía movimientos registrados por ddl-auto, pero no su apertura.
+                jdbcTemplate.execute("""
+                        CREATE TABLE movimientos (
+                            id             BIGINT      NOT NULL AUTO_INCREMENT,
+                            cuenta_id      BIGINT      NOT NULL,
+                            tipo           ENUM ('APERTURA', 'DEPOSITO', 'RETIRO', 'TRANSFERENCIA_ENVIADA', 'TRANSFERENCIA_RECIBIDA', 'AJUSTE') NOT NULL,
+                            monto_centavos BIGINT      NOT NULL,
+                            saldo_centavos BIGINT      NOT NULL,
+                            referencia     VARCHAR(36),
+                            fecha          DATETIME(6) NOT NULL,
+                            PRIMARY KEY (id),
+                            INDEX idx_movimientos_cuenta (cuenta_id, id)
+                        )""");
+                jdbcTemplate.update("INSERT INTO movimientos (cuenta_id, tipo, monto_centavos, saldo_centavos, fecha) "
+                        + "VALUES (2, 'DEPOSITO', 4, 10, TIMESTAMP '2024-01-01 00:00:00')");
+                flyway.migrate();
+            };
+        }
+    }
+
+    @Autowired
+    private CuentaRepository cuentaRepository;
+
+    @Autowired
+    private MovimientoRepository movimientoRepository;
+
+    @Autowired
+    private Flyway flyway;
+
+    @Test
+    void testMigracionesSobreEsquemaLegado() {
+        log.info("Iniciando prueba: testMigracionesSobreEsquemaLegado");
+
+        MigrationInfo[] aplicadas = flyway.info().applied();
+        assertEquals("1", aplicadas[0].getVersion().getVersion(), "V1 debería quedar como línea base.");
+        assertTrue(Arrays.stream(aplicadas).allMatch(migracion -> migracion.getState().isApplied()));
+        assertEquals(flyway.info().current().getVersion(), aplicadas[aplicadas.length - 1].getVersion());
+
+        // El saldo DOUBLE pasa a centavos exactos y las cuentas empiezan en la versión 0.
+        Cuenta cuenta = cuentaRepository.findByNumeroCuenta("1234567890").orElseThrow();
+        assertEquals(123_456L, cuenta.getSaldoCentavos());
+        assertEquals(0L, cuenta.getVersion());
+        assertEquals(10L, cuentaRepository.findByNumeroCuenta("1234567891").orElseThrow().getSaldoCentavos());
+
+        // Cada cuenta recibe su apertura y el registro de movimientos suma su saldo actual.
+        Instant ahora = Instant.now();
+        assertEquals(123_456L, movimientoRepository.sumarDesde(cuenta.getId(), 0L, ahora));
+        assertEquals(TipoMovimiento.APERTURA,
+                movimientoRepository.findByCuentaIdOrderByIdDesc(cuenta.getId(), Limit.of(10)).get(0).getTipo());
+        List<Movimiento> movimientos = movimientoRepository.findByCuentaIdOrderByIdDesc(2L, Limit.of(10));
+        assertEquals(2, movimientos.size());
+        assertEquals(6L, movimientos.get(0).getMontoCentavos());
+        assertEquals(10L, movimientoRepository.sumarDesde(2L, 0L, ahora));
+        // La apertura lleva la fecha del primer movimiento: el saldo desde entonces ya es el correcto.
+        assertEquals(10L, movimientoRepository.sumarDesde(2L, 0L, movimientos.get(1).getFecha()));
+
+        cuenta.setSaldoCentavos(100_000L);
+        cuentaRepository.saveAndFlush(cuenta);
+        assertEquals(1L, cuenta.getVersion());
+
+        // Los ids nuevos continúan después de los de las cuentas existentes.
+        Cuenta nueva = cuentaRepository.saveAndFlush(Cuenta.builder()
+                .numeroCuenta("1234567892")
+                .saldoCentavos(0L)
+                .tipoCuenta(TipoCuenta.AHORROS)
+                .clienteId(3L)
+                .estado(EstadoCuenta.ACTIVO)
+                .build());
+        assertTrue(nueva.getId() > 2L);
+    }
+}
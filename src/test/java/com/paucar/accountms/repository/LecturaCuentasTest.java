@@ -0,0 +1,135 @@
+package com.paucar.accountms.repository;
+
+import com.paucar.accountms.model.Cuenta;
+import com.paucar.accountms.util.EstadoCuenta;
+import com.paucar.accountms.util.TipoCuenta;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Lecturas por número de cuenta intercaladas con depósitos hechos como en el servicio (UPDATE condicional y
+// relectura con buscarEnEscritura en la misma transacción): las lecturas salen de la caché de segundo nivel, y
+// ninguna devuelve el saldo anterior a un depósito ya confirmado.
+@Slf4j
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:lecturas;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        // Las cachés JCache son comunes a toda la JVM: regiones propias para no ver cuentas de otras bases de prueba
+        "spring.jpa.properties.hibernate.cache.region_prefix=lecturas",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class LecturaCuentasTest {
+
+    @Autowired
+    private CuentaRepository cuentaRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private TransactionTemplate transaccion;
+    private Statistics estadisticas;
+
+    @BeforeEach
+    void setUp() {
+        transaccion = new TransactionTemplate(transactionManager);
+        cuentaRepository.deleteAll();
+        for (String numero : new String[]{"1234567890", "1234567891"}) {
+            cuentaRepository.save(Cuenta.builder()
+                    .numeroCuenta(numero)
+                    .saldoCentavos(10_000L)
+                    .tipoCuenta(TipoCuenta.AHORROS)
+                    .clienteId(1L)
+                    .estado(EstadoCuenta.ACTIVO)
+                    .build());
+        }
+        estadisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        estadisticas.clear();
+    }
+
+    @Test
+    void findByNumeroCuenta_DespuesDeCadaDeposito_DeberiaDevolverElSaldoNuevoDesdeLaCache() {
+        log.info("Iniciando prueba: findByNumeroCuenta_DespuesDeCadaDeposito_DeberiaDevolverElSaldoNuevoDesdeLaCache");
+
+        assertEquals(10_000L, saldo("1234567890"));
+        for (int i = 1; i <= 5; i++) {
+            depositar("1234567890", 100L);
+            assertEquals(10_000L + i * 100L, saldo("1234567890"));
+            assertEquals(10_000L + i * 100L, saldo("1234567890"));
+        }
+        assertEquals(10_000L, saldo("1234567891"));
+
+        log.info("Estadísticas: {}", estadisticas);
+        // Las cuentas recién guardadas ya están en la caché. Tras cada depósito la primera lectura va a la base de
+        // datos y vuelve a llenarla; la segunda acierta
+        CacheRegionStatistics region = estadisticas.getDomainDataRegionStatistics("cuentas");
+        assertEquals(7, region.getHitCount());
+        assertEquals(5, region.getMissCount());
+    }
+
+    @Test
+    void findByNumeroCuenta_ConUnaLecturaDuranteElDeposito_NoDeberiaQuedarElSaldoAnteriorEnCache() {
+        log.info("Iniciando prueba: findByNumeroCuenta_ConUnaLecturaDuranteElDeposito_NoDeberiaQuedarElSaldoAnteriorEnCache");
+
+        transaccion.executeWithoutResult(estado -> {
+            cuentaRepository.incrementarSaldo("1234567890", 500L);
+            cuentaRepository.buscarEnEscritura("1234567890").orElseThrow();
+
+            // Otra petición lee la fila antes de la confirmación: obtiene el saldo confirmado hasta ahora,
+            // pero no puede dejarlo en la caché
+            assertEquals(10_000L, CompletableFuture.supplyAsync(() -> saldo("1234567890")).join());
+        });
+
+        assertEquals(10_500L, saldo("1234567890"));
+        assertEquals(10_500L, saldo("1234567890"));
+    }
+
+    @Test
+    void findByNumeroCuenta_TrasUnDepositoRevertido_DeberiaDevolverElSaldoConfirmado() {
+        log.info("Iniciando prueba: findByNumeroCuenta_TrasUnDepositoRevertido_DeberiaDevolverElSaldoConfirmado");
+
+        assertEquals(10_000L, saldo("1234567890"));
+        transaccion.executeWithoutResult(estado -> {
+            cuentaRepository.incrementarSaldo("1234567890", 500L);
+            assertEquals(10_500L, cuentaRepository.buscarEnEscritura("1234567890").orElseThrow().getSaldoCentavos());
+            estado.setRollbackOnly();
+        });
+
+        assertEquals(10_000L, saldo("1234567890"));
+        assertEquals(10_000L, saldo("1234567890"));
+    }
+
+    // Igual que CuentaTransaccionServiceImpl.depositar: UPDATE condicional y relectura en la misma transacción.
+    private void depositar(String numeroCuenta, long monto) {
+        transaccion.executeWithoutResult(estado -> {
+            assertEquals(1, cuentaRepository.incrementarSaldo(numeroCuenta, monto));
+            cuentaRepository.buscarEnEscritura(numeroCuenta).orElseThrow();
+        });
+    }
+
+    private long saldo(String numeroCuenta) {
+        return cuentaRepository.findByNumeroCuenta(numeroCuenta).orElseThrow().getSaldoCentavos();
+    }
+}
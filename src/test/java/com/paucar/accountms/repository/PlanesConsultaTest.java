@@ -0,0 +1,149 @@
+package com.paucar.accountms.repository;
+
+import com.paucar.accountms.model.Cuenta;
+import com.paucar.accountms.util.EstadoCuenta;
+import com.paucar.accountms.util.TipoCuenta;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Aplica las migraciones de db/migration sobre H2 en modo MySQL (Hibernate valida las entidades contra el
+// esquema resultante) y comprueba con EXPLAIN que las consultas de los repositorios usan un índice.
+@Slf4j
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:planes;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.cache.region_prefix=planes",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.paucar.accountms.repository.PlanesConsultaTest$CapturaSql"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class PlanesConsultaTest {
+
+    @Autowired
+    private CuentaRepository cuentaRepository;
+
+    @Autowired
+    private MovimientoRepository movimientoRepository;
+
+    @Autowired
+    private CorteSaldoRepository corteSaldoRepository;
+
+    @Autowired
+    private ClaveIdempotenciaRepository claveIdempotenciaRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        cuentaRepository.saveAndFlush(Cuenta.builder()
+                .numeroCuenta("1234567890")
+                .saldoCentavos(10_000L)
+                .tipoCuenta(TipoCuenta.AHORROS)
+                .clienteId(1L)
+                .estado(EstadoCuenta.ACTIVO)
+                .build());
+        CapturaSql.SENTENCIAS.clear();
+    }
+
+    @Test
+    void testConsultasDeCuentasUsanIndice() {
+        log.info("Iniciando prueba: testConsultasDeCuentasUsanIndice");
+
+        cuentaRepository.buscarProyeccionPorId(1L);
+        cuentaRepository.buscarProyeccionesPorClienteId(1L);
+        cuentaRepository.buscarProyeccionesDespuesDe(0L, Limit.of(10));
+        cuentaRepository.findByNumeroCuenta("1234567890");
+        cuentaRepository.incrementarSaldo("1234567890", 100L);
+        cuentaRepository.decrementarSaldo("1234567890", 100L, 0L);
+        cuentaRepository.bloquearPorNumerosCuenta(List.of("1234567890", "1234567891"));
+
+        comprobarPlanes();
+    }
+
+    @Test
+    void testConsultasDelRegistroUsanIndice() {
+        log.info("Iniciando prueba: testConsultasDelRegistroUsanIndice");
+        Instant ahora = Instant.now();
+
+        movimientoRepository.findByCuentaIdOrderByIdDesc(1L, Limit.of(10));
+        movimientoRepository.findByCuentaIdAndIdLessThanOrderByIdDesc(1L, 100L, Limit.of(10));
+        movimientoRepository.sumarDesde(1L, 0L, ahora);
+        movimientoRepository.ultimoIdHasta(ahora);
+        corteSaldoRepository.findFirstByCuentaIdAndFechaLessThanEqualOrderByIdDesc(1L, ahora);
+
+        comprobarPlanes();
+    }
+
+    @Test
+    void testConsultasDeClavesIdempotenciaUsanIndice() {
+        log.info("Iniciando prueba: testConsultasDeClavesIdempotenciaUsanIndice");
+
+        claveIdempotenciaRepository.completar("clave", 201, "{}", Instant.now());
+        claveIdempotenciaRepository.liberar("clave");
+        claveIdempotenciaRepository.eliminarExpiradas(Instant.now());
+
+        comprobarPlanes();
+    }
+
+    // Ejecuta EXPLAIN sobre cada consulta capturada; H2 indica "tableScan" cuando recorre la tabla completa.
+    private void comprobarPlanes() {
+        List<String> sentencias = new ArrayList<>(CapturaSql.SENTENCIAS);
+        assertFalse(sentencias.isEmpty());
+
+        for (String sql : sentencias) {
+            String plan = explicar(sql);
+            log.info("Plan de {}: {}", sql, plan);
+            assertFalse(plan.contains("tableScan"), () -> "Consulta sin índice: " + sql + "\n" + plan);
+            assertTrue(plan.contains("PUBLIC."), () -> "Plan inesperado: " + plan);
+        }
+    }
+
+    private String explicar(String sql) {
+        return jdbcTemplate.execute((ConnectionCallback<String>) conexion -> {
+            try (PreparedStatement sentencia = conexion.prepareStatement("EXPLAIN " + sql);
+                 ResultSet resultado = sentencia.executeQuery()) {
+                StringBuilder plan = new StringBuilder();
+                while (resultado.next()) {
+                    plan.append(resultado.getString(1));
+                }
+                return plan.toString();
+            }
+        });
+    }
+
+    // Registra las sentencias de lectura, actualización y borrado que Hibernate envía a la base de datos.
+    public static class CapturaSql implements StatementInspector {
+
+        static final List<String> SENTENCIAS = Collections.synchronizedList(new ArrayList<>());
+
+        @Override
+        public String inspect(String sql) {
+            String sentencia = sql.stripLeading().toLowerCase();
+            if (sentencia.startsWith("select") || sentencia.startsWith("update") || sentencia.startsWith("delete")) {
+                SENTENCIAS.add(sql);
+            }
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.paucar.accountms.transaccion;
+
+import com.paucar.accountms.dto.CuentaDTO;
+import com.paucar.accountms.exception.CuentaNoEncontradaException;
+import com.paucar.accountms.service.transaccion.CuentaTransaccionServiceAgrupado;
+import com.paucar.accountms.service.transaccion.CuentaTransaccionServiceImpl;
+import com.paucar.accountms.service.transaccion.ResultadoDepositosAgrupados;
+import com.paucar.accountms.service.validacion.CuentaValidacionService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.CannotAcquireLockException;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class CuentaTransaccionServiceAgrupadoTest {
+
+    private static final Logger log = LoggerFactory.getLogger(CuentaTransaccionServiceAgrupadoTest.class);
+
+    @Mock
+    private CuentaTransaccionServiceImpl delegado;
+
+    @Mock
+    private CuentaValidacionService cuentaValidacionService;
+
+    private CuentaTransaccionServiceAgrupado cuentaTransaccionService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        cuentaTransaccionService = new CuentaTransaccionServiceAgrupado(delegado, cuentaValidacionService,
+                Duration.ofMillis(20), 500, 1, 1000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        cuentaTransaccionService.detener();
+    }
+
+    @Test
+    void depositar_CuandoHayConcurrencia_DeberiaAgruparLosDepositosPorCuenta() throws Exception {
+        log.info("Iniciando prueba: depositar_CuandoHayConcurrencia_DeberiaAgruparLosDepositosPorCuenta");
+
+        List<Map<String, List<Long>>> lotes = new CopyOnWriteArrayList<>();
+        when(delegado.depositarAgrupados(anyMap())).thenAnswer(invocacion -> {
+            Map<String, List<Long>> montosPorCuenta = invocacion.getArgument(0);
+            lotes.add(montosPorCuenta);
+            return aplicarTodos(montosPorCuenta);
+        });
+
+        ExecutorService clientes = Executors.newFixedThreadPool(20);
+        List<CuentaDTO> resultados = new ArrayList<>();
+        try {
+            List<Future<CuentaDTO>> futuros = IntStream.range(0, 40)
+                    .mapToObj(i -> clientes.submit(() -> cuentaTransaccionService.depositar(i % 2 == 0 ? "1234567890" : "0987654321", 100L)))
+                    .toList();
+            for (Future<CuentaDTO> futuro : futuros) {
+                resultados.add(futuro.get());
+            }
+        } finally {
+            clientes.shutdown();
+        }
+
+        log.info("Lotes aplicados: {}", lotes.size());
+        assertTrue(lotes.size() < 40);
+        assertEquals(40, lotes.stream().flatMap(lote -> lote.values().stream()).mapToInt(List::size).sum());
+        assertEquals(40, resultados.stream().filter(resultado -> resultado.getSaldo() != null).count());
+    }
+
+    @Test
+    void depositar_CuandoLaCuentaEsRechazada_DeberiaPropagarLaExcepcionDeEsaCuenta() {
+        log.info("Iniciando prueba: depositar_CuandoLaCuentaEsRechazada_DeberiaPropagarLaExcepcionDeEsaCuenta");
+
+        when(delegado.depositarAgrupados(anyMap())).thenReturn(new ResultadoDepositosAgrupados(Map.of(),
+                Map.of("0000000000", new CuentaNoEncontradaException("Cuenta no encontrada: 0000000000"))));
+
+        CuentaNoEncontradaException exception = assertThrows(CuentaNoEncontradaException.class,
+                () -> cuentaTransaccionService.depositar("0000000000", 100L));
+
+        log.error("Excepción lanzada: {}", exception.getMessage());
+    }
+
+    @Test
+    void depositar_CuandoElLoteFalla_DeberiaPropagarLaExcepcionATodos() {
+        log.info("Iniciando prueba: depositar_CuandoElLoteFalla_DeberiaPropagarLaExcepcionATodos");
+
+        when(delegado.depositarAgrupados(anyMap())).thenThrow(new CannotAcquireLockException("Lock wait timeout"));
+
+        assertThrows(CannotAcquireLockException.class, () -> cuentaTransaccionService.depositar("1234567890", 100L));
+    }
+
+    @Test
+    void depositar_CuandoElAplicadorLanzaUnError_DeberiaFallarElLoteYSeguirAtendiendoLaCola() {
+        log.info("Iniciando prueba: depositar_CuandoElAplicadorLanzaUnError_DeberiaFallarElLoteYSeguirAtendiendoLaCola");
+
+        when(delegado.depositarAgrupados(anyMap()))
+                .thenThrow(new NoClassDefFoundError("com/mysql/cj/jdbc/ClientPreparedStatement"))
+                .thenAnswer(invocacion -> aplicarTodos(invocacion.getArgument(0)));
+
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+            assertThrows(NoClassDefFoundError.class, () -> cuentaTransaccionService.depositar("1234567890", 100L));
+            // El hilo de la franja sigue vivo y aplica el siguiente lote
+            assertNotNull(cuentaTransaccionService.depositar("1234567890", 100L));
+        });
+    }
+
+    @Test
+    void depositar_CuandoElResultadoDelLoteEstaIncompleto_NoDeberiaDejarDepositosSinRespuesta() {
+        log.info("Iniciando prueba: depositar_CuandoElResultadoDelLoteEstaIncompleto_NoDeberiaDejarDepositosSinRespuesta");
+
+        // Un resultado sin saldos para los depósitos de la cuenta hace fallar el reparto del lote
+        when(delegado.depositarAgrupados(anyMap()))
+                .thenReturn(new ResultadoDepositosAgrupados(Map.of("1234567890", List.of()), Map.of()))
+                .thenAnswer(invocacion -> aplicarTodos(invocacion.getArgument(0)));
+
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+            assertThrows(IndexOutOfBoundsException.class, () -> cuentaTransaccionService.depositar("1234567890", 100L));
+            assertNotNull(cuentaTransaccionService.depositar("1234567890", 100L));
+        });
+    }
+
+    @Test
+    void depositar_ConMontoInvalido_NoDeberiaEncolarlo() {
+        log.info("Iniciando prueba: depositar_ConMontoInvalido_NoDeberiaEncolarlo");
+
+        doThrow(new IllegalArgumentException("El monto debe ser mayor a cero.")).when(cuentaValidacionService).validarMonto(0L);
+
+        assertThrows(IllegalArgumentException.class, () -> cuentaTransaccionService.depositar("1234567890", 0L));
+        verify(delegado, never()).depositarAgrupados(anyMap());
+    }
+
+    @Test
+    void retirar_DeberiaDelegarDirectamente() {
+        log.info("Iniciando prueba: retirar_DeberiaDelegarDirectamente");
+
+        CuentaDTO esperado = new CuentaDTO();
+        when(delegado.retirar("1234567890", 100L)).thenReturn(esperado);
+
+        assertSame(esperado, cuentaTransaccionService.retirar("1234567890", 100L));
+        verify(delegado, never()).depositarAgrupados(anyMap());
+    }
+
+    private ResultadoDepositosAgrupados aplicarTodos(Map<String, List<Long>> montosPorCuenta) {
+        Map<String, List<CuentaDTO>> aplicados = new HashMap<>();
+        montosPorCuenta.forEach((numeroCuenta, montos) -> aplicados.put(numeroCuenta, montos.stream()
+                .map(monto -> CuentaDTO.builder().numeroCuenta(numeroCuenta).saldo(BigDecimal.ONE).build())
+                .toList()));
+        return new ResultadoDepositosAgrupados(aplicados, Map.of());
+    }
+}
@@ -1,15 +1,21 @@
 package com.paucar.accountms.transaccion;
 
 import com.paucar.accountms.dto.CuentaDTO;
+import com.paucar.accountms.exception.CuentaInactivaException;
 import com.paucar.accountms.exception.CuentaNoEncontradaException;
 import com.paucar.accountms.exception.SaldoInsuficienteException;
 import com.paucar.accountms.mapper.CuentaMapper;
 import com.paucar.accountms.model.Cuenta;
 import com.paucar.accountms.repository.CuentaRepository;
+import com.paucar.accountms.service.consulta.CuentasModificadasEvento;
+import com.paucar.accountms.service.movimiento.RegistroMovimientos;
 import com.paucar.accountms.service.transaccion.CuentaTransaccionServiceImpl;
+import com.paucar.accountms.service.transaccion.MotorTransferencia;
+import com.paucar.accountms.service.transaccion.ResultadoDepositosAgrupados;
 import com.paucar.accountms.service.validacion.CuentaValidacionService;
 import com.paucar.accountms.util.EstadoCuenta;
 import com.paucar.accountms.util.TipoCuenta;
+import com.paucar.accountms.util.TipoMovimiento;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
@@ -17,7 +23,11 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -36,6 +46,15 @@ class CuentaTransaccionServiceImplTest {
     @Mock
     private CuentaValidacionService cuentaValidacionService;
 
+    @Mock
+    private MotorTransferencia motorTransferencia;
+
+    @Mock
+    private RegistroMovimientos registroMovimientos;
+
+    @Mock
+    private ApplicationEventPublisher eventos;
+
     @InjectMocks
     private CuentaTransaccionServiceImpl cuentaTransaccionService;
 
@@ -49,33 +68,23 @@ class CuentaTransaccionServiceImplTest {
         log.info("Iniciando prueba: depositar_CuandoCuentaExiste_DeberiaDepositarCorrectamente");
 
         String numeroCuenta = "1234567890";
-        Double monto = 900.0;
-
-        Cuenta cuentaExistente = Cuenta.builder()
-                .id(1L)
-                .numeroCuenta(numeroCuenta)
-                .saldo(1000.0)
-                .tipoCuenta(TipoCuenta.AHORROS)
-                .clienteId(1L)
-                .estado(EstadoCuenta.ACTIVO)
-                .build();
-
-        when(cuentaRepository.findByNumeroCuenta(numeroCuenta)).thenReturn(Optional.of(cuentaExistente));
+        long monto = 50_000L;
 
         Cuenta cuentaConSaldoActualizado = Cuenta.builder()
                 .id(1L)
                 .numeroCuenta(numeroCuenta)
-                .saldo(1500.0)
+                .saldoCentavos(150_000L)
                 .tipoCuenta(TipoCuenta.AHORROS)
                 .clienteId(1L)
                 .estado(EstadoCuenta.ACTIVO)
                 .build();
 
-        when(cuentaRepository.save(any(Cuenta.class))).thenReturn(cuentaConSaldoActualizado);
+        when(cuentaRepository.incrementarSaldo(numeroCuenta, monto)).thenReturn(1);
+        when(cuentaRepository.buscarEnEscritura(numeroCuenta)).thenReturn(Optional.of(cuentaConSaldoActualizado));
 
         CuentaDTO cuentaDTOEsperado = CuentaDTO.builder()
                 .numeroCuenta(numeroCuenta)
-                .saldo(1500.0)
+                .saldo(new BigDecimal("1500.00"))
                 .tipoCuenta(TipoCuenta.AHORROS)
                 .estado(EstadoCuenta.ACTIVO)
                 .build();
@@ -86,9 +95,48 @@ class CuentaTransaccionServiceImplTest {
         log.info("Resultado obtenido para depósito: {}", resultado);
 
         assertNotNull(resultado);
-        assertEquals(1500.0, resultado.getSaldo());
+        assertEquals(new BigDecimal("1500.00"), resultado.getSaldo());
         assertEquals(numeroCuenta, resultado.getNumeroCuenta());
-        verify(cuentaRepository, times(1)).save(any(Cuenta.class));
+        verify(cuentaRepository, times(1)).incrementarSaldo(numeroCuenta, monto);
+        verify(cuentaRepository, never()).save(any(Cuenta.class));
+        verify(eventos, times(1)).publishEvent(CuentasModificadasEvento.de(1L));
+        verify(registroMovimientos, times(1)).registrar(cuentaConSaldoActualizado, TipoMovimiento.DEPOSITO, monto, null);
+    }
+
+    @Test
+    void depositarAgrupados_DeberiaAplicarUnUpdatePorCuentaYUnMovimientoPorDeposito() {
+        log.info("Iniciando prueba: depositarAgrupados_DeberiaAplicarUnUpdatePorCuentaYUnMovimientoPorDeposito");
+
+        Cuenta cuenta = Cuenta.builder()
+                .id(1L)
+                .numeroCuenta("1234567890")
+                .saldoCentavos(100_600L)
+                .tipoCuenta(TipoCuenta.AHORROS)
+                .clienteId(1L)
+                .estado(EstadoCuenta.ACTIVO)
+                .build();
+        when(cuentaRepository.incrementarSaldo("1234567890", 600L)).thenReturn(1);
+        when(cuentaRepository.buscarEnEscritura("1234567890")).thenReturn(Optional.of(cuenta));
+        when(cuentaRepository.incrementarSaldo("0000000000", 700L)).thenReturn(0);
+        when(cuentaRepository.buscarEnEscritura("0000000000")).thenReturn(Optional.empty());
+        when(cuentaMapper.convertEntidadADto(cuenta)).thenAnswer(invocacion -> CuentaDTO.builder().numeroCuenta("1234567890").build());
+
+        ResultadoDepositosAgrupados resultado = cuentaTransaccionService.depositarAgrupados(Map.of(
+                "1234567890", List.of(100L, 200L, 300L),
+                "0000000000", List.of(700L)));
+
+        // Cada depósito recibe el saldo que dejó, en el orden en que llegó
+        List<CuentaDTO> cuentas = resultado.aplicados().get("1234567890");
+        assertEquals(new BigDecimal("1001.00"), cuentas.get(0).getSaldo());
+        assertEquals(new BigDecimal("1003.00"), cuentas.get(1).getSaldo());
+        assertEquals(new BigDecimal("1006.00"), cuentas.get(2).getSaldo());
+        verify(registroMovimientos, times(1)).registrar(cuenta, 100_100L, TipoMovimiento.DEPOSITO, 100L, null);
+        verify(registroMovimientos, times(1)).registrar(cuenta, 100_600L, TipoMovimiento.DEPOSITO, 300L, null);
+        verify(cuentaRepository, times(1)).incrementarSaldo("1234567890", 600L);
+
+        // La cuenta inexistente se informa sin afectar a la otra
+        assertInstanceOf(CuentaNoEncontradaException.class, resultado.rechazados().get("0000000000"));
+        verify(eventos, times(1)).publishEvent(CuentasModificadasEvento.de(1L));
     }
 
     @Test
@@ -96,9 +144,10 @@ class CuentaTransaccionServiceImplTest {
         log.info("Iniciando prueba: depositar_CuandoCuentaNoExiste_DeberiaLanzarExcepcion");
 
         String numeroCuenta = "1234567890";
-        Double monto = 500.0;
+        long monto = 50_000L;
 
-        when(cuentaRepository.findByNumeroCuenta(numeroCuenta)).thenReturn(Optional.empty());
+        when(cuentaRepository.incrementarSaldo(numeroCuenta, monto)).thenReturn(0);
+        when(cuentaRepository.buscarEnEscritura(numeroCuenta)).thenReturn(Optional.empty());
 
         CuentaNoEncontradaException exception = assertThrows(CuentaNoEncontradaException.class, () -> cuentaTransaccionService.depositar(numeroCuenta, monto));
 
@@ -107,35 +156,52 @@ class CuentaTransaccionServiceImplTest {
     }
 
     @Test
-    void retirar_CuandoSaldoSuficiente_DeberiaRetirarCorrectamente() {
-        log.info("Iniciando prueba: retirar_CuandoSaldoSuficiente_DeberiaRetirarCorrectamente");
+    void depositar_CuandoCuentaInactiva_DeberiaLanzarExcepcion() {
+        log.info("Iniciando prueba: depositar_CuandoCuentaInactiva_DeberiaLanzarExcepcion");
 
         String numeroCuenta = "1234567890";
-        Double monto = 500.0;
+        long monto = 50_000L;
 
-        Cuenta cuentaExistente = Cuenta.builder()
+        Cuenta cuentaInactiva = Cuenta.builder()
                 .id(1L)
                 .numeroCuenta(numeroCuenta)
-                .saldo(1000.0)
+                .saldoCentavos(100_000L)
                 .tipoCuenta(TipoCuenta.AHORROS)
                 .clienteId(1L)
-                .estado(EstadoCuenta.ACTIVO)
+                .estado(EstadoCuenta.INACTIVO)
                 .build();
 
+        when(cuentaRepository.incrementarSaldo(numeroCuenta, monto)).thenReturn(0);
+        when(cuentaRepository.buscarEnEscritura(numeroCuenta)).thenReturn(Optional.of(cuentaInactiva));
+        doThrow(new CuentaInactivaException("Cuenta inactiva")).when(cuentaValidacionService).validarEstadoActivo(cuentaInactiva);
+
+        CuentaInactivaException exception = assertThrows(CuentaInactivaException.class, () -> cuentaTransaccionService.depositar(numeroCuenta, monto));
+
+        log.error("Excepción lanzada: {}", exception.getMessage());
+        assertEquals("Cuenta inactiva", exception.getMessage());
+    }
+
+    @Test
+    void retirar_CuandoSaldoSuficiente_DeberiaRetirarCorrectamente() {
+        log.info("Iniciando prueba: retirar_CuandoSaldoSuficiente_DeberiaRetirarCorrectamente");
+
+        String numeroCuenta = "1234567890";
+        long monto = 50_000L;
+
         Cuenta cuentaActualizada = Cuenta.builder()
                 .id(1L)
                 .numeroCuenta(numeroCuenta)
-                .saldo(500.0)
+                .saldoCentavos(50_000L)
                 .tipoCuenta(TipoCuenta.AHORROS)
                 .clienteId(1L)
                 .estado(EstadoCuenta.ACTIVO)
                 .build();
 
-        when(cuentaRepository.findByNumeroCuenta(numeroCuenta)).thenReturn(Optional.of(cuentaExistente));
-        when(cuentaRepository.save(any(Cuenta.class))).thenReturn(cuentaActualizada);
+        when(cuentaRepository.decrementarSaldo(numeroCuenta, monto, monto + CuentaValidacionService.LIMITE_SOBREGIRO_CORRIENTE)).thenReturn(1);
+        when(cuentaRepository.buscarEnEscritura(numeroCuenta)).thenReturn(Optional.of(cuentaActualizada));
         when(cuentaMapper.convertEntidadADto(cuentaActualizada)).thenReturn(CuentaDTO.builder()
                 .numeroCuenta(numeroCuenta)
-                .saldo(500.0)
+                .saldo(new BigDecimal("500.00"))
                 .tipoCuenta(TipoCuenta.AHORROS)
                 .estado(EstadoCuenta.ACTIVO)
                 .build());
@@ -145,8 +211,10 @@ class CuentaTransaccionServiceImplTest {
         log.info("Resultado obtenido para retiro: {}", resultado);
 
         assertNotNull(resultado, "El resultado no debería ser nulo.");
-        assertEquals(500.0, resultado.getSaldo());
-        verify(cuentaRepository, times(1)).save(cuentaExistente);
+        assertEquals(new BigDecimal("500.00"), resultado.getSaldo());
+        verify(cuentaRepository, times(1)).decrementarSaldo(numeroCuenta, monto, monto + CuentaValidacionService.LIMITE_SOBREGIRO_CORRIENTE);
+        verify(cuentaRepository, never()).save(any(Cuenta.class));
+        verify(registroMovimientos, times(1)).registrar(cuentaActualizada, TipoMovimiento.RETIRO, -monto, null);
     }
 
     @Test
@@ -154,18 +222,19 @@ class CuentaTransaccionServiceImplTest {
         log.info("Iniciando prueba: retirar_CuandoSaldoInsuficiente_DeberiaLanzarExcepcion");
 
         String numeroCuenta = "1234567890";
-        Double monto = 1500.0;
+        long monto = 150_000L;
 
         Cuenta cuentaExistente = Cuenta.builder()
                 .id(1L)
                 .numeroCuenta(numeroCuenta)
-                .saldo(1000.0)
+                .saldoCentavos(100_000L)
                 .tipoCuenta(TipoCuenta.AHORROS)
                 .clienteId(1L)
                 .estado(EstadoCuenta.ACTIVO)
                 .build();
 
-        when(cuentaRepository.findByNumeroCuenta(numeroCuenta)).thenReturn(Optional.of(cuentaExistente));
+        when(cuentaRepository.decrementarSaldo(numeroCuenta, monto, monto + CuentaValidacionService.LIMITE_SOBREGIRO_CORRIENTE)).thenReturn(0);
+        when(cuentaRepository.buscarEnEscritura(numeroCuenta)).thenReturn(Optional.of(cuentaExistente));
         doThrow(new SaldoInsuficienteException("Saldo insuficiente")).when(cuentaValidacionService).validarSaldo(cuentaExistente, monto);
 
         SaldoInsuficienteException exception = assertThrows(SaldoInsuficienteException.class, () -> cuentaTransaccionService.retirar(numeroCuenta, monto));
@@ -173,4 +242,15 @@ class CuentaTransaccionServiceImplTest {
         log.error("Excepción lanzada: {}", exception.getMessage());
         verify(cuentaRepository, never()).save(any(Cuenta.class));
     }
+
+    @Test
+    void transferir_DeberiaDelegarEnElMotorDeTransferencias() {
+        log.info("Iniciando prueba: transferir_DeberiaDelegarEnElMotorDeTransferencias");
+
+        Boolean resultado = cuentaTransaccionService.transferir("1234567890", "0987654321", 10_000L);
+
+        assertTrue(resultado);
+        verify(motorTransferencia, times(1)).transferir("1234567890", "0987654321", 10_000L);
+        verifyNoInteractions(cuentaRepository);
+    }
 }
@@ -0,0 +1,251 @@
+package com.paucar.accountms.transaccion;
+
+import com.paucar.accountms.dto.CuentaDTO;
+import com.paucar.accountms.dto.TransferenciaDTO;
+import com.paucar.accountms.exception.SaldoInsuficienteException;
+import com.paucar.accountms.service.transaccion.CuentaTransaccionServiceImpl;
+import com.paucar.accountms.service.transaccion.CuentaTransaccionServiceSerial;
+import com.paucar.accountms.service.transaccion.EjecutorSerialPorCuenta;
+import com.paucar.accountms.util.ModoLote;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class CuentaTransaccionServiceSerialTest {
+
+    private static final Logger log = LoggerFactory.getLogger(CuentaTransaccionServiceSerialTest.class);
+
+    @Mock
+    private CuentaTransaccionServiceImpl delegado;
+
+    private CuentaTransaccionServiceSerial cuentaTransaccionService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        cuentaTransaccionService = new CuentaTransaccionServiceSerial(delegado, 4, 100);
+    }
+
+    @AfterEach
+    void tearDown() {
+        cuentaTransaccionService.detener();
+    }
+
+    @Test
+    void depositar_DeberiaEjecutarseEnLaFranjaDeLaCuentaYDevolverElResultado() {
+        log.info("Iniciando prueba: depositar_DeberiaEjecutarseEnLaFranjaDeLaCuentaYDevolverElResultado");
+
+        List<String> hilos = new CopyOnWriteArrayList<>();
+        CuentaDTO esperado = CuentaDTO.builder().numeroCuenta("1234567890").saldo(new BigDecimal("1100.00")).build();
+        when(delegado.depositar("1234567890", 10_000L)).thenAnswer(invocacion -> {
+            hilos.add(Thread.currentThread().getName());
+            return esperado;
+        });
+
+        CuentaDTO resultado = cuentaTransaccionService.depositar("1234567890", 10_000L);
+
+        assertSame(esperado, resultado);
+        assertTrue(hilos.get(0).startsWith("cuenta-serial-"));
+    }
+
+    @Test
+    void depositar_CuandoHayConcurrencia_DeberiaAplicarDeAUnoPorCuenta() throws Exception {
+        log.info("Iniciando prueba: depositar_CuandoHayConcurrencia_DeberiaAplicarDeAUnoPorCuenta");
+
+        AtomicInteger enCurso = new AtomicInteger();
+        AtomicInteger maximo = new AtomicInteger();
+        when(delegado.depositar(eq("1234567890"), anyLong())).thenAnswer(invocacion -> {
+            maximo.accumulateAndGet(enCurso.incrementAndGet(), Math::max);
+            Thread.sleep(1);
+            enCurso.decrementAndGet();
+            return new CuentaDTO();
+        });
+
+        ExecutorService clientes = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<CuentaDTO>> futuros = IntStream.range(0, 50)
+                    .mapToObj(i -> clientes.submit(() -> cuentaTransaccionService.depositar("1234567890", 1000L)))
+                    .toList();
+            for (Future<CuentaDTO> futuro : futuros) {
+                futuro.get();
+            }
+        } finally {
+            clientes.shutdown();
+        }
+
+        assertEquals(1, maximo.get());
+        verify(delegado, times(50)).depositar("1234567890", 1000L);
+    }
+
+    @Test
+    void retirar_CuandoElComandoFalla_DeberiaPropagarLaExcepcionOriginal() {
+        log.info("Iniciando prueba: retirar_CuandoElComandoFalla_DeberiaPropagarLaExcepcionOriginal");
+
+        when(delegado.retirar("1234567890", 500_000L)).thenThrow(new SaldoInsuficienteException("Saldo insuficiente"));
+
+        SaldoInsuficienteException exception = assertThrows(SaldoInsuficienteException.class,
+                () -> cuentaTransaccionService.retirar("1234567890", 500_000L));
+
+        log.error("Excepción lanzada: {}", exception.getMessage());
+    }
+
+    @Test
+    void transferir_DeberiaDelegarYDevolverElResultado() {
+        log.info("Iniciando prueba: transferir_DeberiaDelegarYDevolverElResultado");
+
+        when(delegado.transferir("1234567890", "0987654321", 10_000L)).thenReturn(true);
+
+        assertTrue(cuentaTransaccionService.transferir("1234567890", "0987654321", 10_000L));
+        verify(delegado, times(1)).transferir("1234567890", "0987654321", 10_000L);
+    }
+
+    @Test
+    void transferir_ConDepositosConcurrentesYCuentasEnOtrasFranjas_DeberiaAplicarEnOrdenYConservarElSaldo() throws Exception {
+        log.info("Iniciando prueba: transferir_ConDepositosConcurrentesYCuentasEnOtrasFranjas_DeberiaAplicarEnOrdenYConservarElSaldo");
+
+        String cuenta = "1234567890";
+        String origen;
+        String destino;
+        try (EjecutorSerialPorCuenta franjas = new EjecutorSerialPorCuenta(4, 100)) {
+            origen = otraFranja(franjas, cuenta);
+            destino = otraFranja(franjas, cuenta, origen);
+        }
+        LibroEnMemoria libro = new LibroEnMemoria(Map.of(cuenta, 0L, origen, 1_000_000L, destino, 0L));
+        when(delegado.depositar(anyString(), anyLong())).thenAnswer(invocacion -> {
+            libro.cambiar(invocacion.getArgument(0), invocacion.getArgument(1));
+            return new CuentaDTO();
+        });
+        when(delegado.transferir(anyString(), anyString(), anyLong())).thenAnswer(invocacion -> {
+            libro.mover(invocacion.getArgument(0), invocacion.getArgument(1), invocacion.getArgument(2));
+            return true;
+        });
+        when(delegado.transferirLote(anyList(), any())).thenAnswer(invocacion -> {
+            List<TransferenciaDTO> transferencias = invocacion.getArgument(0);
+            for (TransferenciaDTO transferencia : transferencias) {
+                libro.mover(transferencia.getCuentaOrigen(), transferencia.getCuentaDestino(),
+                        transferencia.getMonto().movePointRight(2).longValueExact());
+            }
+            return List.of();
+        });
+
+        // Cada cliente usa sus propios montos para poder reconocer sus operaciones en el registro de la cuenta
+        int clientes = 4;
+        int iteraciones = 25;
+        ExecutorService hilos = Executors.newFixedThreadPool(clientes);
+        try {
+            List<Future<?>> futuros = IntStream.range(0, clientes)
+                    .<Future<?>>mapToObj(cliente -> hilos.submit(() -> {
+                        for (int i = 0; i < iteraciones; i++) {
+                            cuentaTransaccionService.depositar(cuenta, 1000L + cliente);
+                            cuentaTransaccionService.transferir(origen, cuenta, 20L + cliente);
+                            cuentaTransaccionService.transferir(cuenta, destino, 10L + cliente);
+                            cuentaTransaccionService.transferirLote(List.of(
+                                    new TransferenciaDTO(origen, cuenta, BigDecimal.valueOf(40L + cliente, 2)),
+                                    new TransferenciaDTO(cuenta, destino, BigDecimal.valueOf(30L + cliente, 2))),
+                                    ModoLote.TODO_O_NADA);
+                        }
+                    }))
+                    .toList();
+            for (Future<?> futuro : futuros) {
+                futuro.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            hilos.shutdown();
+        }
+
+        assertEquals(1, libro.maximoEnCurso(cuenta));
+        long saldoEsperado = 0;
+        long depositos = 0;
+        for (int cliente = 0; cliente < clientes; cliente++) {
+            saldoEsperado += iteraciones * ((1000L + cliente) + (20L + cliente) - (10L + cliente)
+                    + (40L + cliente) - (30L + cliente));
+            depositos += iteraciones * (1000L + cliente);
+        }
+        assertEquals(saldoEsperado, libro.saldo(cuenta));
+        assertEquals(1_000_000L + depositos, libro.saldo(origen) + libro.saldo(cuenta) + libro.saldo(destino));
+
+        // Cada cliente espera el resultado antes de enviar la siguiente operación: la cuenta las ve en ese orden
+        List<Long> movimientos = libro.movimientos(cuenta);
+        for (int cliente = 0; cliente < clientes; cliente++) {
+            List<Long> propios = List.of(1000L + cliente, 20L + cliente, -(10L + cliente), 40L + cliente, -(30L + cliente));
+            List<Long> delCliente = movimientos.stream().filter(propios::contains).toList();
+            assertEquals(iteraciones * propios.size(), delCliente.size());
+            for (int i = 0; i < delCliente.size(); i += propios.size()) {
+                assertEquals(propios, delCliente.subList(i, i + propios.size()));
+            }
+        }
+    }
+
+    private static String otraFranja(EjecutorSerialPorCuenta franjas, String... ocupadas) {
+        return LongStream.range(1_000_000_000L, 1_000_001_000L)
+                .mapToObj(String::valueOf)
+                .filter(numero -> Arrays.stream(ocupadas).noneMatch(ocupada -> franjas.mismaFranja(ocupada, numero)))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    // Saldos en memoria con lectura y escritura separadas: dos movimientos simultáneos sobre una cuenta perderían
+    // uno de los dos. Registra los movimientos de cada cuenta y cuántos llegó a tener en curso a la vez.
+    private static class LibroEnMemoria {
+
+        private final Map<String, Long> saldos;
+        private final Map<String, AtomicInteger> enCurso = new ConcurrentHashMap<>();
+        private final Map<String, AtomicInteger> maximos = new ConcurrentHashMap<>();
+        private final Map<String, Queue<Long>> registro = new ConcurrentHashMap<>();
+
+        LibroEnMemoria(Map<String, Long> saldosIniciales) {
+            this.saldos = new ConcurrentHashMap<>(saldosIniciales);
+        }
+
+        void mover(String origen, String destino, long monto) throws InterruptedException {
+            cambiar(origen, -monto);
+            cambiar(destino, monto);
+        }
+
+        void cambiar(String numeroCuenta, long monto) throws InterruptedException {
+            int simultaneos = enCurso.computeIfAbsent(numeroCuenta, n -> new AtomicInteger()).incrementAndGet();
+            maximos.computeIfAbsent(numeroCuenta, n -> new AtomicInteger()).accumulateAndGet(simultaneos, Math::max);
+            long saldo = saldos.get(numeroCuenta);
+            Thread.sleep(0, 100_000);
+            saldos.put(numeroCuenta, saldo + monto);
+            registro.computeIfAbsent(numeroCuenta, n -> new ConcurrentLinkedQueue<>()).add(monto);
+            enCurso.get(numeroCuenta).decrementAndGet();
+        }
+
+        long saldo(String numeroCuenta) {
+            return saldos.get(numeroCuenta);
+        }
+
+        int maximoEnCurso(String numeroCuenta) {
+            return maximos.get(numeroCuenta).get();
+        }
+
+        List<Long> movimientos(String numeroCuenta) {
+            return List.copyOf(registro.get(numeroCuenta));
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.paucar.accountms.transaccion;
+
+import com.paucar.accountms.dto.ResultadoTransferenciaDTO;
+import com.paucar.accountms.dto.TransferenciaDTO;
+import com.paucar.accountms.exception.CuentaNoEncontradaException;
+import com.paucar.accountms.exception.LoteTransferenciasRechazadoException;
+import com.paucar.accountms.exception.SaldoInsuficienteException;
+import com.paucar.accountms.model.Cuenta;
+import com.paucar.accountms.repository.CuentaRepository;
+import com.paucar.accountms.service.consulta.CuentasModificadasEvento;
+import com.paucar.accountms.service.movimiento.RegistroMovimientos;
+import com.paucar.accountms.service.transaccion.MotorTransferencia;
+import com.paucar.accountms.service.validacion.CuentaValidacionServiceImpl;
+import com.paucar.accountms.util.EstadoCuenta;
+import com.paucar.accountms.util.ModoLote;
+import com.paucar.accountms.util.TipoCuenta;
+import com.paucar.accountms.util.TipoMovimiento;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class MotorTransferenciaTest {
+
+    private static final Logger log = LoggerFactory.getLogger(MotorTransferenciaTest.class);
+
+    @Mock
+    private CuentaRepository cuentaRepository;
+
+    @Mock
+    private RegistroMovimientos registroMovimientos;
+
+    @Mock
+    private ApplicationEventPublisher eventos;
+
+    private MotorTransferencia motorTransferencia;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        // Se usan las reglas reales de validación: el motor valida en memoria sobre las cuentas bloqueadas.
+        motorTransferencia = new MotorTransferencia(cuentaRepository, new CuentaValidacionServiceImpl(cuentaRepository),
+                registroMovimientos, eventos);
+    }
+
+    @Test
+    void transferir_CuandoCuentasValidas_DeberiaActualizarAmbosSaldosConUnaSolaConsulta() {
+        log.info("Iniciando prueba: transferir_CuandoCuentasValidas_DeberiaActualizarAmbosSaldosConUnaSolaConsulta");
+
+        Cuenta origen = cuenta(1L, "1234567890", 100_000L, TipoCuenta.AHORROS);
+        Cuenta destino = cuenta(2L, "0987654321", 20_000L, TipoCuenta.CORRIENTE);
+        when(cuentaRepository.bloquearPorNumerosCuenta(anyCollection())).thenReturn(List.of(destino, origen));
+
+        motorTransferencia.transferir("1234567890", "0987654321", 30_000L);
+
+        assertEquals(70_000L, origen.getSaldoCentavos());
+        assertEquals(50_000L, destino.getSaldoCentavos());
+        verify(cuentaRepository, times(1)).bloquearPorNumerosCuenta(anyCollection());
+        verify(cuentaRepository, never()).findByNumeroCuenta(anyString());
+        verify(cuentaRepository, never()).save(any(Cuenta.class));
+        verify(eventos, times(1)).publishEvent(CuentasModificadasEvento.de(1L));
+        verify(registroMovimientos).registrar(eq(origen), eq(TipoMovimiento.TRANSFERENCIA_ENVIADA), eq(-30_000L), anyString());
+        verify(registroMovimientos).registrar(eq(destino), eq(TipoMovimiento.TRANSFERENCIA_RECIBIDA), eq(30_000L), anyString());
+    }
+
+    @Test
+    void transferir_CuandoCorrienteSuperaSobregiro_DeberiaLanzarExcepcion() {
+        log.info("Iniciando prueba: transferir_CuandoCorrienteSuperaSobregiro_DeberiaLanzarExcepcion");
+
+        Cuenta origen = cuenta(1L, "1234567890", 10_000L, TipoCuenta.CORRIENTE);
+        Cuenta destino = cuenta(2L, "0987654321", 20_000L, TipoCuenta.AHORROS);
+        when(cuentaRepository.bloquearPorNumerosCuenta(anyCollection())).thenReturn(List.of(origen, destino));
+
+        SaldoInsuficienteException exception = assertThrows(SaldoInsuficienteException.class,
+                () -> motorTransferencia.transferir("1234567890", "0987654321", 70_000L));
+
+        log.error("Excepción lanzada: {}", exception.getMessage());
+        assertEquals(10_000L, origen.getSaldoCentavos());
+        assertEquals(20_000L, destino.getSaldoCentavos());
+        verifyNoInteractions(registroMovimientos);
+    }
+
+    @Test
+    void transferir_CuandoDestinoNoExiste_DeberiaLanzarExcepcion() {
+        log.info("Iniciando prueba: transferir_CuandoDestinoNoExiste_DeberiaLanzarExcepcion");
+
+        Cuenta origen = cuenta(1L, "1234567890", 100_000L, TipoCuenta.AHORROS);
+        when(cuentaRepository.bloquearPorNumerosCuenta(anyCollection())).thenReturn(List.of(origen));
+
+        CuentaNoEncontradaException exception = assertThrows(CuentaNoEncontradaException.class,
+                () -> motorTransferencia.transferir("1234567890", "0987654321", 10_000L));
+
+        log.error("Excepción lanzada: {}", exception.getMessage());
+        assertEquals(100_000L, origen.getSaldoCentavos());
+    }
+
+    @Test
+    void transferir_CuandoOrigenYDestinoSonIguales_DeberiaLanzarExcepcion() {
+        log.info("Iniciando prueba: transferir_CuandoOrigenYDestinoSonIguales_DeberiaLanzarExcepcion");
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> motorTransferencia.transferir("1234567890", "1234567890", 10_000L));
+
+        log.error("Excepción lanzada: {}", exception.getMessage());
+        verifyNoInteractions(cuentaRepository);
+    }
+
+    @Test
+    void transferirLote_CuandoMejorEsfuerzo_DeberiaAplicarLasValidasEnOrden() {
+        log.info("Iniciando prueba: transferirLote_CuandoMejorEsfuerzo_DeberiaAplicarLasValidasEnOrden");
+
+        Cuenta empresa = cuenta(1L, "1000000001", 100_000L, TipoCuenta.AHORROS);
+        Cuenta empleadoA = cuenta(2L, "2000000002", 0L, TipoCuenta.AHORROS);
+        Cuenta empleadoB = cuenta(3L, "3000000003", 0L, TipoCuenta.AHORROS);
+        when(cuentaRepository.bloquearPorNumerosCuenta(anyCollection())).thenReturn(List.of(empresa, empleadoA, empleadoB));
+
+        List<ResultadoTransferenciaDTO> resultados = motorTransferencia.transferirLote(List.of(
+                new TransferenciaDTO("1000000001", "2000000002", new BigDecimal("600.00")),
+                new TransferenciaDTO("1000000001", "3000000003", new BigDecimal("600.00")),
+                new TransferenciaDTO("1000000001", "9999999999", new BigDecimal("10.00")),
+                new TransferenciaDTO("1000000001", "3000000003", new BigDecimal("400.00"))), ModoLote.MEJOR_ESFUERZO);
+
+        log.info("Resultados del lote: {}", resultados);
+
+        assertEquals(List.of(true, false, false, true), resultados.stream().map(ResultadoTransferenciaDTO::isExitosa).toList());
+        assertEquals(0L, empresa.getSaldoCentavos());
+        assertEquals(60_000L, empleadoA.getSaldoCentavos());
+        assertEquals(40_000L, empleadoB.getSaldoCentavos());
+        verify(cuentaRepository, times(1)).bloquearPorNumerosCuenta(anyCollection());
+    }
+
+    @Test
+    void transferirLote_CuandoTodoONadaYAlgunaFalla_DeberiaRechazarElLote() {
+        log.info("Iniciando prueba: transferirLote_CuandoTodoONadaYAlgunaFalla_DeberiaRechazarElLote");
+
+        Cuenta empresa = cuenta(1L, "1000000001", 100_000L, TipoCuenta.AHORROS);
+        Cuenta empleado = cuenta(2L, "2000000002", 0L, TipoCuenta.AHORROS);
+        when(cuentaRepository.bloquearPorNumerosCuenta(anyCollection())).thenReturn(List.of(empresa, empleado));
+
+        LoteTransferenciasRechazadoException exception = assertThrows(LoteTransferenciasRechazadoException.class,
+                () -> motorTransferencia.transferirLote(List.of(
+                        new TransferenciaDTO("1000000001", "2000000002", new BigDecimal("600.00")),
+                        new TransferenciaDTO("1000000001", "2000000002", new BigDecimal("600.00"))), ModoLote.TODO_O_NADA));
+
+        log.error("Excepción lanzada: {}", exception.getMessage());
+        assertEquals(2, exception.getResultados().size());
+        assertTrue(exception.getResultados().stream().noneMatch(ResultadoTransferenciaDTO::isExitosa));
+    }
+
+    private Cuenta cuenta(Long id, String numeroCuenta, long saldoCentavos, TipoCuenta tipoCuenta) {
+        return Cuenta.builder()
+                .id(id)
+                .numeroCuenta(numeroCuenta)
+                .saldoCentavos(saldoCentavos)
+                .tipoCuenta(tipoCuenta)
+                .clienteId(1L)
+                .estado(EstadoCuenta.ACTIVO)
+                .build();
+    }
+}
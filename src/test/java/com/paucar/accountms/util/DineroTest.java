@@ -0,0 +1,43 @@
+package com.paucar.accountms.util;
+
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DineroTest {
+
+    private static final Logger log = LoggerFactory.getLogger(DineroTest.class);
+
+    @Test
+    void aCentavos_DeberiaConvertirImportesExactos() {
+        log.info("Iniciando prueba: aCentavos_DeberiaConvertirImportesExactos");
+
+        assertEquals(150_050L, Dinero.aCentavos(new BigDecimal("1500.50")));
+        assertEquals(10L, Dinero.aCentavos(new BigDecimal("0.1")));
+        assertEquals(-50_000L, Dinero.aCentavos(new BigDecimal("-500")));
+        assertEquals(100L, Dinero.aCentavos(new BigDecimal("1.000")));
+    }
+
+    @Test
+    void aCentavos_CuandoTieneMasDeDosDecimales_DeberiaLanzarExcepcion() {
+        log.info("Iniciando prueba: aCentavos_CuandoTieneMasDeDosDecimales_DeberiaLanzarExcepcion");
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> Dinero.aCentavos(new BigDecimal("10.005")));
+
+        log.error("Excepción lanzada: {}", exception.getMessage());
+        assertEquals("El monto no puede tener más de 2 decimales.", exception.getMessage());
+    }
+
+    @Test
+    void aDecimal_DeberiaConservarDosDecimales() {
+        log.info("Iniciando prueba: aDecimal_DeberiaConservarDosDecimales");
+
+        assertEquals(new BigDecimal("1500.50"), Dinero.aDecimal(150_050L));
+        assertEquals(new BigDecimal("0.30"), Dinero.aDecimal(10L + 20L));
+    }
+}
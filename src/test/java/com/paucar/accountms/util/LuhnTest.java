@@ -0,0 +1,32 @@
+package com.paucar.accountms.util;
+
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LuhnTest {
+
+    private static final Logger log = LoggerFactory.getLogger(LuhnTest.class);
+
+    @Test
+    void digitoControl_DeberiaCalcularElDigitoDeLuhn() {
+        log.info("Iniciando prueba: digitoControl_DeberiaCalcularElDigitoDeLuhn");
+
+        assertEquals(3, Luhn.digitoControl(7_992_739_871L));
+        assertEquals(9, Luhn.digitoControl(1_000_000_000L));
+        assertEquals(0, Luhn.digitoControl(0L));
+    }
+
+    @Test
+    void esValido_DeberiaDetectarErroresDeUnDigitoYTransposiciones() {
+        log.info("Iniciando prueba: esValido_DeberiaDetectarErroresDeUnDigitoYTransposiciones");
+
+        assertTrue(Luhn.esValido("79927398713"));
+        assertFalse(Luhn.esValido("79927398714"), "Un dígito cambiado debería detectarse.");
+        assertFalse(Luhn.esValido("79927389713"), "Dos dígitos adyacentes intercambiados deberían detectarse.");
+        assertFalse(Luhn.esValido("7992739871a"));
+        assertFalse(Luhn.esValido(null));
+    }
+}
@@ -1,5 +1,6 @@
 package com.paucar.accountms.validacion;
 
+import com.paucar.accountms.exception.CuentaInactivaException;
 import com.paucar.accountms.exception.CuentaNoEncontradaException;
 import com.paucar.accountms.exception.SaldoInsuficienteException;
 import com.paucar.accountms.model.Cuenta;
@@ -44,7 +45,7 @@ class CuentaValidacionServiceImplTest {
                 .estado(EstadoCuenta.INACTIVO)
                 .build();
 
-        IllegalStateException exception = assertThrows(IllegalStateException.class, () -> cuentaValidacionService.validarEstadoActivo(cuenta));
+        CuentaInactivaException exception = assertThrows(CuentaInactivaException.class, () -> cuentaValidacionService.validarEstadoActivo(cuenta));
 
         log.error("Excepción lanzada: {}", exception.getMessage());
         assertEquals("No se pueden realizar transacciones en cuentas que no estén ACTIVAS.", exception.getMessage());
@@ -56,11 +57,11 @@ class CuentaValidacionServiceImplTest {
 
         Cuenta cuenta = Cuenta.builder()
                 .numeroCuenta("1234567890")
-                .saldo(100.0)
+                .saldoCentavos(10_000L)
                 .tipoCuenta(TipoCuenta.AHORROS)
                 .build();
 
-        SaldoInsuficienteException exception = assertThrows(SaldoInsuficienteException.class, () -> cuentaValidacionService.validarSaldo(cuenta, 200.0));
+        SaldoInsuficienteException exception = assertThrows(SaldoInsuficienteException.class, () -> cuentaValidacionService.validarSaldo(cuenta, 20_000L));
 
         log.error("Excepción lanzada: {}", exception.getMessage());
         assertEquals("Saldo insuficiente en la cuenta de ahorros.", exception.getMessage());
@@ -72,11 +73,11 @@ class CuentaValidacionServiceImplTest {
 
         Cuenta cuenta = Cuenta.builder()
                 .numeroCuenta("1234567890")
-                .saldo(-400.0)
+                .saldoCentavos(-40_000L)
                 .tipoCuenta(TipoCuenta.CORRIENTE)
                 .build();
 
-        SaldoInsuficienteException exception = assertThrows(SaldoInsuficienteException.class, () -> cuentaValidacionService.validarSaldo(cuenta, 200.0));
+        SaldoInsuficienteException exception = assertThrows(SaldoInsuficienteException.class, () -> cuentaValidacionService.validarSaldo(cuenta, 20_000L));
 
         log.error("Excepción lanzada: {}", exception.getMessage());
         assertEquals("Límite de sobregiro alcanzado en la cuenta corriente.", exception.getMessage());
@@ -86,7 +87,7 @@ class CuentaValidacionServiceImplTest {
     void validarMonto_CuandoMontoInvalido_DeberiaLanzarExcepcion() {
         log.info("Iniciando prueba: validarMonto_CuandoMontoInvalido_DeberiaLanzarExcepcion");
 
-        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> cuentaValidacionService.validarMonto(-1.0));
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> cuentaValidacionService.validarMonto(-100L));
 
         log.error("Excepción lanzada: {}", exception.getMessage());
         assertEquals("El monto debe ser mayor que 0.", exception.getMessage());
@@ -98,7 +99,7 @@ class CuentaValidacionServiceImplTest {
 
         when(cuentaRepository.findByNumeroCuenta("1234567890")).thenReturn(Optional.empty());
 
-        CuentaNoEncontradaException exception = assertThrows(CuentaNoEncontradaException.class, () -> cuentaValidacionService.validarCuenta("1234567890", 100.0, "origen"));
+        CuentaNoEncontradaException exception = assertThrows(CuentaNoEncontradaException.class, () -> cuentaValidacionService.validarCuenta("1234567890", 10_000L, "origen"));
 
         log.error("Excepción lanzada: {}", exception.getMessage());
         assertEquals("No se pudo realizar la transferencia: la cuenta de origen con el número [1234567890] no fue encontrada.", exception.getMessage());
@@ -115,7 +116,7 @@ class CuentaValidacionServiceImplTest {
 
         when(cuentaRepository.findByNumeroCuenta("1234567890")).thenReturn(Optional.of(cuenta));
 
-        IllegalStateException exception = assertThrows(IllegalStateException.class, () -> cuentaValidacionService.validarCuenta("1234567890", 100.0, "origen"));
+        CuentaInactivaException exception = assertThrows(CuentaInactivaException.class, () -> cuentaValidacionService.validarCuenta("1234567890", 10_000L, "origen"));
 
         log.error("Excepción lanzada: {}", exception.getMessage());
         assertEquals("No se pudo realizar la transferencia: la cuenta de origen con el número [1234567890] está INACTIVA.", exception.getMessage());
@@ -127,14 +128,14 @@ class CuentaValidacionServiceImplTest {
 
         Cuenta cuenta = Cuenta.builder()
                 .numeroCuenta("1234567890")
-                .saldo(50.0)
+                .saldoCentavos(5000L)
                 .tipoCuenta(TipoCuenta.AHORROS)
                 .estado(EstadoCuenta.ACTIVO)
                 .build();
 
         when(cuentaRepository.findByNumeroCuenta("1234567890")).thenReturn(Optional.of(cuenta));
 
-        SaldoInsuficienteException exception = assertThrows(SaldoInsuficienteException.class, () -> cuentaValidacionService.validarCuenta("1234567890", 100.0, "origen"));
+        SaldoInsuficienteException exception = assertThrows(SaldoInsuficienteException.class, () -> cuentaValidacionService.validarCuenta("1234567890", 10_000L, "origen"));
 
         log.error("Excepción lanzada: {}", exception.getMessage());
         assertEquals("No se pudo realizar la transferencia: saldo insuficiente en la cuenta de origen [1234567890].", exception.getMessage());
@@ -146,14 +147,14 @@ class CuentaValidacionServiceImplTest {
 
         Cuenta cuenta = Cuenta.builder()
                 .numeroCuenta("1234567890")
-                .saldo(1000.0)
+                .saldoCentavos(100_000L)
                 .tipoCuenta(TipoCuenta.AHORROS)
                 .estado(EstadoCuenta.ACTIVO)
                 .build();
 
         when(cuentaRepository.findByNumeroCuenta("1234567890")).thenReturn(Optional.of(cuenta));
 
-        Cuenta resultado = cuentaValidacionService.validarCuenta("1234567890", 500.0, "origen");
+        Cuenta resultado = cuentaValidacionService.validarCuenta("1234567890", 50_000L, "origen");
 
         log.info("Resultado de la validación de cuenta: {}", resultado);
 